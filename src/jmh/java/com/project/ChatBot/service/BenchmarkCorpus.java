@@ -0,0 +1,132 @@
+package com.project.ChatBot.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deterministic synthetic HR documents for the benchmarks. Every document is a few pages of
+ * policy sections laid out the way extracted PDFs are: an ALL CAPS header, prose sentences,
+ * "Key: Value" lines, a bulleted list and a contact line. The same seed always produces the
+ * same corpus, so runs are comparable.
+ */
+final class BenchmarkCorpus {
+
+    static final String[] TOPICS = {
+            "LEAVE POLICY", "MEDICAL INSURANCE", "HYBRID WORK", "PAYROLL", "INTERNAL HIRING",
+            "PARENTAL LEAVE", "TRAVEL EXPENSES", "DISCIPLINARY PROCESS", "WORKDAY SYSTEM", "MEAL CARD"
+    };
+
+    private static final String[] SUBJECTS = {
+            "Employees", "Managers", "New joiners", "Full-time staff", "Contractors", "Team leads"
+    };
+    private static final String[] VERBS = {
+            "must submit", "can request", "are entitled to", "should review", "receive", "may carry over"
+    };
+    private static final String[] OBJECTS = {
+            "paid leave", "sick leave", "reimbursement claims", "insurance coverage", "remote work days",
+            "payslips", "promotion requests", "travel advances", "meal card balance", "dependent coverage"
+    };
+    private static final String[] QUALIFIERS = {
+            "through the Workday portal", "within ten working days", "after manager approval",
+            "at the end of every quarter", "as described in the handbook", "before the payroll cutoff"
+    };
+
+    /**
+     * Questions of the kind the chat endpoint receives, mixing document terms and stop words
+     */
+    static final String[] QUERIES = {
+            "How many days of paid leave can I carry over to the next year?",
+            "What is the process to apply for sick leave in the Workday portal",
+            "Does the medical insurance cover my parents and dependents",
+            "how do I get reimbursement for travel expenses",
+            "what is the hybrid work policy for remote work days",
+            "When is the payroll cutoff and where are the payslips",
+            "Who approves internal hiring and promotion requests",
+            "tell me about the parental leave for adoption"
+    };
+
+    static final String[] INTENTS = {
+            "leave_policy", "workday_system", "benefits", "benefits",
+            "hybrid_work", "general_hr", "internal_hiring", "parental_leave"
+    };
+
+    /**
+     * Short messages for the greeting and intent classifiers: small talk that takes the fast
+     * path and questions that fall through it
+     */
+    static final String[] MESSAGES = {
+            "hi", "Hello there", "good morning!", "thanks a lot", "ok cool", "how are you doing",
+            QUERIES[0], QUERIES[1], QUERIES[2], QUERIES[3], QUERIES[4], QUERIES[5], QUERIES[6], QUERIES[7]
+    };
+
+    private BenchmarkCorpus() {
+    }
+
+    /**
+     * Full text of one synthetic document
+     */
+    static String documentText(int document, int pages) {
+        StringBuilder text = new StringBuilder();
+        for (String page : pageTexts(document, pages)) {
+            text.append(page);
+        }
+        return text.toString();
+    }
+
+    static List<String> pageTexts(int document, int pages) {
+        Random random = new Random(31L * document + 7);
+        List<String> result = new ArrayList<>(pages);
+        for (int page = 0; page < pages; page++) {
+            String topic = TOPICS[random.nextInt(TOPICS.length)];
+            StringBuilder text = new StringBuilder();
+            text.append(topic).append('\n');
+            for (int sentence = 0; sentence < 12; sentence++) {
+                text.append(SUBJECTS[random.nextInt(SUBJECTS.length)]).append(' ')
+                        .append(VERBS[random.nextInt(VERBS.length)]).append(' ')
+                        .append(OBJECTS[random.nextInt(OBJECTS.length)]).append(' ')
+                        .append(QUALIFIERS[random.nextInt(QUALIFIERS.length)]).append(". ");
+                if (sentence % 4 == 3) {
+                    text.append('\n');
+                }
+            }
+            text.append("\nEligibility: ").append(SUBJECTS[random.nextInt(SUBJECTS.length)].toLowerCase())
+                    .append(" after ").append(1 + random.nextInt(6)).append(" months\n");
+            text.append("Approver - ").append(SUBJECTS[random.nextInt(SUBJECTS.length)]).append('\n');
+            text.append("Steps to follow:\n");
+            for (int item = 0; item < 4; item++) {
+                text.append("- ").append(VERBS[random.nextInt(VERBS.length)]).append(' ')
+                        .append(OBJECTS[random.nextInt(OBJECTS.length)]).append('\n');
+            }
+            text.append("\nQuestions go to people.ops").append(document % 7).append("@example.com or 555-010-")
+                    .append(1000 + random.nextInt(9000)).append(". \n\n");
+            result.add(text.toString());
+        }
+        return result;
+    }
+
+    /**
+     * Indexed corpus entry, built the same way PageIndexer builds one from extracted pages
+     */
+    static CorpusSnapshot.DocumentEntry entry(int document, int pages) {
+        List<CorpusSnapshot.PageText> pageTexts = new ArrayList<>(pages);
+        List<String> texts = pageTexts(document, pages);
+        for (int page = 0; page < texts.size(); page++) {
+            pageTexts.add(CorpusSnapshot.PageText.extracted(page + 1, document + ":" + page, texts.get(page)));
+        }
+        String text = String.join("", texts);
+        return CorpusSnapshot.DocumentEntry.fromPages(name(document), document, text.length(), null, pageTexts);
+    }
+
+    static CorpusSnapshot snapshot(int documents, int pages) {
+        List<CorpusSnapshot.DocumentEntry> entries = new ArrayList<>(documents);
+        for (int document = 0; document < documents; document++) {
+            entries.add(entry(document, pages));
+        }
+        return CorpusSnapshot.empty().next(entries);
+    }
+
+    static String name(int document) {
+        return String.format("policy-%04d.pdf", document);
+    }
+}
@@ -0,0 +1,86 @@
+package com.project.ChatBot.service;
+
+import com.project.ChatBot.model.ChatMessage;
+import com.project.ChatBot.model.ConversationSummary;
+import com.project.ChatBot.monitoring.ChatMetrics;
+import com.project.ChatBot.monitoring.RequestTimings;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conversation context building across 10, 100 and 1,000 live sessions of 20 messages and a
+ * rolling summary each, backed by the in-memory session store. One op is one context for
+ * the next session in turn: either served from the context cache, or rebuilt after the
+ * cached copy is dropped (what happens on the first read after every new message).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ChatHistoryBenchmark {
+
+    private static final int MESSAGES_PER_SESSION = 20;
+
+    @Param({"10", "100", "1000"})
+    public int sessions;
+
+    private ChatHistoryService chatHistoryService;
+    private String[] sessionIds;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        ChatMetrics chatMetrics = new ChatMetrics();
+        ReflectionTestUtils.setField(chatMetrics, "registry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(chatMetrics, "requestTimings", new RequestTimings());
+
+        MemoryBudget memoryBudget = new MemoryBudget();
+        ReflectionTestUtils.setField(memoryBudget, "budgetMb", 256L);
+        ReflectionTestUtils.setField(memoryBudget, "chatMetrics", chatMetrics);
+        memoryBudget.init();
+
+        chatHistoryService = new ChatHistoryService();
+        ReflectionTestUtils.setField(chatHistoryService, "sessionStore", new InMemorySessionStore());
+        ReflectionTestUtils.setField(chatHistoryService, "chatHistoryLog", new ChatHistoryLog());
+        ReflectionTestUtils.setField(chatHistoryService, "memoryBudget", memoryBudget);
+        ReflectionTestUtils.setField(chatHistoryService, "sessionTimeout", 1_800_000L);
+        ReflectionTestUtils.setField(chatHistoryService, "expiryTick", 1000L);
+        ReflectionTestUtils.setField(chatHistoryService, "expiryWheelSize", 512);
+        ReflectionTestUtils.setField(chatHistoryService, "contextMaxMessages", 20);
+        ReflectionTestUtils.setField(chatHistoryService, "contextMaxChars", 6000);
+        chatHistoryService.recoverSessions();
+
+        sessionIds = new String[sessions];
+        for (int session = 0; session < sessions; session++) {
+            String sessionId = "session-" + session;
+            sessionIds[session] = sessionId;
+            for (int message = 0; message < MESSAGES_PER_SESSION; message++) {
+                String text = message % 2 == 0
+                        ? BenchmarkCorpus.QUERIES[(session + message) % BenchmarkCorpus.QUERIES.length]
+                        : BenchmarkCorpus.documentText(session, 1);
+                chatHistoryService.saveChatMessage(new ChatMessage(sessionId, message % 2 == 0 ? "user" : "bot", text, false));
+            }
+            chatHistoryService.updateConversationSummary(sessionId, new ConversationSummary(
+                    "The employee asked about leave carry over and the Workday portal; the assistant explained the approval steps.",
+                    MESSAGES_PER_SESSION - 3));
+            chatHistoryService.buildConversationContext(sessionId, 3);
+        }
+    }
+
+    @Benchmark
+    public String contextCached() {
+        return chatHistoryService.buildConversationContext(sessionIds[next++ % sessions], 3);
+    }
+
+    @Benchmark
+    public String contextRebuilt() {
+        String sessionId = sessionIds[next++ % sessions];
+        chatHistoryService.forgetContext(sessionId);
+        return chatHistoryService.buildConversationContext(sessionId, 3);
+    }
+}
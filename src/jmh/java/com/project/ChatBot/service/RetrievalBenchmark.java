@@ -0,0 +1,62 @@
+package com.project.ChatBot.service;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Retrieval over corpora of 10, 100 and 1,000 documents; one op is one question answered
+ * against every document.
+ *
+ * The keyword search gets the snapshot installed directly and marked as just validated, so
+ * no revalidation or PDF extraction runs during measurement. The PDF analysis path filters
+ * documents structured up front, as its cache holds them after the first query.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RetrievalBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int documents;
+
+    private DocumentService documentService;
+    private EnhancedPdfProcessingService pdfProcessingService;
+    private List<EnhancedPdfProcessingService.ProcessedDocument> processedDocuments;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        documentService = new DocumentService();
+        ReflectionTestUtils.setField(documentService, "snapshot", BenchmarkCorpus.snapshot(documents, 5));
+        ReflectionTestUtils.setField(documentService, "validatedAt", Long.MAX_VALUE);
+
+        pdfProcessingService = new EnhancedPdfProcessingService();
+        processedDocuments = new ArrayList<>(documents);
+        for (int document = 0; document < documents; document++) {
+            processedDocuments.add(pdfProcessingService.structurePdfContent(
+                    BenchmarkCorpus.documentText(document, 5), BenchmarkCorpus.name(document)));
+        }
+    }
+
+    @Benchmark
+    public String searchRelevantContent() {
+        int query = next++ % BenchmarkCorpus.QUERIES.length;
+        return documentService.searchRelevantContent(BenchmarkCorpus.QUERIES[query], BenchmarkCorpus.INTENTS[query]);
+    }
+
+    @Benchmark
+    public void filterContentByQuery(Blackhole blackhole) {
+        String query = BenchmarkCorpus.QUERIES[next++ % BenchmarkCorpus.QUERIES.length];
+        for (EnhancedPdfProcessingService.ProcessedDocument document : processedDocuments) {
+            blackhole.consume(pdfProcessingService.filterContentByQuery(document, query));
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.project.ChatBot.service;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-message text processing that runs before any document is touched: keyword
+ * extraction, the stop word check, the greeting fast path and the fallback intent
+ * classifier. None of these depend on the corpus, so they run over the fixed message mix
+ * in BenchmarkCorpus; one op is one message (one word for isStopWord).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TextProcessingBenchmark {
+
+    private DocumentService documentService;
+    private GeminiService geminiService;
+    private RAGService ragService;
+    private String[] words;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        documentService = new DocumentService();
+        geminiService = new GeminiService();
+        ragService = new RAGService();
+        words = String.join(" ", BenchmarkCorpus.QUERIES).toLowerCase().split("\\s+");
+    }
+
+    @Benchmark
+    public Object extractKeywords() {
+        return documentService.extractKeywords(BenchmarkCorpus.QUERIES[next++ % BenchmarkCorpus.QUERIES.length]);
+    }
+
+    @Benchmark
+    public boolean isStopWord() {
+        return documentService.isStopWord(words[next++ % words.length]);
+    }
+
+    @Benchmark
+    public String greetingClassifier() {
+        return geminiService.handleGreetingOrSmallTalk(BenchmarkCorpus.MESSAGES[next++ % BenchmarkCorpus.MESSAGES.length]);
+    }
+
+    @Benchmark
+    public String intentClassifier() {
+        return ragService.determineIntent(BenchmarkCorpus.QUERIES[next++ % BenchmarkCorpus.QUERIES.length].toLowerCase());
+    }
+}
@@ -1,12 +1,30 @@
 package com.project.ChatBot;
 
+import com.project.ChatBot.loadtest.FakeGeminiServer;
+import com.project.ChatBot.loadtest.LoadGenerator;
+import com.project.ChatBot.service.CorpusIndexer;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import java.util.Arrays;
 
 @SpringBootApplication
+@EnableScheduling
 public class ChatBotApplication {
 
 	public static void main(String[] args) {
+		// "index <dir>" runs the offline corpus indexer instead of the web application
+		if (args.length > 0 && "index".equals(args[0])) {
+			System.exit(CorpusIndexer.run(Arrays.copyOfRange(args, 1, args.length)));
+		}
+		// "loadtest" drives /chat at fixed arrival rates; "fake-gemini" serves a local stand-in for the API
+		if (args.length > 0 && "loadtest".equals(args[0])) {
+			System.exit(LoadGenerator.run(Arrays.copyOfRange(args, 1, args.length)));
+		}
+		if (args.length > 0 && "fake-gemini".equals(args[0])) {
+			System.exit(FakeGeminiServer.run(Arrays.copyOfRange(args, 1, args.length)));
+		}
 		SpringApplication.run(ChatBotApplication.class, args);
 	}
 
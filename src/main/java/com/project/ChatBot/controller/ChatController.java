@@ -1,22 +1,47 @@
 package com.project.ChatBot.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project.ChatBot.model.ChatHistoryPage;
 import com.project.ChatBot.model.ChatRequest;
 import com.project.ChatBot.model.ChatResponse;
 import com.project.ChatBot.model.ChatMessage;
+import com.project.ChatBot.monitoring.ChatLogSampling;
+import com.project.ChatBot.monitoring.ChatMetrics;
+import com.project.ChatBot.monitoring.RequestTimings;
+import com.project.ChatBot.monitoring.Tracing;
 import com.project.ChatBot.service.DocumentService;
 import com.project.ChatBot.service.ChatHistoryService;
+import com.project.ChatBot.service.ConversationSummaryService;
 import com.project.ChatBot.service.RAGService;
 import com.project.ChatBot.service.IntelligentChatbotService;
+import com.project.ChatBot.service.StartupTimings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 @RestController
 @CrossOrigin
 public class ChatController {
 
+    private static final Logger log = LoggerFactory.getLogger(ChatController.class);
+
+    private static final int DEFAULT_HISTORY_PAGE_SIZE = 50;
+    private static final int MAX_HISTORY_PAGE_SIZE = 200;
+    private static final int EXPORT_CHUNK_SIZE = 100;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @Autowired
     private ChatHistoryService chatHistoryService;
 
@@ -29,8 +54,38 @@ public class ChatController {
     @Autowired
     private IntelligentChatbotService intelligentChatbotService;
 
+    @Autowired
+    private ConversationSummaryService conversationSummaryService;
+
+    @Autowired
+    private StartupTimings startupTimings;
+
+    @Autowired
+    private ChatMetrics chatMetrics;
+
+    @Autowired
+    private Tracing tracing;
+
+    @Autowired
+    private ChatLogSampling chatLogSampling;
+
+    @Autowired
+    private RequestTimings requestTimings;
+
+    @Value("${chatbot.server-timing.enabled:true}")
+    private boolean serverTimingEnabled;
+
+    // Whether clients may ask for the latency breakdown in the response body ("debug": true)
+    @Value("${chatbot.chat.debug-enabled:true}")
+    private boolean debugEnabled;
+
     @PostMapping("/chat")
     public ResponseEntity<ChatResponse> chat(@RequestBody ChatRequest request) {
+        long requestStart = System.nanoTime();
+        Tracing.Span span = tracing.startServerSpan("ChatController.chat");
+        chatLogSampling.begin(span.getTraceId());
+        RequestTimings.Breakdown timings = requestTimings.begin();
+        boolean debug = debugEnabled && Boolean.TRUE.equals(request.getDebug());
         try {
             String message = request.getMessage();
             String sessionId = request.getSessionId();
@@ -41,42 +96,108 @@ public class ChatController {
             }
 
             // Save user message to chat history
+            long stageStart = System.nanoTime();
             ChatMessage userMessage = new ChatMessage(sessionId, "user", message, false);
             chatHistoryService.saveChatMessage(userMessage);
+            long persistNanos = System.nanoTime() - stageStart;
 
-            System.out.println("🚀 Processing intelligent query: " + message);
-            System.out.println("📱 Session ID: " + sessionId);
+            log.info("🚀 Processing intelligent query for session {} ({} chars)", sessionId,
+                    message == null ? 0 : message.length());
+            log.debug("💬 Query: {}", message);
+            span.setAttribute("chat.session_id", sessionId);
+            span.setAttribute("chat.message_chars", message == null ? 0 : message.length());
 
             // Use the new intelligent chatbot service for ALL queries
 
             String response = intelligentChatbotService.processIntelligentQuery(message, sessionId);
 
             // Save bot response to chat history
+            stageStart = System.nanoTime();
             ChatMessage botMessage = new ChatMessage(sessionId, "bot", response, false);
             chatHistoryService.saveChatMessage(botMessage);
+            chatMetrics.recordStageNanos("persist", persistNanos + System.nanoTime() - stageStart);
 
-            return ResponseEntity.ok(new ChatResponse(response, sessionId));
+            // Fold older turns into the session summary in the background
+            conversationSummaryService.refreshAsync(sessionId);
+
+            startupTimings.recordAnswer();
+            chatMetrics.recordRequest("success", requestStart);
+            span.setAttribute("chat.response_chars", response == null ? 0 : response.length());
+            return respond(span, timings, new ChatResponse(response, sessionId), debug);
 
         } catch (Exception e) {
-            System.err.println("❌ Error in chat controller: " + e.getMessage());
-            e.printStackTrace();
+            log.error("❌ Error in chat controller: {}", e.getMessage(), e);
+            chatMetrics.recordRequest("error", requestStart);
+            span.setError(e.getMessage());
 
             String errorResponse = "I apologize, but I'm experiencing some technical difficulties right now. " +
                                  "Please try again in a moment, or contact HR directly at hr@healthcatalyst.com for immediate assistance. 🔧";
 
-            return ResponseEntity.ok(new ChatResponse(errorResponse));
+            return respond(span, timings, new ChatResponse(errorResponse), debug);
+        } finally {
+            span.close();
+            chatLogSampling.end();
+            requestTimings.end();
         }
     }
 
+    /**
+     * Attach the trace id, the Server-Timing breakdown and, if asked for, the debug field
+     */
+    private ResponseEntity<ChatResponse> respond(Tracing.Span span, RequestTimings.Breakdown timings,
+                                                 ChatResponse body, boolean debug) {
+        if (debug) {
+            Map<String, Object> breakdown = timings.toMap();
+            breakdown.put("trace_id", span.getTraceId());
+            body.setDebug(breakdown);
+        }
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok().header("X-Trace-Id", span.getTraceId());
+        if (serverTimingEnabled) {
+            builder.header("Server-Timing", timings.toServerTiming());
+        }
+        return builder.body(body);
+    }
+
     @GetMapping("/chat/history/{sessionId}")
-    public ResponseEntity<?> getChatHistory(@PathVariable String sessionId) {
+    public ResponseEntity<?> getChatHistory(@PathVariable String sessionId,
+                                            @RequestParam(required = false) String cursor,
+                                            @RequestParam(defaultValue = "" + DEFAULT_HISTORY_PAGE_SIZE) int limit) {
         try {
-            return ResponseEntity.ok(chatHistoryService.getChatHistory(sessionId));
+            int pageSize = Math.max(1, Math.min(limit, MAX_HISTORY_PAGE_SIZE));
+            return ResponseEntity.ok(chatHistoryService.getHistoryPage(sessionId, cursor, pageSize));
+        } catch (NumberFormatException e) {
+            return ResponseEntity.badRequest().body("Invalid cursor");
         } catch (Exception e) {
-            return ResponseEntity.ok("[]");
+            return ResponseEntity.ok(new ChatHistoryPage(sessionId, new ArrayList<>(), null, 0));
         }
     }
 
+    /**
+     * Full history as NDJSON, oldest first, written a chunk at a time
+     */
+    @GetMapping(value = "/chat/history/{sessionId}/export", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> exportChatHistory(@PathVariable String sessionId) {
+        StreamingResponseBody body = out -> {
+            int position = 0;
+            while (true) {
+                List<ChatMessage> chunk = chatHistoryService.getMessageRange(sessionId, position, position + EXPORT_CHUNK_SIZE);
+                if (chunk.isEmpty()) {
+                    break;
+                }
+                for (ChatMessage message : chunk) {
+                    out.write(objectMapper.writeValueAsBytes(message));
+                    out.write('\n');
+                }
+                out.flush();
+                position += chunk.size();
+            }
+        };
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(body);
+    }
+
     @DeleteMapping("/chat/history/{sessionId}")
     public ResponseEntity<?> clearChatHistory(@PathVariable String sessionId) {
         try {
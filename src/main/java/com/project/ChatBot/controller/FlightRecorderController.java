@@ -0,0 +1,79 @@
+package com.project.ChatBot.controller;
+
+import com.project.ChatBot.monitoring.FlightRecorderService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.text.ParseException;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/**
+ * Admin endpoints for on-demand flight recordings. Calls must send chatbot.admin.token in
+ * the X-Admin-Token header; while no token is configured every call is refused.
+ */
+@RestController
+@RequestMapping("/api/admin/jfr")
+public class FlightRecorderController {
+
+    @Autowired
+    private FlightRecorderService flightRecorderService;
+
+    @Value("${chatbot.admin.token:}")
+    private String adminToken;
+
+    /**
+     * Start a bounded recording; settings is "profile" (allocation and lock events) or "default"
+     */
+    @PostMapping("/start")
+    public ResponseEntity<?> start(@RequestHeader(value = "X-Admin-Token", required = false) String token,
+                                   @RequestParam(defaultValue = "profile") String settings,
+                                   @RequestParam(required = false) Long durationSeconds) {
+        return run(token, () -> flightRecorderService.start(settings, durationSeconds));
+    }
+
+    @PostMapping("/stop")
+    public ResponseEntity<?> stop(@RequestHeader(value = "X-Admin-Token", required = false) String token) {
+        return run(token, flightRecorderService::stop);
+    }
+
+    @PostMapping("/dump")
+    public ResponseEntity<?> dump(@RequestHeader(value = "X-Admin-Token", required = false) String token) {
+        return run(token, flightRecorderService::dump);
+    }
+
+    @GetMapping
+    public ResponseEntity<?> status(@RequestHeader(value = "X-Admin-Token", required = false) String token) {
+        return run(token, flightRecorderService::getStatus);
+    }
+
+    private ResponseEntity<?> run(String token, Callable<Map<String, Object>> action) {
+        if (!isAuthorized(token)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Admin token required");
+        }
+        try {
+            return ResponseEntity.ok(action.call());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        } catch (ParseException | IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Unknown recording settings: " + e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(500).body("Flight recorder error: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Fails closed without a configured token; compares in constant time
+     */
+    private boolean isAuthorized(String token) {
+        if (adminToken == null || adminToken.isEmpty() || token == null) {
+            return false;
+        }
+        return MessageDigest.isEqual(adminToken.getBytes(StandardCharsets.UTF_8), token.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,43 @@
+package com.project.ChatBot.controller;
+
+import com.project.ChatBot.monitoring.HealthProbes;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+/**
+ * Probe endpoints; DOWN is answered with 503 so orchestrators can act on the status code
+ */
+@RestController
+@RequestMapping("/api/health")
+public class HealthController {
+
+    @Autowired
+    private HealthProbes healthProbes;
+
+    @GetMapping("/live")
+    public ResponseEntity<Map<String, Object>> liveness() {
+        return respond(healthProbes.liveness());
+    }
+
+    @GetMapping("/ready")
+    public ResponseEntity<Map<String, Object>> readiness() {
+        return respond(healthProbes.readiness());
+    }
+
+    /**
+     * Calls Gemini; rate limited, so repeated calls return the last result
+     */
+    @GetMapping("/deep")
+    public ResponseEntity<Map<String, Object>> deepCheck() {
+        return respond(healthProbes.deepCheck());
+    }
+
+    private static ResponseEntity<Map<String, Object>> respond(Map<String, Object> body) {
+        HttpStatus status = HealthProbes.DOWN.equals(body.get("status")) ? HttpStatus.SERVICE_UNAVAILABLE : HttpStatus.OK;
+        return ResponseEntity.status(status).body(body);
+    }
+}
@@ -1,12 +1,21 @@
 package com.project.ChatBot.controller;
 
+import com.project.ChatBot.monitoring.ChatMetrics;
+import com.project.ChatBot.monitoring.HealthProbes;
+import com.project.ChatBot.monitoring.RequestTimings;
+import com.project.ChatBot.monitoring.Tracing;
+import com.project.ChatBot.service.ChatHistoryLog;
 import com.project.ChatBot.service.IntelligentChatbotService;
+import com.project.ChatBot.service.MemoryBudget;
 import com.project.ChatBot.service.DocumentService;
 import com.project.ChatBot.service.EnhancedPdfProcessingService;
+import com.project.ChatBot.service.IngestionService;
+import com.project.ChatBot.service.StartupTimings;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.lang.management.ManagementFactory;
 import java.util.*;
 
 @RestController
@@ -23,6 +32,30 @@ public class IntelligenceTestController {
     @Autowired
     private EnhancedPdfProcessingService pdfProcessingService;
 
+    @Autowired
+    private ChatHistoryLog chatHistoryLog;
+
+    @Autowired
+    private MemoryBudget memoryBudget;
+
+    @Autowired
+    private StartupTimings startupTimings;
+
+    @Autowired
+    private ChatMetrics chatMetrics;
+
+    @Autowired
+    private Tracing tracing;
+
+    @Autowired
+    private HealthProbes healthProbes;
+
+    @Autowired
+    private RequestTimings requestTimings;
+
+    @Autowired
+    private IngestionService ingestionService;
+
     /**
      * Test the intelligent chatbot with various queries
      */
@@ -35,14 +68,21 @@ public class IntelligenceTestController {
             Map<String, Object> response = new HashMap<>();
             long startTime = System.currentTimeMillis();
 
-            // Process the query
-            String botResponse = intelligentChatbotService.processIntelligentQuery(query, sessionId);
+            // Process the query, collecting the per-stage breakdown
+            RequestTimings.Breakdown timings = requestTimings.begin();
+            String botResponse;
+            try {
+                botResponse = intelligentChatbotService.processIntelligentQuery(query, sessionId);
+            } finally {
+                requestTimings.end();
+            }
 
             long processingTime = System.currentTimeMillis() - startTime;
 
             response.put("query", query);
             response.put("response", botResponse);
             response.put("processingTimeMs", processingTime);
+            response.put("timings", timings.toMap());
             response.put("sessionId", sessionId);
             response.put("status", "success");
 
@@ -240,10 +280,17 @@ public class IntelligenceTestController {
             metrics.put("freeMemoryMB", freeMemory / (1024 * 1024));
             metrics.put("availableProcessors", runtime.availableProcessors());
             metrics.put("javaVersion", System.getProperty("java.version"));
-            metrics.put("uptime", System.currentTimeMillis());
+            metrics.put("uptime", ManagementFactory.getRuntimeMXBean().getUptime());
 
             // Add document cache metrics
             metrics.put("documentCache", documentService.getCacheStats());
+            metrics.put("chatHistoryLog", chatHistoryLog.getStats());
+            metrics.put("memoryBudget", memoryBudget.getStats());
+            metrics.put("pdfAnalysisCache", pdfProcessingService.getCacheStats());
+            metrics.put("startup", startupTimings.getStats());
+            metrics.put("ingestion", ingestionService.getStats());
+            metrics.put("chat", chatMetrics.getSummary());
+            metrics.put("tracing", tracing.getStats());
 
         } catch (Exception e) {
             metrics.put("error", e.getMessage());
@@ -253,28 +300,17 @@ public class IntelligenceTestController {
     }
 
     /**
-     * Health check endpoint
+     * Health check endpoint; reads cached state only (see /api/health for the probes)
      */
     @GetMapping("/health")
     public ResponseEntity<Map<String, Object>> healthCheck() {
-        Map<String, Object> health = new HashMap<>();
+        Map<String, Object> readiness = healthProbes.readiness();
+        Map<String, Object> health = new HashMap<>(readiness);
 
-        try {
-            // Test Gemini API connectivity
-            String testQuery = "Hello";
-            String testResponse = intelligentChatbotService.processIntelligentQuery(testQuery, "health-check");
-
-            health.put("status", "healthy");
-            health.put("geminiApi", "connected");
-            health.put("documentService", "operational");
-            health.put("pdfProcessing", "operational");
-            health.put("timestamp", new Date());
-
-        } catch (Exception e) {
-            health.put("status", "unhealthy");
-            health.put("error", e.getMessage());
-            health.put("timestamp", new Date());
-        }
+        health.put("status", HealthProbes.DOWN.equals(readiness.get("status")) ? "unhealthy" : "healthy");
+        health.put("geminiApi", readiness.get("gemini_circuit"));
+        health.put("corpusReady", readiness.get("corpus_ready"));
+        health.put("timestamp", new Date());
 
         return ResponseEntity.ok(health);
     }
@@ -2,9 +2,18 @@ package com.project.ChatBot.controller;
 
 import com.project.ChatBot.service.PdfToHtmlService;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.web.bind.annotation.GetMapping;
-import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.RestController;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api")
@@ -13,13 +22,41 @@ public class PdfToHtmlController {
     @Autowired
     private PdfToHtmlService pdfToHtmlService;
 
-    @GetMapping("/extract-pdf-to-html")
-    public String extractPdfToHtml() {
-        try {
-            pdfToHtmlService.extractAllPdfsToHtml();
-            return "PDF text extraction completed successfully. Check extracted_text.html file.";
-        } catch (Exception e) {
-            return "Error during PDF text extraction: " + e.getMessage();
+    /**
+     * Start (or join) a background export; unchanged documents are skipped
+     */
+    @RequestMapping(value = "/extract-pdf-to-html", method = {RequestMethod.GET, RequestMethod.POST})
+    public ResponseEntity<Map<String, Object>> extractPdfToHtml() {
+        pdfToHtmlService.exportAllAsync();
+        Map<String, Object> status = pdfToHtmlService.getStatus();
+        status.put("statusUrl", "/api/extract-pdf-to-html/status");
+        status.put("exportsUrl", "/api/html");
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(status);
+    }
+
+    @GetMapping("/extract-pdf-to-html/status")
+    public Map<String, Object> getExportStatus() {
+        return pdfToHtmlService.getStatus();
+    }
+
+    @GetMapping("/html")
+    public List<Map<String, Object>> listExports() {
+        return pdfToHtmlService.listExports();
+    }
+
+    /**
+     * Serve one exported document; a matching If-None-Match gets 304 Not Modified
+     */
+    @GetMapping("/html/{fileName:.+}")
+    public ResponseEntity<Resource> getExport(@PathVariable String fileName) {
+        Path html = pdfToHtmlService.getExport(fileName);
+        if (html == null) {
+            return ResponseEntity.notFound().build();
         }
+        return ResponseEntity.ok()
+                .eTag(pdfToHtmlService.getETag(html))
+                .cacheControl(CacheControl.noCache())
+                .contentType(new MediaType(MediaType.TEXT_HTML, StandardCharsets.UTF_8))
+                .body(new FileSystemResource(html));
     }
 }
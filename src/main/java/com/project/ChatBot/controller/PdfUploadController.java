@@ -1,25 +1,43 @@
 package com.project.ChatBot.controller;
 
+import com.project.ChatBot.model.IngestionJob;
+import com.project.ChatBot.service.ChunkedUploadService;
+import com.project.ChatBot.service.IngestionService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.File;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
 
 @RestController
 @CrossOrigin
 public class PdfUploadController {
 
+    private static final Logger log = LoggerFactory.getLogger(PdfUploadController.class);
+
     private final String UPLOAD_DIR = "uploaded_docs";
 
+    @Autowired
+    private IngestionService ingestionService;
+
+    @Autowired
+    private ChunkedUploadService chunkedUploadService;
+
     @PostMapping("/upload")
-    public ResponseEntity<String> upload(@RequestParam("file") MultipartFile file) {
+    public ResponseEntity<?> upload(@RequestParam("file") MultipartFile file) {
         try {
             // Create the directory if it doesn't exist
             File dir = new File(UPLOAD_DIR);
             if (!dir.exists()) {
                 boolean created = dir.mkdirs();
-                System.out.println("Directory created: " + created);
+                log.info("Directory created: {}", created);
             }
 
             // Check original file name
@@ -28,16 +46,117 @@ public class PdfUploadController {
                 return ResponseEntity.badRequest().body("Invalid file name");
             }
 
+            Map<String, Object> response = new HashMap<>();
+            response.put("message", "Uploaded successfully: " + originalFilename);
+
+            // PDFs are staged and hashed, then moved into place and ingested in the background
+            if (originalFilename.toLowerCase().endsWith(".pdf")) {
+                IngestionJob job;
+                try (InputStream content = file.getInputStream()) {
+                    job = ingestionService.submitUpload(content, new File(originalFilename).getName());
+                }
+                log.info("PDF staged for ingestion: {}", originalFilename);
+                response.put("jobId", job.getId());
+                response.put("status", job.getStatus());
+                response.put("statusUrl", "/upload/jobs/" + job.getId());
+                return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+            }
+
             // Create destination file
-            File destFile = new File(dir, originalFilename);
+            File destFile = new File(dir, originalFilename).getAbsoluteFile(); // relative paths would land in Tomcat's work dir
             file.transferTo(destFile);
 
-            System.out.println("PDF saved to: " + destFile.getAbsolutePath());
+            log.info("File saved to: {}", destFile.getAbsolutePath());
 
-            return ResponseEntity.ok("Uploaded successfully: " + originalFilename);
+            return ResponseEntity.ok(response);
         } catch (Exception e) {
-            e.printStackTrace(); // log full stack trace
+            log.error("Upload failed: {}", e.getMessage(), e);
             return ResponseEntity.status(500).body("Upload failed: " + e.getMessage());
         }
     }
+
+    /**
+     * Status of an ingestion job, with per-stage timings in milliseconds
+     */
+    @GetMapping("/upload/jobs/{jobId}")
+    public ResponseEntity<IngestionJob> getJob(@PathVariable String jobId) {
+        IngestionJob job = ingestionService.getJob(jobId);
+        if (job == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(job);
+    }
+
+    /**
+     * Start a resumable upload; parts are then PUT in order as raw bytes
+     */
+    @PostMapping("/upload/sessions")
+    public ResponseEntity<?> startChunkedUpload(@RequestParam String fileName,
+                                                @RequestParam(defaultValue = "-1") long size) {
+        try {
+            return ResponseEntity.status(HttpStatus.CREATED).body(chunkedUploadService.start(fileName, size).toStatus());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            log.error("Upload failed: {}", e.getMessage(), e);
+            return ResponseEntity.status(500).body("Upload failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Current offset of an upload, for resuming after an interruption
+     */
+    @GetMapping("/upload/sessions/{uploadId}")
+    public ResponseEntity<?> getChunkedUpload(@PathVariable String uploadId) {
+        ChunkedUploadService.UploadSession session = chunkedUploadService.get(uploadId);
+        if (session == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(session.toStatus());
+    }
+
+    /**
+     * Append the request body at the given offset; 409 with the expected offset if it is wrong
+     */
+    @PutMapping(value = "/upload/sessions/{uploadId}", consumes = "application/octet-stream")
+    public ResponseEntity<?> uploadPart(@PathVariable String uploadId, @RequestParam long offset, InputStream body) {
+        try {
+            return ResponseEntity.ok(chunkedUploadService.append(uploadId, offset, body).toStatus());
+        } catch (ChunkedUploadService.OffsetMismatchException e) {
+            Map<String, Object> conflict = new HashMap<>();
+            conflict.put("error", e.getMessage());
+            conflict.put("offset", e.getExpectedOffset());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(conflict);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            log.error("Upload failed: {}", e.getMessage(), e);
+            return ResponseEntity.status(500).body("Upload failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Finish an upload and queue its ingestion, unless the same content is already indexed
+     */
+    @PostMapping("/upload/sessions/{uploadId}/complete")
+    public ResponseEntity<?> completeChunkedUpload(@PathVariable String uploadId) {
+        try {
+            IngestionJob job = chunkedUploadService.complete(uploadId);
+            if (job.getDuplicateOf() != null) {
+                return ResponseEntity.ok(job);
+            }
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            log.error("Upload failed: {}", e.getMessage(), e);
+            return ResponseEntity.status(500).body("Upload failed: " + e.getMessage());
+        }
+    }
+
+    @DeleteMapping("/upload/sessions/{uploadId}")
+    public ResponseEntity<Void> abortChunkedUpload(@PathVariable String uploadId) {
+        chunkedUploadService.abort(uploadId);
+        return ResponseEntity.noContent().build();
+    }
 }
@@ -0,0 +1,181 @@
+package com.project.ChatBot.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Stand-in for the Gemini generateContent endpoint, for load tests that must not depend on
+ * (or pay for) the real API.
+ *
+ * Runs from the application jar without starting Spring:
+ *
+ *   java -jar ChatBot.jar fake-gemini [--port 8089] [--latency-ms 800] [--jitter-ms 200]
+ *                                     [--error-rate 0.0] [--threads 256]
+ *
+ * Every POST waits latency-ms plus a uniform random 0..jitter-ms, then answers with a
+ * candidate and usage metadata shaped like the real response. A fraction error-rate of
+ * calls get a 503 instead, which GeminiService counts towards its circuit breaker. Point
+ * the application at it with
+ * --gemini.api.url=http://localhost:8089/v1beta/models/fake:generateContent
+ */
+public class FakeGeminiServer {
+
+    private static final String ANSWER = "Employees can apply for leave through the Workday portal. " +
+            "Requests are approved by the reporting manager, and unused paid leave carries over " +
+            "up to the limit in the leave policy. Contact People Operations for anything else.";
+
+    private final int port;
+    private final long latencyMs;
+    private final long jitterMs;
+    private final double errorRate;
+    private final int threads;
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+
+    private HttpServer server;
+    private ExecutorService executor;
+
+    public FakeGeminiServer(int port, long latencyMs, long jitterMs, double errorRate, int threads) {
+        this.port = port;
+        this.latencyMs = latencyMs;
+        this.jitterMs = jitterMs;
+        this.errorRate = errorRate;
+        this.threads = threads;
+    }
+
+    public static void main(String[] args) {
+        System.exit(run(args));
+    }
+
+    /**
+     * Parse arguments and serve until the process is stopped; returns the process exit code
+     */
+    public static int run(String[] args) {
+        int port = 8089;
+        long latencyMs = 800;
+        long jitterMs = 200;
+        double errorRate = 0.0;
+        int threads = 256;
+
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--port":
+                        port = Integer.parseInt(args[++i]);
+                        break;
+                    case "--latency-ms":
+                        latencyMs = Long.parseLong(args[++i]);
+                        break;
+                    case "--jitter-ms":
+                        jitterMs = Long.parseLong(args[++i]);
+                        break;
+                    case "--error-rate":
+                        errorRate = Double.parseDouble(args[++i]);
+                        break;
+                    case "--threads":
+                        threads = Math.max(1, Integer.parseInt(args[++i]));
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown option " + args[i]);
+                }
+            }
+        } catch (RuntimeException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Usage: fake-gemini [--port 8089] [--latency-ms 800] [--jitter-ms 200] [--error-rate 0.0] [--threads 256]");
+            return 2;
+        }
+
+        FakeGeminiServer fake = new FakeGeminiServer(port, latencyMs, jitterMs, errorRate, threads);
+        try {
+            fake.start();
+        } catch (IOException e) {
+            System.err.println("❌ Fake Gemini failed to start: " + e.getMessage());
+            return 1;
+        }
+        // Serve until Ctrl-C or kill; the hook prints the call counts
+        Runtime.getRuntime().addShutdownHook(new Thread(fake::stop, "fake-gemini-shutdown"));
+        try {
+            new CountDownLatch(1).await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return 0;
+    }
+
+    public void start() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(port), 1024);
+        // One thread per in-flight call, since each one sleeps for the simulated latency
+        executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "fake-gemini");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+        server.start();
+        System.out.println("🧪 Fake Gemini listening on http://localhost:" + server.getAddress().getPort()
+                + "/v1beta/models/fake:generateContent (latency " + latencyMs + "+0.." + jitterMs
+                + "ms, error rate " + errorRate + ")");
+    }
+
+    public void stop() {
+        if (server != null) {
+            server.stop(0);
+            executor.shutdownNow();
+            System.out.println("🧪 Fake Gemini served " + requests.get() + " calls, " + errors.get() + " errors");
+        }
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            int requestChars;
+            try (InputStream body = exchange.getRequestBody()) {
+                requestChars = new String(body.readAllBytes(), StandardCharsets.UTF_8).length();
+            }
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            requests.incrementAndGet();
+
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            Thread.sleep(latencyMs + (jitterMs > 0 ? random.nextLong(jitterMs + 1) : 0));
+
+            if (random.nextDouble() < errorRate) {
+                errors.incrementAndGet();
+                send(exchange, 503, "{\"error\":{\"code\":503,\"message\":\"The model is overloaded.\",\"status\":\"UNAVAILABLE\"}}");
+                return;
+            }
+            send(exchange, 200, "{\"candidates\":[{\"content\":{\"parts\":[{\"text\":\"" + ANSWER + "\"}],\"role\":\"model\"},"
+                    + "\"finishReason\":\"STOP\"}],\"usageMetadata\":{\"promptTokenCount\":" + requestChars / 4
+                    + ",\"candidatesTokenCount\":" + ANSWER.length() / 4 + "}}");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void send(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=UTF-8");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+}
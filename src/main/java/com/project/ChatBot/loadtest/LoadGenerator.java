@@ -0,0 +1,444 @@
+package com.project.ChatBot.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-model load generator for POST /chat.
+ *
+ * Runs from the application jar without starting Spring:
+ *
+ *   java -jar ChatBot.jar loadtest [--url http://localhost:8080] [--rates 1,2,5,10,20]
+ *                                  [--stage-seconds 30] [--mix questions.txt] [--sessions 50]
+ *                                  [--timeout-ms 30000] [--error-marker "technical difficulties"]
+ *                                  [--report loadtest-report.json]
+ *
+ * Each rate is one stage. Requests start on a fixed schedule (constant arrival rate) whether
+ * or not earlier ones have finished, so a slow server builds up a queue instead of slowing
+ * the load down. Latency is measured from the scheduled start, not the actual send, so
+ * requests delayed by the generator itself still count fully (no coordinated omission).
+ * Questions are drawn from a weighted mix and spread over a pool of chat sessions.
+ *
+ * /chat answers 200 even when Gemini failed, so a response containing the error marker is
+ * counted as an error ("degraded") along with HTTP errors, timeouts and I/O failures.
+ * Every stage reports throughput (successful responses per second), p50/p95/p99 latency
+ * and error rate. The knee is the stage where p95 latency bends upward (the Kneedle method
+ * over rate vs p95). A stage is marked saturated when its throughput falls below 90% of the
+ * offered rate or more than 1% of its requests fail.
+ */
+public class LoadGenerator {
+
+    private static final String DEFAULT_MIX = "loadtest/chat-mix.txt";
+    private static final double SATURATED_THROUGHPUT = 0.9;
+    private static final double SATURATED_ERROR_RATE = 0.01;
+
+    private final URI chatUri;
+    private final double[] rates;
+    private final int stageSeconds;
+    private final List<String> questions;
+    private final int sessions;
+    private final Duration timeout;
+    private final String errorMarker;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Queue<Sample> samples = new ConcurrentLinkedQueue<>();
+
+    public LoadGenerator(URI chatUri, double[] rates, int stageSeconds, List<String> questions,
+                         int sessions, Duration timeout, String errorMarker) {
+        this.chatUri = chatUri;
+        this.rates = rates;
+        this.stageSeconds = stageSeconds;
+        this.questions = questions;
+        this.sessions = sessions;
+        this.timeout = timeout;
+        this.errorMarker = errorMarker;
+    }
+
+    public static void main(String[] args) {
+        System.exit(run(args));
+    }
+
+    /**
+     * Parse arguments and run every stage; returns the process exit code
+     */
+    public static int run(String[] args) {
+        String url = "http://localhost:8080";
+        String rateList = "1,2,5,10,20";
+        int stageSeconds = 30;
+        String mix = null;
+        int sessions = 50;
+        long timeoutMs = 30000;
+        String errorMarker = "technical difficulties";
+        String report = null;
+
+        double[] rates;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--url":
+                        url = args[++i];
+                        break;
+                    case "--rates":
+                        rateList = args[++i];
+                        break;
+                    case "--stage-seconds":
+                        stageSeconds = Math.max(1, Integer.parseInt(args[++i]));
+                        break;
+                    case "--mix":
+                        mix = args[++i];
+                        break;
+                    case "--sessions":
+                        sessions = Math.max(1, Integer.parseInt(args[++i]));
+                        break;
+                    case "--timeout-ms":
+                        timeoutMs = Long.parseLong(args[++i]);
+                        break;
+                    case "--error-marker":
+                        errorMarker = args[++i];
+                        break;
+                    case "--report":
+                        report = args[++i];
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown option " + args[i]);
+                }
+            }
+            rates = Arrays.stream(rateList.split(",")).map(String::trim).mapToDouble(Double::parseDouble).toArray();
+            if (rates.length == 0 || Arrays.stream(rates).anyMatch(rate -> rate <= 0)) {
+                throw new IllegalArgumentException("Rates must be positive: " + rateList);
+            }
+        } catch (RuntimeException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Usage: loadtest [--url http://localhost:8080] [--rates 1,2,5,10,20] [--stage-seconds 30] " +
+                    "[--mix questions.txt] [--sessions 50] [--timeout-ms 30000] [--error-marker TEXT] [--report FILE]");
+            return 2;
+        }
+
+        try {
+            List<String> questions = loadMix(mix);
+            LoadGenerator generator = new LoadGenerator(URI.create(stripSlash(url) + "/chat"), rates, stageSeconds,
+                    questions, sessions, Duration.ofMillis(timeoutMs), errorMarker);
+            List<StageResult> results = generator.runStages();
+            printReport(results);
+            if (report != null) {
+                generator.writeReport(results, Paths.get(report));
+                System.out.println("📝 Report written to " + report);
+            }
+            return 0;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 1;
+        } catch (Exception e) {
+            System.err.println("❌ Load test failed: " + e.getMessage());
+            return 1;
+        }
+    }
+
+    /**
+     * Run the stages back to back, then wait for the stragglers and summarize each stage
+     */
+    public List<StageResult> runStages() throws InterruptedException {
+        ExecutorService executor = Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, "loadtest-client");
+            thread.setDaemon(true);
+            return thread;
+        });
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(executor)
+                .build();
+
+        System.out.println("🚦 Load test against " + chatUri + ": " + rates.length + " stages of " + stageSeconds
+                + "s at " + Arrays.toString(rates) + " req/s, " + questions.size() + " weighted questions, "
+                + sessions + " sessions");
+
+        long testStart = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(100);
+        long[] stageStarts = new long[rates.length];
+        List<CompletableFuture<?>> inFlight = new ArrayList<>();
+        Random random = new Random();
+
+        for (int stage = 0; stage < rates.length; stage++) {
+            long stageStart = testStart + TimeUnit.SECONDS.toNanos((long) stage * stageSeconds);
+            stageStarts[stage] = stageStart;
+            long intervalNanos = (long) (1_000_000_000L / rates[stage]);
+            long count = Math.round(rates[stage] * stageSeconds);
+
+            for (long i = 0; i < count; i++) {
+                long intended = stageStart + i * intervalNanos;
+                long wait;
+                while ((wait = intended - System.nanoTime()) > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+                String question = questions.get(random.nextInt(questions.size()));
+                String sessionId = "loadtest-" + random.nextInt(sessions);
+                inFlight.add(send(client, stage, intended, question, sessionId));
+            }
+            System.out.println("   stage " + (stage + 1) + "/" + rates.length + " (" + rates[stage] + " req/s) scheduled "
+                    + count + " requests");
+        }
+
+        try {
+            CompletableFuture.allOf(inFlight.toArray(new CompletableFuture<?>[0]))
+                    .get(timeout.toMillis() + 5000, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException | TimeoutException e) {
+            // Every request completes or times out on its own; anything still missing is reported as lost
+        } finally {
+            executor.shutdownNow();
+        }
+
+        List<StageResult> results = new ArrayList<>();
+        for (int stage = 0; stage < rates.length; stage++) {
+            results.add(summarize(stage, stageStarts[stage], Math.round(rates[stage] * stageSeconds)));
+        }
+        markKnee(results);
+        return results;
+    }
+
+    private CompletableFuture<?> send(HttpClient client, int stage, long intended, String question, String sessionId) {
+        ObjectNode body = objectMapper.createObjectNode();
+        body.put("message", question);
+        body.put("sessionId", sessionId);
+        HttpRequest request = HttpRequest.newBuilder(chatUri)
+                .timeout(timeout)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body.toString()))
+                .build();
+
+        return client.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                .handle((response, error) -> {
+                    long done = System.nanoTime();
+                    String outcome;
+                    if (error != null) {
+                        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                        outcome = cause instanceof HttpTimeoutException ? "timeout" : "io";
+                    } else if (response.statusCode() >= 400) {
+                        outcome = "http_" + response.statusCode();
+                    } else if (response.body() != null && response.body().contains(errorMarker)) {
+                        outcome = "degraded";
+                    } else {
+                        outcome = "ok";
+                    }
+                    samples.add(new Sample(stage, intended, done, outcome));
+                    return null;
+                });
+    }
+
+    private StageResult summarize(int stage, long stageStart, long scheduled) {
+        List<Long> latencies = new ArrayList<>();
+        Map<String, Integer> outcomes = new TreeMap<>();
+        for (Sample sample : samples) {
+            if (sample.stage == stage) {
+                latencies.add(sample.doneNanos - sample.intendedNanos);
+                outcomes.merge(sample.outcome, 1, Integer::sum);
+            }
+        }
+        long[] sorted = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+        int completed = sorted.length;
+
+        // Throughput counts successful responses from any stage, in a window shifted by the
+        // median latency so each stage is credited with the responses its load produced
+        long stageNanos = TimeUnit.SECONDS.toNanos(stageSeconds);
+        long lag = sorted.length == 0 ? 0 : Math.min(sorted[sorted.length / 2], stageNanos);
+        int okInWindow = 0;
+        for (Sample sample : samples) {
+            long offset = sample.doneNanos - stageStart - lag;
+            if ("ok".equals(sample.outcome) && offset >= 0 && offset < stageNanos) {
+                okInWindow++;
+            }
+        }
+        int ok = outcomes.getOrDefault("ok", 0);
+        if (completed < scheduled) {
+            outcomes.put("lost", (int) (scheduled - completed));
+        }
+
+        StageResult result = new StageResult();
+        result.offeredRate = rates[stage];
+        result.scheduled = scheduled;
+        result.completed = completed;
+        result.throughput = (double) okInWindow / stageSeconds;
+        result.errorRate = scheduled == 0 ? 0 : (double) (scheduled - ok) / scheduled;
+        result.p50Ms = percentileMs(sorted, 0.50);
+        result.p95Ms = percentileMs(sorted, 0.95);
+        result.p99Ms = percentileMs(sorted, 0.99);
+        result.maxMs = sorted.length == 0 ? 0 : sorted[sorted.length - 1] / 1_000_000.0;
+        result.outcomes = outcomes;
+        result.saturated = result.throughput < SATURATED_THROUGHPUT * result.offeredRate
+                || result.errorRate > SATURATED_ERROR_RATE;
+        return result;
+    }
+
+    /**
+     * Kneedle on offered rate vs p95: normalize both to [0, 1] and take the stage that lies
+     * furthest below the diagonal, i.e. the last point before latency starts to climb
+     */
+    static void markKnee(List<StageResult> results) {
+        if (results.size() < 3) {
+            return;
+        }
+        double minX = Double.MAX_VALUE, maxX = -Double.MAX_VALUE, minY = Double.MAX_VALUE, maxY = -Double.MAX_VALUE;
+        for (StageResult result : results) {
+            minX = Math.min(minX, result.offeredRate);
+            maxX = Math.max(maxX, result.offeredRate);
+            minY = Math.min(minY, result.p95Ms);
+            maxY = Math.max(maxY, result.p95Ms);
+        }
+        if (maxX == minX || maxY == minY) {
+            return;
+        }
+
+        StageResult knee = null;
+        double best = 0;
+        for (StageResult result : results) {
+            double x = (result.offeredRate - minX) / (maxX - minX);
+            double y = (result.p95Ms - minY) / (maxY - minY);
+            if (x - y > best) {
+                best = x - y;
+                knee = result;
+            }
+        }
+        if (knee != null) {
+            knee.knee = true;
+        }
+    }
+
+    static double percentileMs(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(percentile * sorted.length); // Nearest rank
+        return sorted[Math.max(0, rank - 1)] / 1_000_000.0;
+    }
+
+    private static void printReport(List<StageResult> results) {
+        System.out.println();
+        System.out.println(String.format(Locale.ROOT, "%9s %9s %9s %8s %9s %9s %9s %9s  %s",
+                "rate/s", "sent", "ok/s", "errors", "p50 ms", "p95 ms", "p99 ms", "max ms", "outcomes"));
+        StageResult knee = null;
+        StageResult firstSaturated = null;
+        for (StageResult result : results) {
+            System.out.println(String.format(Locale.ROOT, "%9.1f %9d %9.1f %7.1f%% %9.0f %9.0f %9.0f %9.0f  %s%s%s",
+                    result.offeredRate, result.scheduled, result.throughput, result.errorRate * 100,
+                    result.p50Ms, result.p95Ms, result.p99Ms, result.maxMs, result.outcomes,
+                    result.knee ? "  <- knee" : "", result.saturated ? "  (saturated)" : ""));
+            if (result.knee) {
+                knee = result;
+            }
+            if (result.saturated && firstSaturated == null) {
+                firstSaturated = result;
+            }
+        }
+        System.out.println();
+        System.out.println(knee != null
+                ? "📈 Knee of the p95 latency curve at " + knee.offeredRate + " req/s"
+                : "📈 No knee found (needs at least 3 stages with different p95 latencies)");
+        System.out.println(firstSaturated != null
+                ? "🔥 Saturated from " + firstSaturated.offeredRate + " req/s"
+                : "✅ No stage saturated");
+    }
+
+    private void writeReport(List<StageResult> results, Path path) throws IOException {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("url", chatUri.toString());
+        report.put("stage_seconds", stageSeconds);
+        report.put("sessions", sessions);
+        report.put("stages", results);
+        if (path.toAbsolutePath().getParent() != null) {
+            Files.createDirectories(path.toAbsolutePath().getParent());
+        }
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(path.toFile(), report);
+    }
+
+    /**
+     * Questions repeated by weight, from the given file or the bundled default mix
+     */
+    static List<String> loadMix(String file) throws IOException {
+        List<String> lines;
+        if (file != null) {
+            lines = Files.readAllLines(Paths.get(file), StandardCharsets.UTF_8);
+        } else {
+            try (InputStream in = LoadGenerator.class.getClassLoader().getResourceAsStream(DEFAULT_MIX)) {
+                if (in == null) {
+                    throw new IOException("Default question mix not found: " + DEFAULT_MIX);
+                }
+                lines = Arrays.asList(new String(in.readAllBytes(), StandardCharsets.UTF_8).split("\\R"));
+            }
+        }
+
+        List<String> questions = new ArrayList<>();
+        for (String line : lines) {
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            int weight = 1;
+            int separator = line.indexOf('|');
+            if (separator > 0 && line.substring(0, separator).trim().matches("\\d+")) {
+                weight = Integer.parseInt(line.substring(0, separator).trim());
+                line = line.substring(separator + 1).trim();
+            }
+            for (int i = 0; i < weight; i++) {
+                questions.add(line);
+            }
+        }
+        if (questions.isEmpty()) {
+            throw new IOException("Question mix is empty");
+        }
+        return questions;
+    }
+
+    private static String stripSlash(String url) {
+        return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+    }
+
+    private static final class Sample {
+        final int stage;
+        final long intendedNanos;
+        final long doneNanos;
+        final String outcome;
+
+        Sample(int stage, long intendedNanos, long doneNanos, String outcome) {
+            this.stage = stage;
+            this.intendedNanos = intendedNanos;
+            this.doneNanos = doneNanos;
+            this.outcome = outcome;
+        }
+    }
+
+    /**
+     * Summary of one stage; also the JSON shape of the report
+     */
+    public static class StageResult {
+        public double offeredRate;
+        public long scheduled;
+        public int completed;
+        public double throughput;
+        public double errorRate;
+        public double p50Ms;
+        public double p95Ms;
+        public double p99Ms;
+        public double maxMs;
+        public Map<String, Integer> outcomes;
+        public boolean knee;
+        public boolean saturated;
+    }
+}
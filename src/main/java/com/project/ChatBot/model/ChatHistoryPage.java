@@ -0,0 +1,52 @@
+package com.project.ChatBot.model;
+
+import java.util.List;
+
+public class ChatHistoryPage {
+    private String sessionId;
+    private List<ChatMessage> messages; // newest first
+    private String nextCursor; // pass back as ?cursor= for older messages; null on the last page
+    private int totalMessages;
+
+    public ChatHistoryPage() {}
+
+    public ChatHistoryPage(String sessionId, List<ChatMessage> messages, String nextCursor, int totalMessages) {
+        this.sessionId = sessionId;
+        this.messages = messages;
+        this.nextCursor = nextCursor;
+        this.totalMessages = totalMessages;
+    }
+
+    // Getters and Setters
+    public String getSessionId() {
+        return sessionId;
+    }
+
+    public void setSessionId(String sessionId) {
+        this.sessionId = sessionId;
+    }
+
+    public List<ChatMessage> getMessages() {
+        return messages;
+    }
+
+    public void setMessages(List<ChatMessage> messages) {
+        this.messages = messages;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public int getTotalMessages() {
+        return totalMessages;
+    }
+
+    public void setTotalMessages(int totalMessages) {
+        this.totalMessages = totalMessages;
+    }
+}
@@ -5,6 +5,7 @@ public class ChatRequest {
     private String message;
     private Boolean usePdf;
     private String sessionId; // Add sessionId for chat history tracking
+    private Boolean debug; // Return the latency breakdown in the response
 
     public String getMessage() {
         return message;
@@ -29,4 +30,12 @@ public class ChatRequest {
     public void setSessionId(String sessionId) {
         this.sessionId = sessionId;
     }
+
+    public Boolean getDebug() {
+        return debug;
+    }
+
+    public void setDebug(Boolean debug) {
+        this.debug = debug;
+    }
 }
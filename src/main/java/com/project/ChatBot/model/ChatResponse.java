@@ -1,9 +1,17 @@
 package com.project.ChatBot.model;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.Map;
+
 public class ChatResponse {
     private String response;
     private String sessionId;
 
+    // Latency breakdown and cache flags; only present when the request asked for it
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Map<String, Object> debug;
+
     public ChatResponse() {}
 
     public ChatResponse(String response) {
@@ -30,4 +38,12 @@ public class ChatResponse {
     public void setSessionId(String sessionId) {
         this.sessionId = sessionId;
     }
+
+    public Map<String, Object> getDebug() {
+        return debug;
+    }
+
+    public void setDebug(Map<String, Object> debug) {
+        this.debug = debug;
+    }
 }
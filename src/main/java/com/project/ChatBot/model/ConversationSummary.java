@@ -0,0 +1,44 @@
+package com.project.ChatBot.model;
+
+import java.time.LocalDateTime;
+
+public class ConversationSummary {
+    private String summary;
+    private int coveredMessages; // number of leading messages folded into the summary
+    private LocalDateTime updatedAt;
+
+    public ConversationSummary() {
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    public ConversationSummary(String summary, int coveredMessages) {
+        this.summary = summary;
+        this.coveredMessages = coveredMessages;
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public String getSummary() {
+        return summary;
+    }
+
+    public void setSummary(String summary) {
+        this.summary = summary;
+    }
+
+    public int getCoveredMessages() {
+        return coveredMessages;
+    }
+
+    public void setCoveredMessages(int coveredMessages) {
+        this.coveredMessages = coveredMessages;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
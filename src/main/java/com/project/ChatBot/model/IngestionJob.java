@@ -0,0 +1,110 @@
+package com.project.ChatBot.model;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class IngestionJob {
+
+    public enum Status { QUEUED, RUNNING, COMPLETED, FAILED }
+
+    private final String id;
+    private final String fileName;
+    private volatile Status status = Status.QUEUED;
+    private volatile String error;
+    private volatile long snapshotVersion;
+    private volatile String duplicateOf; // existing document with identical content
+    private volatile int pagesExtracted;
+    private volatile int pagesReused; // unchanged pages carried over from the previous version
+    private final long createdAt = System.currentTimeMillis();
+    private volatile long startedAt;
+    private volatile long finishedAt;
+    private final Map<String, Long> stageTimings = Collections.synchronizedMap(new LinkedHashMap<>()); // stage -> ms
+
+    public IngestionJob(String id, String fileName) {
+        this.id = id;
+        this.fileName = fileName;
+    }
+
+    public void start() {
+        this.startedAt = System.currentTimeMillis();
+        this.status = Status.RUNNING;
+    }
+
+    public void recordStage(String stage, long millis) {
+        stageTimings.put(stage, millis);
+    }
+
+    public void recordPages(int extracted, int reused) {
+        this.pagesExtracted = extracted;
+        this.pagesReused = reused;
+    }
+
+    public void complete(long snapshotVersion) {
+        this.snapshotVersion = snapshotVersion;
+        this.finishedAt = System.currentTimeMillis();
+        this.status = Status.COMPLETED;
+    }
+
+    public void completeDuplicate(String existingDocument, long snapshotVersion) {
+        this.duplicateOf = existingDocument;
+        complete(snapshotVersion);
+    }
+
+    public void fail(String error) {
+        this.error = error;
+        this.finishedAt = System.currentTimeMillis();
+        this.status = Status.FAILED;
+    }
+
+    // Getters
+    public String getId() {
+        return id;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public String getDuplicateOf() {
+        return duplicateOf;
+    }
+
+    public int getPagesExtracted() {
+        return pagesExtracted;
+    }
+
+    public int getPagesReused() {
+        return pagesReused;
+    }
+
+    public long getSnapshotVersion() {
+        return snapshotVersion;
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    public long getQueuedMs() {
+        return startedAt == 0 ? System.currentTimeMillis() - createdAt : startedAt - createdAt;
+    }
+
+    public long getTotalMs() {
+        return finishedAt == 0 ? 0 : finishedAt - createdAt;
+    }
+
+    public Map<String, Long> getStageTimings() {
+        synchronized (stageTimings) {
+            return new LinkedHashMap<>(stageTimings);
+        }
+    }
+}
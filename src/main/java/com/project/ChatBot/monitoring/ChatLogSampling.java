@@ -0,0 +1,36 @@
+package com.project.ChatBot.monitoring;
+
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-request log sampling for the chat path.
+ *
+ * One chat request in chatbot.logging.chat-sample-rate keeps its INFO and DEBUG lines; the
+ * rest are dropped by {@link SampledLogFilter}, so the log of a sampled request stays
+ * complete instead of losing random lines. The trace id goes into the MDC as well, which
+ * ties log lines to the request's spans.
+ */
+@Component
+public class ChatLogSampling {
+
+    @Value("${chatbot.logging.chat-sample-rate:1}")
+    private int sampleRate;
+
+    private final AtomicLong requests = new AtomicLong();
+
+    public void begin(String traceId) {
+        MDC.put("traceId", traceId);
+        if (sampleRate > 1 && requests.getAndIncrement() % sampleRate != 0) {
+            MDC.put(SampledLogFilter.MDC_KEY, "false");
+        }
+    }
+
+    public void end() {
+        MDC.remove("traceId");
+        MDC.remove(SampledLogFilter.MDC_KEY);
+    }
+}
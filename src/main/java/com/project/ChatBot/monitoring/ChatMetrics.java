@@ -0,0 +1,159 @@
+package com.project.ChatBot.monitoring;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.project.ChatBot.model.IngestionJob;
+import io.micrometer.core.instrument.*;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micrometer meters for the chat pipeline, Gemini calls, caches and ingestion.
+ *
+ * Everything is published under the "chatbot" prefix and scraped from
+ * /actuator/prometheus; percentile histograms are switched on for that prefix in
+ * application.properties. Callers pass System.nanoTime() start values, the same way the
+ * ingestion stages are timed.
+ */
+@Component
+public class ChatMetrics {
+
+    public static final String CHAT_REQUEST = "chatbot.chat.request";
+    public static final String CHAT_STAGE = "chatbot.chat.stage";
+    public static final String GEMINI_CALL = "chatbot.gemini.call";
+    public static final String GEMINI_REJECTED = "chatbot.gemini.rejected";
+    public static final String GEMINI_TOKENS = "chatbot.gemini.tokens";
+    public static final String INGESTION_DOCUMENTS = "chatbot.ingestion.documents";
+    public static final String INGESTION_PAGES = "chatbot.ingestion.pages";
+    public static final String INGESTION_BYTES = "chatbot.ingestion.bytes";
+    public static final String INGESTION_STAGE = "chatbot.ingestion.stage";
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @Autowired
+    private RequestTimings requestTimings;
+
+    /**
+     * Whole /chat request, tagged success or error
+     */
+    public void recordRequest(String outcome, long startNanos) {
+        registry.timer(CHAT_REQUEST, "outcome", outcome).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * One pipeline stage: greeting, intent, retrieval, generation, history or persist
+     */
+    public void recordStage(String stage, long startNanos) {
+        recordStageNanos(stage, System.nanoTime() - startNanos);
+    }
+
+    public void recordStageNanos(String stage, long nanos) {
+        registry.timer(CHAT_STAGE, "stage", stage).record(nanos, TimeUnit.NANOSECONDS);
+        requestTimings.add(stage, nanos);
+    }
+
+    /**
+     * One HTTP call to Gemini; status is the HTTP code, or "io" when no response came back.
+     * The request breakdown sums all calls as "llm".
+     */
+    public void recordGeminiCall(String operation, String status, long startNanos) {
+        long nanos = System.nanoTime() - startNanos;
+        registry.timer(GEMINI_CALL, "operation", operation, "status", status).record(nanos, TimeUnit.NANOSECONDS);
+        requestTimings.add("llm", nanos);
+    }
+
+    /**
+     * A call that was never sent (e.g. reason circuit_open); counted, not timed
+     */
+    public void recordGeminiRejected(String operation, String reason) {
+        registry.counter(GEMINI_REJECTED, "operation", operation, "reason", reason).increment();
+    }
+
+    /**
+     * Token usage reported by Gemini; the summaries' totals give tokens spent per operation
+     */
+    public void recordGeminiTokens(String operation, int promptTokens, int candidateTokens) {
+        registry.summary(GEMINI_TOKENS, "operation", operation, "type", "prompt").record(promptTokens);
+        registry.summary(GEMINI_TOKENS, "operation", operation, "type", "candidates").record(candidateTokens);
+    }
+
+    /**
+     * Counts and stage timings of a finished ingestion job
+     */
+    public void recordIngestion(IngestionJob job, long sizeBytes) {
+        String outcome = job.getStatus() == IngestionJob.Status.FAILED ? "failed"
+                : job.getDuplicateOf() != null ? "duplicate" : "completed";
+        registry.counter(INGESTION_DOCUMENTS, "outcome", outcome).increment();
+        if (!"completed".equals(outcome)) {
+            return;
+        }
+        registry.counter(INGESTION_PAGES, "kind", "extracted").increment(job.getPagesExtracted());
+        registry.counter(INGESTION_PAGES, "kind", "reused").increment(job.getPagesReused());
+        registry.counter(INGESTION_BYTES).increment(sizeBytes);
+        job.getStageTimings().forEach((stage, millis) ->
+                registry.timer(INGESTION_STAGE, "stage", stage).record(millis, TimeUnit.MILLISECONDS));
+        registry.timer(INGESTION_STAGE, "stage", "queued").record(job.getQueuedMs(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Publish hit/miss/eviction counts of a Caffeine cache built with recordStats()
+     */
+    public void monitorCache(Cache<?, ?> cache, String name) {
+        CaffeineCacheMetrics.monitor(registry, cache, name);
+    }
+
+    /**
+     * Compact view of the chat and Gemini timers for /api/intelligence/metrics
+     */
+    public Map<String, Object> getSummary() {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("requests", timerSummary(CHAT_REQUEST, "outcome"));
+        summary.put("stages", timerSummary(CHAT_STAGE, "stage"));
+        summary.put("gemini_calls", timerSummary(GEMINI_CALL, "operation"));
+
+        Map<String, Double> rejected = new TreeMap<>();
+        for (Counter counter : registry.find(GEMINI_REJECTED).counters()) {
+            rejected.merge(counter.getId().getTag("operation"), counter.count(), Double::sum);
+        }
+        summary.put("gemini_rejected", rejected);
+
+        Map<String, Double> tokens = new TreeMap<>();
+        for (DistributionSummary tokenSummary : registry.find(GEMINI_TOKENS).summaries()) {
+            tokens.merge(tokenSummary.getId().getTag("type"), tokenSummary.totalAmount(), Double::sum);
+        }
+        summary.put("gemini_tokens", tokens);
+        return summary;
+    }
+
+    private Map<String, Object> timerSummary(String name, String groupTag) {
+        Map<String, Object> groups = new TreeMap<>();
+        for (Timer timer : registry.find(name).timers()) {
+            String group = timer.getId().getTag(groupTag);
+            String status = timer.getId().getTag("status");
+            String key = status == null ? group : group + " " + status;
+
+            HistogramSnapshot snapshot = timer.takeSnapshot();
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("count", snapshot.count());
+            stats.put("mean_ms", round(snapshot.mean(TimeUnit.MILLISECONDS)));
+            stats.put("max_ms", round(snapshot.max(TimeUnit.MILLISECONDS)));
+            for (ValueAtPercentile percentile : snapshot.percentileValues()) {
+                stats.put("p" + Math.round(percentile.percentile() * 100) + "_ms", round(percentile.value(TimeUnit.MILLISECONDS)));
+            }
+            groups.put(key, stats);
+        }
+        return groups;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 10) / 10.0;
+    }
+}
@@ -0,0 +1,142 @@
+package com.project.ChatBot.monitoring;
+
+import jdk.jfr.*;
+
+/**
+ * JDK Flight Recorder events for the expensive steps of ingestion and the chat pipeline.
+ *
+ * Events cost next to nothing unless a recording is running (see FlightRecorderService), so
+ * they stay in the code permanently. Each one is begun before the work, filled in with
+ * payload sizes and an outcome, and committed after it; JFR records the duration and the
+ * thread. They show up under "ChatBot" in JDK Mission Control, next to the allocation and
+ * lock events of the same recording.
+ */
+public final class FlightEvents {
+
+    private FlightEvents() {
+    }
+
+    @Name("com.project.ChatBot.PdfExtraction")
+    @Label("PDF Extraction")
+    @Category({"ChatBot", "Ingestion"})
+    @Description("Text extraction from one PDF; pages with an unchanged fingerprint are reused, not extracted")
+    @StackTrace(false)
+    public static class PdfExtraction extends Event {
+        @Label("Document")
+        public String document;
+
+        @Label("File Size")
+        @DataAmount
+        public long sizeBytes;
+
+        @Label("Pages")
+        public int pages;
+
+        @Label("Pages Extracted")
+        public int pagesExtracted;
+
+        @Label("Pages Reused")
+        public int pagesReused;
+
+        @Label("Characters")
+        public long chars;
+
+        @Label("Outcome")
+        public String outcome;
+    }
+
+    @Name("com.project.ChatBot.Chunking")
+    @Label("Chunking")
+    @Category({"ChatBot", "Ingestion"})
+    @Description("Chunking and indexing the pages of one document")
+    @StackTrace(false)
+    public static class Chunking extends Event {
+        @Label("Document")
+        public String document;
+
+        @Label("Pages")
+        public int pages;
+
+        @Label("Characters")
+        public long chars;
+
+        @Label("Chunks")
+        public int chunks;
+    }
+
+    @Name("com.project.ChatBot.Retrieval")
+    @Label("Retrieval")
+    @Category({"ChatBot", "Chat"})
+    @Description("Finding document content for a question")
+    @StackTrace(false)
+    public static class Retrieval extends Event {
+        @Label("Method")
+        @Description("gemini or keyword")
+        public String method;
+
+        @Label("Query Characters")
+        public int queryChars;
+
+        @Label("Documents")
+        public int documents;
+
+        @Label("Snapshot Version")
+        public long snapshotVersion;
+
+        @Label("Result Characters")
+        public int resultChars;
+
+        @Label("Outcome")
+        @Description("found, not_found or error")
+        public String outcome;
+    }
+
+    @Name("com.project.ChatBot.GeminiCall")
+    @Label("Gemini Call")
+    @Category({"ChatBot", "Gemini"})
+    @Description("One call to the Gemini API")
+    @StackTrace(false)
+    public static class GeminiCall extends Event {
+        @Label("Operation")
+        public String operation;
+
+        @Label("Request Characters")
+        public int requestChars;
+
+        @Label("Response Characters")
+        public int responseChars;
+
+        @Label("Prompt Tokens")
+        public int promptTokens;
+
+        @Label("Candidate Tokens")
+        public int candidateTokens;
+
+        @Label("Status")
+        @Description("HTTP status, io when no response came back, circuit_open when not sent")
+        public String status;
+    }
+
+    @Name("com.project.ChatBot.ChatHistory")
+    @Label("Chat History")
+    @Category({"ChatBot", "Chat"})
+    @Description("A read or write of a session's chat history")
+    @StackTrace(false)
+    public static class ChatHistory extends Event {
+        @Label("Operation")
+        @Description("write, read or context")
+        public String operation;
+
+        @Label("Session")
+        public String sessionId;
+
+        @Label("Messages")
+        public int messages;
+
+        @Label("Characters")
+        public int chars;
+
+        @Label("Cache Hit")
+        public boolean cacheHit;
+    }
+}
@@ -0,0 +1,179 @@
+package com.project.ChatBot.monitoring;
+
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * On-demand JDK Flight Recorder recordings, one at a time.
+ *
+ * A recording is always bounded: it stops by itself after chatbot.jfr.max-duration-seconds
+ * (or the shorter duration asked for) and keeps at most chatbot.jfr.max-size-mb on disk.
+ * Stopping it, or reaching the duration, writes it to chatbot.jfr.dir. The "profile"
+ * settings add allocation and lock contention events to the ChatBot ones in
+ * {@link FlightEvents}. Only the newest chatbot.jfr.max-files recordings are kept.
+ */
+@Component
+public class FlightRecorderService {
+
+    private static final Logger log = LoggerFactory.getLogger(FlightRecorderService.class);
+    private static final DateTimeFormatter FILE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss").withZone(ZoneOffset.UTC);
+
+    @Value("${chatbot.jfr.dir:recordings}")
+    private String recordingDir;
+
+    @Value("${chatbot.jfr.max-duration-seconds:600}")
+    private long maxDurationSeconds;
+
+    @Value("${chatbot.jfr.max-size-mb:256}")
+    private long maxSizeMb;
+
+    @Value("${chatbot.jfr.max-files:10}")
+    private int maxFiles;
+
+    private Recording recording;
+    private Path destination;
+
+    /**
+     * Start a recording with the JDK's "default" or "profile" settings
+     */
+    public synchronized Map<String, Object> start(String settings, Long durationSeconds) throws IOException, ParseException {
+        if (!"profile".equals(settings) && !"default".equals(settings)) {
+            throw new IllegalArgumentException(settings);
+        }
+        if (recording != null && recording.getState() == RecordingState.RUNNING) {
+            throw new IllegalStateException("A recording is already running: " + recording.getName());
+        }
+        closeRecording();
+
+        long seconds = durationSeconds == null || durationSeconds <= 0
+                ? maxDurationSeconds : Math.min(durationSeconds, maxDurationSeconds);
+        Path dir = Paths.get(recordingDir).toAbsolutePath();
+        Files.createDirectories(dir);
+        removeOldRecordings(dir, maxFiles - 1);
+
+        Recording next = new Recording(Configuration.getConfiguration(settings));
+        next.setName("chatbot-" + FILE_TIME.format(Instant.now()));
+        next.setToDisk(true);
+        next.setMaxSize(maxSizeMb * 1024 * 1024);
+        next.setDuration(Duration.ofSeconds(seconds));
+        destination = dir.resolve(next.getName() + ".jfr");
+        next.setDestination(destination); // Written here on stop, including when the duration runs out
+        next.start();
+        recording = next;
+
+        log.info("Started flight recording {} ({} settings, up to {}s)", next.getName(), settings, seconds);
+        return getStatus();
+    }
+
+    /**
+     * Stop the running recording and write it to disk
+     */
+    public synchronized Map<String, Object> stop() throws IOException {
+        if (recording == null || recording.getState() != RecordingState.RUNNING) {
+            throw new IllegalStateException("No recording is running");
+        }
+        recording.stop();
+        log.info("Stopped flight recording {}, written to {}", recording.getName(), destination);
+        Map<String, Object> status = getStatus();
+        closeRecording();
+        return status;
+    }
+
+    /**
+     * Write what the running recording holds so far, without stopping it
+     */
+    public synchronized Map<String, Object> dump() throws IOException {
+        if (recording == null || recording.getState() != RecordingState.RUNNING) {
+            throw new IllegalStateException("No recording is running");
+        }
+        Path snapshot = destination.resolveSibling(recording.getName() + "-" + FILE_TIME.format(Instant.now()) + "-partial.jfr");
+        recording.dump(snapshot);
+        Map<String, Object> status = getStatus();
+        status.put("dumped_to", snapshot.toString());
+        status.put("dumped_bytes", Files.size(snapshot));
+        return status;
+    }
+
+    public synchronized Map<String, Object> getStatus() throws IOException {
+        Map<String, Object> status = new LinkedHashMap<>();
+        if (recording != null) {
+            status.put("name", recording.getName());
+            status.put("state", recording.getState().name());
+            status.put("started_at", recording.getStartTime() == null ? null : recording.getStartTime().toString());
+            status.put("duration_seconds", recording.getDuration() == null ? null : recording.getDuration().getSeconds());
+            status.put("destination", destination.toString());
+            if (Files.exists(destination)) {
+                status.put("destination_bytes", Files.size(destination));
+            }
+        } else {
+            status.put("state", "NONE");
+        }
+        status.put("recordings", listRecordings());
+        return status;
+    }
+
+    private List<Map<String, Object>> listRecordings() throws IOException {
+        List<Map<String, Object>> files = new ArrayList<>();
+        Path dir = Paths.get(recordingDir).toAbsolutePath();
+        if (!Files.isDirectory(dir)) {
+            return files;
+        }
+        try (Stream<Path> paths = Files.list(dir)) {
+            for (Path path : (Iterable<Path>) paths.filter(p -> p.toString().endsWith(".jfr")).sorted()::iterator) {
+                Map<String, Object> file = new LinkedHashMap<>();
+                file.put("file", path.toString());
+                file.put("bytes", Files.size(path));
+                files.add(file);
+            }
+        }
+        return files;
+    }
+
+    private void removeOldRecordings(Path dir, int keep) throws IOException {
+        List<Path> existing;
+        try (Stream<Path> paths = Files.list(dir)) {
+            existing = paths.filter(p -> p.toString().endsWith(".jfr")).sorted().toList();
+        }
+        for (int i = 0; i < existing.size() - Math.max(0, keep); i++) {
+            Files.deleteIfExists(existing.get(i));
+        }
+    }
+
+    private void closeRecording() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        if (recording != null && recording.getState() == RecordingState.RUNNING) {
+            try {
+                recording.stop();
+                log.info("Flight recording {} written to {} on shutdown", recording.getName(), destination);
+            } catch (Exception e) {
+                log.warn("Could not write flight recording on shutdown: {}", e.getMessage());
+            }
+        }
+        closeRecording();
+    }
+}
@@ -0,0 +1,132 @@
+package com.project.ChatBot.monitoring;
+
+import com.project.ChatBot.service.CorpusSnapshot;
+import com.project.ChatBot.service.DocumentService;
+import com.project.ChatBot.service.GeminiCircuitBreaker;
+import com.project.ChatBot.service.GeminiService;
+import com.project.ChatBot.service.StartupTimings;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Liveness, readiness and deep health checks.
+ *
+ * Liveness and readiness only read state that is already in memory (startup milestones,
+ * the published corpus snapshot, the Gemini circuit breaker), so orchestrator probes cost
+ * nothing and never reach the LLM or the PDFs. The deep check makes a real Gemini call and
+ * is rate limited: within chatbot.health.deep-min-interval-ms, and while one is running,
+ * callers get the last result back.
+ */
+@Component
+public class HealthProbes {
+
+    public static final String UP = "UP";
+    public static final String DEGRADED = "DEGRADED";
+    public static final String DOWN = "DOWN";
+
+    @Autowired
+    private StartupTimings startupTimings;
+
+    @Autowired
+    private DocumentService documentService;
+
+    @Autowired
+    private GeminiCircuitBreaker geminiCircuitBreaker;
+
+    @Autowired
+    private GeminiService geminiService;
+
+    @Value("${chatbot.health.deep-min-interval-ms:30000}")
+    private long deepMinIntervalMs;
+
+    private final ReentrantLock deepCheckLock = new ReentrantLock();
+    private volatile Map<String, Object> lastDeepCheck;
+    private volatile long lastDeepCheckAt = 0;
+
+    /**
+     * The process is up and serving requests
+     */
+    public Map<String, Object> liveness() {
+        Map<String, Object> liveness = new LinkedHashMap<>();
+        liveness.put("status", UP);
+        liveness.put("uptime_ms", ManagementFactory.getRuntimeMXBean().getUptime());
+        return liveness;
+    }
+
+    /**
+     * Ready once the corpus is loaded. An open Gemini circuit only degrades readiness:
+     * taking every instance out of rotation would not bring the upstream back.
+     */
+    public Map<String, Object> readiness() {
+        CorpusSnapshot snapshot = documentService.peekSnapshot();
+        boolean corpusReady = startupTimings.isReady() && snapshot.getVersion() > 0;
+        GeminiCircuitBreaker.State circuit = geminiCircuitBreaker.getState();
+
+        Map<String, Object> readiness = new LinkedHashMap<>();
+        readiness.put("status", !corpusReady ? DOWN : circuit == GeminiCircuitBreaker.State.OPEN ? DEGRADED : UP);
+        readiness.put("corpus_ready", corpusReady);
+        readiness.put("snapshot_version", snapshot.getVersion());
+        readiness.put("snapshot_documents", snapshot.getDocuments().size());
+        readiness.put("snapshot_fresh", documentService.isSnapshotFresh());
+        readiness.put("gemini_circuit", circuit.name());
+        long lastSuccess = geminiCircuitBreaker.getLastSuccessAt();
+        readiness.put("gemini_last_success_at", lastSuccess);
+        readiness.put("gemini_last_success_age_ms", lastSuccess > 0 ? System.currentTimeMillis() - lastSuccess : -1);
+        return readiness;
+    }
+
+    /**
+     * Readiness plus a real Gemini round trip, at most once per interval
+     */
+    public Map<String, Object> deepCheck() {
+        Map<String, Object> cached = lastDeepCheck;
+        if ((cached != null && System.currentTimeMillis() - lastDeepCheckAt < deepMinIntervalMs)
+                || !deepCheckLock.tryLock()) {
+            return cached != null ? withCacheInfo(cached) : inProgress();
+        }
+        try {
+            cached = lastDeepCheck;
+            if (cached != null && System.currentTimeMillis() - lastDeepCheckAt < deepMinIntervalMs) {
+                return withCacheInfo(cached);
+            }
+
+            Map<String, Object> result = readiness();
+            long start = System.nanoTime();
+            String failure = geminiService.ping();
+            result.put("gemini_ping_ms", (System.nanoTime() - start) / 1_000_000);
+            result.put("gemini_ping", failure == null ? "ok" : failure);
+            if (failure != null) {
+                result.put("status", DOWN);
+            }
+            result.put("checked_at", System.currentTimeMillis());
+
+            lastDeepCheck = result;
+            lastDeepCheckAt = System.currentTimeMillis();
+            Map<String, Object> response = new LinkedHashMap<>(result);
+            response.put("cached", false);
+            return response;
+        } finally {
+            deepCheckLock.unlock();
+        }
+    }
+
+    private Map<String, Object> withCacheInfo(Map<String, Object> cached) {
+        Map<String, Object> response = new LinkedHashMap<>(cached);
+        response.put("cached", true);
+        response.put("next_check_in_ms", Math.max(0, deepMinIntervalMs - (System.currentTimeMillis() - lastDeepCheckAt)));
+        return response;
+    }
+
+    private Map<String, Object> inProgress() {
+        Map<String, Object> response = readiness();
+        response.put("gemini_ping", "in progress");
+        response.put("cached", true);
+        return response;
+    }
+}
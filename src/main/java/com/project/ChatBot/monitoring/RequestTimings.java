@@ -0,0 +1,81 @@
+package com.project.ChatBot.monitoring;
+
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Latency breakdown of the request running on the current thread.
+ *
+ * ChatMetrics adds every stage and Gemini call it times to the breakdown that is active on
+ * the thread, so the per-request view and the aggregated meters come from the same
+ * measurements. Callers add cache-hit flags alongside. The breakdown is rendered as a
+ * Server-Timing header and, on request, as the debug field of the response.
+ */
+@Component
+public class RequestTimings {
+
+    private final ThreadLocal<Breakdown> current = new ThreadLocal<>();
+
+    /**
+     * Start collecting for the current request; pair with {@link #end()}
+     */
+    public Breakdown begin() {
+        Breakdown breakdown = new Breakdown();
+        current.set(breakdown);
+        return breakdown;
+    }
+
+    public void end() {
+        current.remove();
+    }
+
+    /**
+     * Add time to a stage; a stage measured more than once is summed
+     */
+    public void add(String stage, long nanos) {
+        Breakdown breakdown = current.get();
+        if (breakdown != null) {
+            breakdown.stageNanos.merge(stage, nanos, Long::sum);
+        }
+    }
+
+    public void flag(String key, Object value) {
+        Breakdown breakdown = current.get();
+        if (breakdown != null && value != null) {
+            breakdown.flags.put(key, value);
+        }
+    }
+
+    public static final class Breakdown {
+        private final long startNanos = System.nanoTime();
+        private final Map<String, Long> stageNanos = new LinkedHashMap<>();
+        private final Map<String, Object> flags = new LinkedHashMap<>();
+
+        /**
+         * Server-Timing header value: one metric per stage, then the total so far
+         */
+        public String toServerTiming() {
+            StringBuilder header = new StringBuilder();
+            stageNanos.forEach((stage, nanos) -> header.append(stage).append(";dur=").append(millis(nanos)).append(", "));
+            return header.append("total;dur=").append(millis(System.nanoTime() - startNanos)).toString();
+        }
+
+        public Map<String, Object> toMap() {
+            Map<String, Object> stages = new LinkedHashMap<>();
+            stageNanos.forEach((stage, nanos) -> stages.put(stage, Double.parseDouble(millis(nanos))));
+
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("stages_ms", stages);
+            map.put("total_ms", Double.parseDouble(millis(System.nanoTime() - startNanos)));
+            map.put("flags", flags);
+            return map;
+        }
+
+        private static String millis(long nanos) {
+            return String.format(Locale.ROOT, "%.1f", nanos / 1_000_000.0);
+        }
+    }
+}
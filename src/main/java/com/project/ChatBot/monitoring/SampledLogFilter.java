@@ -0,0 +1,27 @@
+package com.project.ChatBot.monitoring;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.MDC;
+import org.slf4j.Marker;
+
+/**
+ * Drops INFO and lower events on threads serving a chat request that was not sampled.
+ *
+ * Registered in logback-spring.xml. A turbo filter runs before the event is built, so a
+ * dropped call costs one MDC lookup. WARN and ERROR always pass.
+ */
+public class SampledLogFilter extends TurboFilter {
+
+    public static final String MDC_KEY = "logSampled";
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        if (level == null || level.isGreaterOrEqual(Level.WARN)) {
+            return FilterReply.NEUTRAL;
+        }
+        return "false".equals(MDC.get(MDC_KEY)) ? FilterReply.DENY : FilterReply.NEUTRAL;
+    }
+}
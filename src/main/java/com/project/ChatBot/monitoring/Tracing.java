@@ -0,0 +1,328 @@
+package com.project.ChatBot.monitoring;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Minimal span tracing for the chat pipeline, exported as OTLP/JSON lines.
+ *
+ * Spans nest through a thread-local current span, so a span started inside another on
+ * the same thread becomes its child. Finished spans are queued without blocking; a
+ * single exporter thread drains the queue on a fixed interval and appends one
+ * ExportTraceServiceRequest per line to chatbot.tracing.file. That is the format the
+ * OpenTelemetry Collector's file exporter writes and its otlpjson receiver reads, so traces
+ * can be replayed into Jaeger or Tempo later without running a collector now.
+ */
+@Component
+public class Tracing {
+
+    private static final Logger log = LoggerFactory.getLogger(Tracing.class);
+
+    private static final int KIND_INTERNAL = 1;
+    private static final int KIND_SERVER = 2;
+    private static final int KIND_CLIENT = 3;
+
+    @Value("${chatbot.tracing.enabled:true}")
+    private boolean enabled;
+
+    @Value("${chatbot.tracing.file:traces/spans.otlp.jsonl}")
+    private String file;
+
+    @Value("${chatbot.tracing.flush-interval:2000}")
+    private long flushIntervalMs;
+
+    @Value("${chatbot.tracing.queue-capacity:16384}")
+    private int queueCapacity;
+
+    @Value("${chatbot.tracing.max-file-size:67108864}")
+    private long maxFileBytes;
+
+    @Value("${spring.application.name:ChatBot}")
+    private String serviceName;
+
+    private final ThreadLocal<Span> current = new ThreadLocal<>();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AtomicLong exported = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    private BlockingQueue<Span> queue;
+    private Thread exporterThread;
+    private volatile boolean running;
+
+    @PostConstruct
+    public void start() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        Path path = Paths.get(file).toAbsolutePath();
+        Files.createDirectories(path.getParent());
+
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        running = true;
+        exporterThread = new Thread(this::exportLoop, "trace-exporter");
+        exporterThread.setDaemon(true);
+        exporterThread.start();
+        log.info("Tracing enabled: spans exported to {}", path);
+    }
+
+    /**
+     * Start an internal span, a child of the current span if there is one
+     */
+    public Span startSpan(String name) {
+        return startSpan(name, KIND_INTERNAL);
+    }
+
+    /**
+     * Start the root span of an incoming request
+     */
+    public Span startServerSpan(String name) {
+        return startSpan(name, KIND_SERVER);
+    }
+
+    /**
+     * Start a span around an outgoing call
+     */
+    public Span startClientSpan(String name) {
+        return startSpan(name, KIND_CLIENT);
+    }
+
+    private Span startSpan(String name, int kind) {
+        Span parent = current.get();
+        String traceId = parent != null ? parent.traceId : randomHex(16);
+        Span span = new Span(this, name, kind, traceId, randomHex(8), parent);
+        current.set(span);
+        return span;
+    }
+
+    /**
+     * Add an attribute to the span running on this thread, if any
+     */
+    public void currentSpanAttribute(String key, Object value) {
+        Span span = current.get();
+        if (span != null) {
+            span.setAttribute(key, value);
+        }
+    }
+
+    /**
+     * Trace id of the span running on this thread, or null
+     */
+    public String currentTraceId() {
+        Span span = current.get();
+        return span == null ? null : span.traceId;
+    }
+
+    private void finish(Span span) {
+        // Restore the parent even if spans were closed out of order
+        if (current.get() == span) {
+            if (span.parent != null) {
+                current.set(span.parent);
+            } else {
+                current.remove();
+            }
+        }
+        if (enabled && !queue.offer(span)) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    private void exportLoop() {
+        List<Span> batch = new ArrayList<>();
+        while (running || !queue.isEmpty()) {
+            try {
+                Span first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch);
+                write(batch);
+            } catch (InterruptedException e) {
+                running = false;
+                queue.drainTo(batch);
+                write(batch);
+            } catch (Exception e) {
+                log.error("Error exporting spans: {}", e.getMessage());
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<Span> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        Path path = Paths.get(file).toAbsolutePath();
+        try {
+            if (Files.exists(path) && Files.size(path) > maxFileBytes) {
+                Files.move(path, path.resolveSibling(path.getFileName() + ".1"), StandardCopyOption.REPLACE_EXISTING);
+            }
+            try (BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                writer.write(objectMapper.writeValueAsString(toOtlp(batch)));
+                writer.write('\n');
+            }
+            exported.addAndGet(batch.size());
+        } catch (IOException e) {
+            dropped.addAndGet(batch.size());
+            log.warn("Could not write spans to {}: {}", path, e.getMessage());
+        }
+    }
+
+    /**
+     * ExportTraceServiceRequest in the OTLP/JSON encoding (ids as hex, times as strings)
+     */
+    private Map<String, Object> toOtlp(List<Span> batch) {
+        List<Map<String, Object>> spans = new ArrayList<>(batch.size());
+        for (Span span : batch) {
+            Map<String, Object> json = new LinkedHashMap<>();
+            json.put("traceId", span.traceId);
+            json.put("spanId", span.spanId);
+            if (span.parent != null) {
+                json.put("parentSpanId", span.parent.spanId);
+            }
+            json.put("name", span.name);
+            json.put("kind", span.kind);
+            json.put("startTimeUnixNano", String.valueOf(span.startEpochNanos));
+            json.put("endTimeUnixNano", String.valueOf(span.startEpochNanos + span.durationNanos));
+            json.put("attributes", attributes(span.attributes));
+            Map<String, Object> status = new LinkedHashMap<>();
+            status.put("code", span.error != null ? 2 : 1);
+            if (span.error != null) {
+                status.put("message", span.error);
+            }
+            json.put("status", status);
+            spans.add(json);
+        }
+
+        Map<String, Object> resource = Map.of("attributes", attributes(Map.of("service.name", serviceName)));
+        Map<String, Object> scopeSpans = new LinkedHashMap<>();
+        scopeSpans.put("scope", Map.of("name", "com.project.ChatBot"));
+        scopeSpans.put("spans", spans);
+        Map<String, Object> resourceSpans = new LinkedHashMap<>();
+        resourceSpans.put("resource", resource);
+        resourceSpans.put("scopeSpans", List.of(scopeSpans));
+        return Map.of("resourceSpans", List.of(resourceSpans));
+    }
+
+    private static List<Map<String, Object>> attributes(Map<String, Object> values) {
+        List<Map<String, Object>> attributes = new ArrayList<>(values.size());
+        values.forEach((key, value) -> {
+            Map<String, Object> typed;
+            if (value instanceof Boolean) {
+                typed = Map.of("boolValue", value);
+            } else if (value instanceof Integer || value instanceof Long) {
+                typed = Map.of("intValue", String.valueOf(value));
+            } else if (value instanceof Number) {
+                typed = Map.of("doubleValue", ((Number) value).doubleValue());
+            } else {
+                typed = Map.of("stringValue", String.valueOf(value));
+            }
+            attributes.add(Map.of("key", key, "value", typed));
+        });
+        return attributes;
+    }
+
+    private static String randomHex(int bytes) {
+        byte[] id = new byte[bytes];
+        ThreadLocalRandom.current().nextBytes(id);
+        return HexFormat.of().formatHex(id);
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("file", Paths.get(file).toAbsolutePath().toString());
+        stats.put("exported_spans", exported.get());
+        stats.put("dropped_spans", dropped.get());
+        stats.put("queued_spans", queue == null ? 0 : queue.size());
+        return stats;
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (!enabled || exporterThread == null) {
+            return;
+        }
+        running = false;
+        try {
+            exporterThread.join(flushIntervalMs + 1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * One timed operation; close it (try-with-resources) to end it
+     */
+    public static final class Span implements AutoCloseable {
+        private final Tracing tracing;
+        private final String name;
+        private final int kind;
+        private final String traceId;
+        private final String spanId;
+        private final Span parent;
+        private final long startEpochNanos;
+        private final long startNanos;
+        private final Map<String, Object> attributes = new LinkedHashMap<>();
+        private long durationNanos;
+        private String error;
+        private boolean ended;
+
+        private Span(Tracing tracing, String name, int kind, String traceId, String spanId, Span parent) {
+            this.tracing = tracing;
+            this.name = name;
+            this.kind = kind;
+            this.traceId = traceId;
+            this.spanId = spanId;
+            this.parent = parent;
+            Instant now = Instant.now();
+            this.startEpochNanos = now.getEpochSecond() * 1_000_000_000L + now.getNano();
+            this.startNanos = System.nanoTime();
+        }
+
+        public Span setAttribute(String key, Object value) {
+            if (value != null) {
+                attributes.put(key, value);
+            }
+            return this;
+        }
+
+        public Span setError(String message) {
+            this.error = message == null ? "error" : message;
+            return this;
+        }
+
+        public String getTraceId() {
+            return traceId;
+        }
+
+        @Override
+        public void close() {
+            if (ended) {
+                return;
+            }
+            ended = true;
+            durationNanos = System.nanoTime() - startNanos;
+            tracing.finish(this);
+        }
+    }
+}
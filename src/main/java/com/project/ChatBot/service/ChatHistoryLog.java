@@ -0,0 +1,383 @@
+package com.project.ChatBot.service;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.project.ChatBot.model.ChatMessage;
+import com.project.ChatBot.model.ConversationSummary;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Optional append-only log of chat history.
+ *
+ * Request threads only enqueue records. A single writer thread drains the queue in
+ * batches, appends them as JSON lines to the active segment and fsyncs on a fixed
+ * interval (group commit). Segments roll at a size limit and old ones are deleted
+ * once they fall out of the retention window.
+ */
+@Component
+public class ChatHistoryLog {
+
+    private static final Logger log = LoggerFactory.getLogger(ChatHistoryLog.class);
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    @Value("${chatbot.history.log.enabled:false}")
+    private boolean enabled;
+
+    @Value("${chatbot.history.log.dir:chat_logs}")
+    private String logDirectory;
+
+    @Value("${chatbot.history.log.fsync-interval:1000}")
+    private long fsyncIntervalMs;
+
+    @Value("${chatbot.history.log.segment-size:16777216}")
+    private long segmentSizeBytes;
+
+    @Value("${chatbot.history.log.retention:86400000}")
+    private long retentionMs;
+
+    @Value("${chatbot.history.log.queue-capacity:65536}")
+    private int queueCapacity;
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+    private final AtomicLong appended = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    private BlockingQueue<LogRecord> queue;
+    private Thread writerThread;
+    private volatile boolean running;
+
+    private FileChannel activeChannel;
+    private long activeSequence;
+    private long lastSyncTime;
+
+    @PostConstruct
+    public void start() throws IOException {
+        if (!enabled) {
+            return;
+        }
+
+        Files.createDirectories(Paths.get(logDirectory));
+        List<Path> segments = listSegments();
+        activeSequence = segments.isEmpty() ? 0 : sequenceOf(segments.get(segments.size() - 1)) + 1;
+        openSegment();
+
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        running = true;
+        writerThread = new Thread(this::writeLoop, "chat-history-log-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+
+        log.info("Chat history log enabled: {} (fsync every {}ms)", logDirectory, fsyncIntervalMs);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Queue a message for the log; never blocks the caller
+     */
+    public void append(ChatMessage message) {
+        enqueue(new LogRecord("message", message.getSessionId(), message, null));
+    }
+
+    /**
+     * Queue the latest rolling summary of a session
+     */
+    public void appendSummary(String sessionId, ConversationSummary summary) {
+        enqueue(new LogRecord("summary", sessionId, null, summary));
+    }
+
+    /**
+     * Queue a tombstone so a cleared or expired session is not recovered
+     */
+    public void appendClear(String sessionId) {
+        enqueue(new LogRecord("clear", sessionId, null, null));
+    }
+
+    private void enqueue(LogRecord record) {
+        if (!enabled) {
+            return;
+        }
+        if (!queue.offer(record)) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    /**
+     * Replay every retained segment, oldest first, and hand over the sessions that were
+     * active since the given time. Liveness is decided per session from its newest message,
+     * so a live session that started in an old segment comes back whole, summaries included.
+     * Records before a session's last tombstone are dropped.
+     */
+    public void recover(long sinceMillis, Consumer<ChatMessage> onMessage,
+                        BiConsumer<String, ConversationSummary> onSummary) {
+        if (!enabled) {
+            return;
+        }
+
+        Map<String, RecoveredSession> sessions = new LinkedHashMap<>();
+        try {
+            for (Path segment : listSegments()) {
+                long segmentTime = Files.getLastModifiedTime(segment).toMillis();
+                try (BufferedReader reader = Files.newBufferedReader(segment, StandardCharsets.UTF_8)) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        if (line.isBlank()) {
+                            continue;
+                        }
+                        LogRecord record;
+                        try {
+                            record = objectMapper.readValue(line, LogRecord.class);
+                        } catch (IOException e) {
+                            // A torn write at the tail of a segment; everything before it is intact
+                            log.warn("Skipping unreadable chat log record in {}", segment.getFileName());
+                            continue;
+                        }
+
+                        if ("clear".equals(record.type)) {
+                            sessions.remove(record.sessionId);
+                        } else if ("summary".equals(record.type) || record.message != null) {
+                            sessions.computeIfAbsent(record.sessionId, id -> new RecoveredSession())
+                                    .add(record, segmentTime);
+                        }
+                    }
+                }
+            }
+        } catch (IOException e) {
+            log.error("Error recovering chat history log: {}", e.getMessage());
+        }
+
+        int recovered = 0;
+        for (Map.Entry<String, RecoveredSession> session : sessions.entrySet()) {
+            if (session.getValue().lastActivity < sinceMillis) {
+                continue;
+            }
+            for (LogRecord record : session.getValue().records) {
+                if (record.message != null) {
+                    onMessage.accept(record.message);
+                    recovered++;
+                } else if (record.summary != null) {
+                    onSummary.accept(session.getKey(), record.summary);
+                }
+            }
+        }
+
+        log.info("Recovered {} chat messages from history log", recovered);
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("appended_records", appended.get());
+        stats.put("dropped_records", dropped.get());
+        stats.put("queued_records", queue == null ? 0 : queue.size());
+        stats.put("active_segment", enabled ? segmentName(activeSequence) : null);
+        return stats;
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (!enabled || writerThread == null) {
+            return;
+        }
+
+        // No interrupt: it would close the FileChannel mid-write. The writer notices within one poll interval.
+        running = false;
+        try {
+            writerThread.join(fsyncIntervalMs + 5000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void writeLoop() {
+        List<LogRecord> batch = new ArrayList<>();
+        lastSyncTime = System.currentTimeMillis();
+
+        while (running || !queue.isEmpty()) {
+            try {
+                LogRecord first = queue.poll(fsyncIntervalMs, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    queue.drainTo(batch);
+                    writeBatch(batch);
+                    batch.clear();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+
+            if (System.currentTimeMillis() - lastSyncTime >= fsyncIntervalMs || !running) {
+                sync();
+            }
+        }
+
+        sync();
+        closeSegment();
+    }
+
+    private void writeBatch(List<LogRecord> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        try {
+            StringBuilder lines = new StringBuilder();
+            for (LogRecord record : batch) {
+                lines.append(objectMapper.writeValueAsString(record)).append('\n');
+            }
+
+            ByteBuffer buffer = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                activeChannel.write(buffer);
+            }
+            appended.addAndGet(batch.size());
+
+            if (activeChannel.size() >= segmentSizeBytes) {
+                rollSegment();
+            }
+        } catch (IOException e) {
+            log.error("Error writing chat history log: {}", e.getMessage());
+        }
+    }
+
+    private void sync() {
+        try {
+            if (activeChannel != null && activeChannel.isOpen()) {
+                activeChannel.force(false);
+            }
+        } catch (IOException e) {
+            log.error("Error syncing chat history log: {}", e.getMessage());
+        }
+        lastSyncTime = System.currentTimeMillis();
+    }
+
+    private void rollSegment() throws IOException {
+        sync();
+        closeSegment();
+        activeSequence++;
+        openSegment();
+        deleteExpiredSegments();
+    }
+
+    private void openSegment() throws IOException {
+        Path segment = Paths.get(logDirectory, segmentName(activeSequence));
+        activeChannel = FileChannel.open(segment,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private void closeSegment() {
+        try {
+            if (activeChannel != null) {
+                activeChannel.close();
+            }
+        } catch (IOException e) {
+            log.error("Error closing chat history segment: {}", e.getMessage());
+        }
+    }
+
+    private void deleteExpiredSegments() {
+        long cutoff = System.currentTimeMillis() - retentionMs;
+        try {
+            for (Path segment : listSegments()) {
+                if (sequenceOf(segment) < activeSequence && Files.getLastModifiedTime(segment).toMillis() < cutoff) {
+                    Files.deleteIfExists(segment);
+                }
+            }
+        } catch (IOException e) {
+            log.error("Error deleting expired chat history segments: {}", e.getMessage());
+        }
+    }
+
+    private List<Path> listSegments() throws IOException {
+        try (Stream<Path> files = Files.list(Paths.get(logDirectory))) {
+            return files
+                .filter(path -> {
+                    String name = path.getFileName().toString();
+                    return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+                })
+                .sorted(Comparator.comparingLong(ChatHistoryLog::sequenceOf))
+                .collect(Collectors.toList());
+        }
+    }
+
+    private static String segmentName(long sequence) {
+        return String.format("%s%012d%s", SEGMENT_PREFIX, sequence, SEGMENT_SUFFIX);
+    }
+
+    private static long sequenceOf(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    /**
+     * Records of one session since its last tombstone, and when it was last active
+     */
+    private static class RecoveredSession {
+        final List<LogRecord> records = new ArrayList<>();
+        long lastActivity = Long.MIN_VALUE;
+
+        void add(LogRecord record, long segmentTime) {
+            records.add(record);
+            if (record.message != null) {
+                // Messages without a timestamp count as written when their segment was
+                long activity = record.message.getTimestamp() == null ? segmentTime
+                        : record.message.getTimestamp().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+                lastActivity = Math.max(lastActivity, activity);
+            }
+        }
+    }
+
+    /**
+     * One line in a segment
+     */
+    public static class LogRecord {
+        public String type;
+        public String sessionId;
+        public ChatMessage message;
+        public ConversationSummary summary;
+
+        public LogRecord() {}
+
+        LogRecord(String type, String sessionId, ChatMessage message, ConversationSummary summary) {
+            this.type = type;
+            this.sessionId = sessionId;
+            this.message = message;
+            this.summary = summary;
+        }
+    }
+}
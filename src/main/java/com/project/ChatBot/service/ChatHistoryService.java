@@ -1,131 +1,435 @@
 package com.project.ChatBot.service;
 
+import com.project.ChatBot.model.ChatHistoryPage;
 import com.project.ChatBot.model.ChatMessage;
+import com.project.ChatBot.model.ConversationSummary;
+import com.project.ChatBot.monitoring.FlightEvents;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.time.ZoneId;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
+import java.util.concurrent.locks.ReentrantLock;
 
 @Service
 public class ChatHistoryService {
 
-    // In-memory storage for chat sessions
-    private final Map<String, List<ChatMessage>> chatSessions = new ConcurrentHashMap<>();
+    private static final Logger log = LoggerFactory.getLogger(ChatHistoryService.class);
+
+    @Autowired
+    private SessionStore sessionStore;
+
+    @Autowired
+    private ChatHistoryLog chatHistoryLog;
+
+    @Autowired
+    private MemoryBudget memoryBudget;
+
+    private static final String SESSION_REGION = "session";
+    private static final String CONTEXT_REGION = "context";
+
+    // Sessions are only charged to the evictable budget when the store still holds them after
+    // this instance drops its copy; a local store's sessions are the only copy of the history
+    private boolean sessionsEvictable;
+
+    // Messages and rolling summaries live in the session store; activity is tracked per instance
     private final Map<String, Long> sessionLastActivity = new ConcurrentHashMap<>();
 
+    // Writers of one session (save, clear, expire) are serialized by a striped lock, so the
+    // expiry recheck and the delete cannot straddle a saved message
+    private final ReentrantLock[] sessionLocks = new ReentrantLock[64];
+    {
+        for (int i = 0; i < sessionLocks.length; i++) {
+            sessionLocks[i] = new ReentrantLock();
+        }
+    }
+
     // Context caching for performance
     private final Map<String, String> contextCache = new ConcurrentHashMap<>();
     private final Map<String, Integer> lastContextSize = new ConcurrentHashMap<>();
 
-    // Session timeout in milliseconds (30 minutes)
-    private static final long SESSION_TIMEOUT = 30 * 60 * 1000;
+    // Hard cap on the verbatim part of a prompt context, whether or not summaries keep up
+    @Value("${chatbot.context.max-messages:20}")
+    private int contextMaxMessages;
+
+    @Value("${chatbot.context.max-chars:6000}")
+    private int contextMaxChars;
+
+    // Session timeout in milliseconds (30 minutes by default)
+    @Value("${chatbot.session.timeout:1800000}")
+    private long sessionTimeout;
+
+    // Expiry is driven by a timing wheel on the scheduler thread, never by request threads;
+    // its tick is the scheduler's delay, so each run advances about one slot
+    @Value("${chatbot.session.expiry-tick:1000}")
+    private long expiryTick;
+
+    @Value("${chatbot.session.expiry-wheel-size:512}")
+    private int expiryWheelSize;
+
+    private SessionExpiryWheel expiryWheel;
+
+    /**
+     * Rebuild recent sessions from the durable log, if persistence is enabled and the
+     * session store is local to this instance
+     */
+    @PostConstruct
+    public void recoverSessions() {
+        expiryWheel = new SessionExpiryWheel(expiryTick, expiryWheelSize, System.currentTimeMillis());
+
+        // Under memory pressure the budget drops cached contexts, and near-cached copies of shared sessions
+        sessionsEvictable = sessionStore.isShared();
+        if (sessionsEvictable) {
+            memoryBudget.register(SESSION_REGION, this::forgetSession);
+        }
+        memoryBudget.register(CONTEXT_REGION, this::forgetContext);
+
+        if (!chatHistoryLog.isEnabled() || sessionStore.isShared()) {
+            return;
+        }
+
+        chatHistoryLog.recover(System.currentTimeMillis() - sessionTimeout,
+                this::restoreMessage, sessionStore::putSummary);
+        log.info("Recovered {} chat sessions", sessionStore.localSessionCount());
+    }
 
     public void saveChatMessage(ChatMessage message) {
         String sessionId = message.getSessionId();
+        FlightEvents.ChatHistory event = new FlightEvents.ChatHistory();
+        event.begin();
 
         // Generate unique ID for the message
         message.setId(UUID.randomUUID().toString());
 
-        // Get or create session chat history
-        List<ChatMessage> sessionHistory = chatSessions.computeIfAbsent(sessionId, k -> new ArrayList<>());
+        ReentrantLock lock = sessionLock(sessionId);
+        lock.lock();
+        try {
+            // Persist off the request path
+            chatHistoryLog.append(message);
 
-        // Add message to session
-        sessionHistory.add(message);
+            // Add message to session (created if needed)
+            sessionStore.append(sessionId, message);
+            chargeSession(sessionId, estimateBytes(message));
 
-        // Update last activity
-        sessionLastActivity.put(sessionId, System.currentTimeMillis());
+            // Update last activity and make sure the session is armed for expiry
+            long now = System.currentTimeMillis();
+            sessionLastActivity.put(sessionId, now);
+            expiryWheel.schedule(sessionId, now + sessionTimeout);
+        } finally {
+            lock.unlock();
+        }
 
         // Clear cached context when new message is added
         contextCache.remove(sessionId);
+        memoryBudget.release(CONTEXT_REGION, sessionId);
 
-        // Cleanup expired sessions periodically
-        if (sessionHistory.size() % 10 == 0) {
-            cleanupExpiredSessions();
-        }
+        log.debug("Saved message for session {}: {}", sessionId, message.getMessage());
 
-        System.out.println("Saved message for session " + sessionId + ": " + message.getMessage());
+        if (event.shouldCommit()) {
+            event.operation = "write";
+            event.sessionId = sessionId;
+            event.messages = 1;
+            event.chars = message.getMessage() == null ? 0 : message.getMessage().length();
+            event.commit();
+        }
     }
 
     public List<ChatMessage> getChatHistory(String sessionId) {
-        return chatSessions.getOrDefault(sessionId, new ArrayList<>());
+        return getMessageRange(sessionId, 0, Integer.MAX_VALUE);
+    }
+
+    /**
+     * One page of history, newest first. The cursor is the position (exclusive) to read
+     * backwards from; null starts at the newest message. Cost depends only on the page size.
+     */
+    public ChatHistoryPage getHistoryPage(String sessionId, String cursor, int limit) {
+        int size = sessionStore.size(sessionId);
+        int end = size;
+        if (cursor != null && !cursor.isEmpty()) {
+            end = Math.min(size, Math.max(0, Integer.parseInt(cursor)));
+        }
+        int start = Math.max(0, end - limit);
+
+        List<ChatMessage> messages = getMessageRange(sessionId, start, end);
+        Collections.reverse(messages);
+
+        String nextCursor = start > 0 ? Integer.toString(start) : null;
+        return new ChatHistoryPage(sessionId, messages, nextCursor, size);
+    }
+
+    /**
+     * Copy of the messages in [from, to), clamped to the session's current size
+     */
+    public List<ChatMessage> getMessageRange(String sessionId, int from, int to) {
+        FlightEvents.ChatHistory event = new FlightEvents.ChatHistory();
+        event.begin();
+        List<ChatMessage> messages = sessionStore.getRange(sessionId, from, to);
+        if (event.shouldCommit()) {
+            event.operation = "read";
+            event.sessionId = sessionId;
+            event.messages = messages.size();
+            event.commit();
+        }
+        return messages;
+    }
+
+    public ConversationSummary getConversationSummary(String sessionId) {
+        return sessionStore.getSummary(sessionId);
+    }
+
+    /**
+     * Replace the rolling summary; ignored if an equal or newer one is already stored
+     */
+    public void updateConversationSummary(String sessionId, ConversationSummary summary) {
+        if (!sessionStore.exists(sessionId)) {
+            return;
+        }
+
+        ConversationSummary current = sessionStore.getSummary(sessionId);
+        if (current != null && current.getCoveredMessages() >= summary.getCoveredMessages()) {
+            return;
+        }
+
+        sessionStore.putSummary(sessionId, summary);
+        chargeSession(sessionId, MemoryBudget.estimateBytes(summary.getSummary()));
+        contextCache.remove(sessionId);
+        memoryBudget.release(CONTEXT_REGION, sessionId);
+        chatHistoryLog.appendSummary(sessionId, summary);
     }
 
     public String buildConversationContext(String sessionId, int maxMessages) {
-        List<ChatMessage> history = getChatHistory(sessionId);
+        return buildConversationContext(sessionId, maxMessages, getSessionMessageCount(sessionId));
+    }
 
-        if (history.isEmpty()) {
+    /**
+     * Context for answering a question that was already saved as the newest message; that
+     * message is left out so the prompt does not carry the question twice
+     */
+    public String buildConversationContext(String sessionId, int maxMessages, String pendingQuestion) {
+        int size = getSessionMessageCount(sessionId);
+        if (size > 0 && pendingQuestion != null) {
+            List<ChatMessage> newest = getMessageRange(sessionId, size - 1, size);
+            if (!newest.isEmpty() && "user".equals(newest.get(0).getSender())
+                    && pendingQuestion.equals(newest.get(0).getMessage())) {
+                size--;
+            }
+        }
+        return buildConversationContext(sessionId, maxMessages, size);
+    }
+
+    /**
+     * Summary plus the messages before position size that it does not cover yet, at most
+     * chatbot.context.max-messages of them and chatbot.context.max-chars of text; older
+     * turns beyond the cap are left out, newest kept
+     */
+    private String buildConversationContext(String sessionId, int maxMessages, int size) {
+        if (size == 0) {
             return "";
         }
 
+        FlightEvents.ChatHistory event = new FlightEvents.ChatHistory();
+        event.begin();
+        event.operation = "context";
+        event.sessionId = sessionId;
+
         // Check if we can use cached context
         String cacheKey = sessionId;
         Integer lastSize = lastContextSize.get(sessionId);
-        if (lastSize != null && lastSize == history.size() && contextCache.containsKey(cacheKey)) {
-            return contextCache.get(cacheKey);
+        String cached = contextCache.get(cacheKey);
+        if (lastSize != null && lastSize == size && cached != null && memoryBudget.touch(CONTEXT_REGION, sessionId)) {
+            touchSession(sessionId);
+            event.cacheHit = true;
+            event.chars = cached.length();
+            event.commit();
+            return cached;
         }
 
-        // Build context only with essential messages (reduced for speed)
-        List<ChatMessage> recentMessages = history.stream()
-                .skip(Math.max(0, history.size() - Math.min(maxMessages, 3))) // Reduced to 3 messages max
-                .collect(Collectors.toList());
+        // Summary of older turns plus every message it does not cover yet. The summarizer folds
+        // turns in batches, so the verbatim window stays below keep-recent + batch-size messages.
+        ConversationSummary summary = sessionStore.getSummary(sessionId);
+        int wantedStart = Math.max(0, summary != null ? summary.getCoveredMessages() : size - maxMessages);
+        int recentStart = Math.max(wantedStart, size - contextMaxMessages);
+        List<ChatMessage> recentMessages = getMessageRange(sessionId, recentStart, size);
+
+        // Newest lines first until the character cap; a single oversized message keeps its end
+        Deque<String> lines = new ArrayDeque<>();
+        int chars = 0;
+        for (int i = recentMessages.size() - 1; i >= 0 && chars < contextMaxChars; i--) {
+            ChatMessage msg = recentMessages.get(i);
+            String line = ("user".equals(msg.getSender()) ? "User: " : "Bot: ") + msg.getMessage() + "\n";
+            if (chars + line.length() > contextMaxChars) {
+                if (!lines.isEmpty()) {
+                    break;
+                }
+                line = "..." + line.substring(line.length() - contextMaxChars);
+            }
+            lines.addFirst(line);
+            chars += line.length();
+        }
 
         StringBuilder context = new StringBuilder();
 
-        // Build more concise context
-        for (ChatMessage msg : recentMessages) {
-            if ("user".equals(msg.getSender())) {
-                context.append("User: ").append(truncateMessage(msg.getMessage(), 100)).append("\n");
-            } else {
-                context.append("Bot: ").append(truncateMessage(msg.getMessage(), 150)).append("\n");
-            }
+        if (summary != null && summary.getSummary() != null && !summary.getSummary().isEmpty()) {
+            context.append("Earlier conversation: ").append(summary.getSummary()).append("\n");
+        }
+        int omitted = size - wantedStart - lines.size();
+        if (omitted > 0) {
+            context.append("(").append(omitted).append(" earlier messages omitted)\n");
         }
+        lines.forEach(context::append);
 
         String finalContext = context.toString();
 
         // Cache the context
         contextCache.put(cacheKey, finalContext);
-        lastContextSize.put(sessionId, history.size());
+        lastContextSize.put(sessionId, size);
+        memoryBudget.charge(CONTEXT_REGION, sessionId, MemoryBudget.estimateBytes(finalContext));
+        touchSession(sessionId);
 
+        event.messages = lines.size();
+        event.chars = finalContext.length();
+        event.commit();
         return finalContext;
     }
 
-    private String truncateMessage(String message, int maxLength) {
-        if (message == null || message.length() <= maxLength) {
-            return message;
+    public void clearSession(String sessionId) {
+        ReentrantLock lock = sessionLock(sessionId);
+        lock.lock();
+        try {
+            sessionStore.delete(sessionId);
+            forgetLocalState(sessionId);
+            releaseSession(sessionId);
+            memoryBudget.release(CONTEXT_REGION, sessionId);
+            chatHistoryLog.appendClear(sessionId);
+        } finally {
+            lock.unlock();
         }
-        return message.substring(0, maxLength) + "...";
+        log.info("Cleared session: {}", sessionId);
     }
 
-    public void clearSession(String sessionId) {
-        chatSessions.remove(sessionId);
+    /**
+     * Expire a session the wheel found idle. The deadline is read again under the session's
+     * lock, because a message saved since the wheel checked it refreshes the session; such a
+     * session is re-armed instead. Holding the lock until the tombstone is written keeps a
+     * concurrent save from landing between the recheck and the delete.
+     */
+    private boolean expireSession(String sessionId) {
+        ReentrantLock lock = sessionLock(sessionId);
+        lock.lock();
+        try {
+            long deadline = sessionDeadline(sessionId);
+            if (deadline < 0) {
+                return false; // cleared or evicted meanwhile
+            }
+            if (deadline > System.currentTimeMillis()) {
+                expiryWheel.schedule(sessionId, deadline);
+                return false;
+            }
+
+            sessionStore.expire(sessionId);
+            forgetLocalState(sessionId);
+            releaseSession(sessionId);
+            memoryBudget.release(CONTEXT_REGION, sessionId);
+            chatHistoryLog.appendClear(sessionId);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private ReentrantLock sessionLock(String sessionId) {
+        return sessionLocks[(sessionId.hashCode() & Integer.MAX_VALUE) % sessionLocks.length];
+    }
+
+    /**
+     * Drop this instance's copy of a session (memory pressure on a shared store, or a
+     * recovered tombstone)
+     */
+    private void forgetSession(String sessionId) {
+        sessionStore.evictLocal(sessionId);
+        forgetLocalState(sessionId);
+    }
+
+    private void forgetLocalState(String sessionId) {
         sessionLastActivity.remove(sessionId);
+        forgetContext(sessionId);
+        expiryWheel.cancel(sessionId);
+    }
+
+    void forgetContext(String sessionId) {
         contextCache.remove(sessionId);
         lastContextSize.remove(sessionId);
-        System.out.println("Cleared session: " + sessionId);
+    }
+
+    private void chargeSession(String sessionId, long bytes) {
+        if (sessionsEvictable) {
+            memoryBudget.add(SESSION_REGION, sessionId, bytes);
+        }
+    }
+
+    private void touchSession(String sessionId) {
+        if (sessionsEvictable) {
+            memoryBudget.touch(SESSION_REGION, sessionId);
+        }
+    }
+
+    private void releaseSession(String sessionId) {
+        if (sessionsEvictable) {
+            memoryBudget.release(SESSION_REGION, sessionId);
+        }
+    }
+
+    private static long estimateBytes(ChatMessage message) {
+        // Object headers, id, timestamp and the message text
+        return 160 + MemoryBudget.estimateBytes(message.getMessage());
+    }
+
+    private void restoreMessage(ChatMessage message) {
+        String sessionId = message.getSessionId();
+        sessionStore.append(sessionId, message);
+        chargeSession(sessionId, estimateBytes(message));
+
+        long activity = message.getTimestamp() == null ? System.currentTimeMillis()
+                : message.getTimestamp().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        sessionLastActivity.merge(sessionId, activity, Math::max);
+        expiryWheel.schedule(sessionId, activity + sessionTimeout);
     }
 
     public int getSessionMessageCount(String sessionId) {
-        return chatSessions.getOrDefault(sessionId, new ArrayList<>()).size();
+        return sessionStore.size(sessionId);
+    }
+
+    /**
+     * Sessions with recent activity on this instance
+     */
+    public int getActiveSessionCount() {
+        return sessionLastActivity.size();
     }
 
     public boolean hasSession(String sessionId) {
-        return chatSessions.containsKey(sessionId);
+        return sessionStore.exists(sessionId);
     }
 
-    private void cleanupExpiredSessions() {
-        long currentTime = System.currentTimeMillis();
-        List<String> expiredSessions = sessionLastActivity.entrySet().stream()
-                .filter(entry -> currentTime - entry.getValue() > SESSION_TIMEOUT)
-                .map(Map.Entry::getKey)
-                .collect(Collectors.toList());
+    /**
+     * Advance the expiry wheel; only sessions whose slot is due are examined
+     */
+    @Scheduled(fixedDelayString = "${chatbot.session.expiry-tick:1000}")
+    public void expireIdleSessions() {
+        int expired = expiryWheel.advance(System.currentTimeMillis(), this::sessionDeadline, this::expireSession);
 
-        for (String sessionId : expiredSessions) {
-            clearSession(sessionId);
+        if (expired > 0) {
+            log.info("Cleaned up {} expired sessions", expired);
         }
+    }
 
-        if (!expiredSessions.isEmpty()) {
-            System.out.println("Cleaned up " + expiredSessions.size() + " expired sessions");
-        }
+    private long sessionDeadline(String sessionId) {
+        Long lastActivity = sessionLastActivity.get(sessionId);
+        return lastActivity == null ? -1 : lastActivity + sessionTimeout;
     }
 }
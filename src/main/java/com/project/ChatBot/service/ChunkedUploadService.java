@@ -0,0 +1,289 @@
+package com.project.ChatBot.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.project.ChatBot.model.IngestionJob;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Resumable uploads sent as a sequence of raw byte ranges.
+ *
+ * Each part is streamed from the request straight into the upload's file through a
+ * FileChannel with a fixed-size buffer, and the SHA-256 is updated as the bytes pass, so
+ * memory use does not depend on file size. Parts must arrive in order; a client that lost
+ * track asks for the current offset and continues from there. On completion, content that
+ * is already in the corpus is not ingested again.
+ *
+ * Sessions live only in memory, so part files left in the temp directory by a previous run
+ * can never be resumed and are removed at startup.
+ */
+@Service
+public class ChunkedUploadService {
+
+    private static final Logger log = LoggerFactory.getLogger(ChunkedUploadService.class);
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    @Autowired
+    private IngestionService ingestionService;
+
+    @Autowired
+    private DocumentService documentService;
+
+    @Value("${chatbot.upload.temp-dir:upload_parts}")
+    private String tempDir;
+
+    @Value("${chatbot.upload.session-ttl:86400000}")
+    private long sessionTtlMs;
+
+    @Value("${chatbot.upload.max-size:1073741824}")
+    private long maxSize;
+
+    private Cache<String, UploadSession> sessions;
+
+    @PostConstruct
+    public void init() throws IOException {
+        Path directory = Paths.get(tempDir);
+        Files.createDirectories(directory);
+        removeOrphanedParts(directory);
+
+        // Abandoned uploads are dropped together with their partial file
+        sessions = Caffeine.newBuilder()
+                .expireAfterAccess(Duration.ofMillis(sessionTtlMs))
+                .removalListener((String id, UploadSession session, RemovalCause cause) -> {
+                    if (session != null && cause != RemovalCause.EXPLICIT) {
+                        synchronized (session) {
+                            session.discard();
+                        }
+                    }
+                })
+                .build();
+    }
+
+    private static void removeOrphanedParts(Path directory) throws IOException {
+        int removed = 0;
+        try (DirectoryStream<Path> parts = Files.newDirectoryStream(directory, "*.part")) {
+            for (Path part : parts) {
+                try {
+                    Files.deleteIfExists(part);
+                    removed++;
+                } catch (IOException e) {
+                    log.warn("Could not remove orphaned upload {}: {}", part, e.getMessage());
+                }
+            }
+        }
+        if (removed > 0) {
+            log.info("Removed {} orphaned partial uploads from {}", removed, directory);
+        }
+    }
+
+    public UploadSession start(String fileName, long expectedSize) throws IOException {
+        String name = Paths.get(fileName).getFileName().toString(); // No directories from the client
+        if (name.isBlank()) {
+            throw new IllegalArgumentException("Invalid file name");
+        }
+        if (expectedSize > maxSize) {
+            throw new IllegalArgumentException("File exceeds the maximum upload size of " + maxSize + " bytes");
+        }
+
+        String id = UUID.randomUUID().toString();
+        UploadSession session = new UploadSession(id, name, expectedSize, Paths.get(tempDir, id + ".part"));
+        sessions.put(id, session);
+        log.info("Started chunked upload {} for {}", id, name);
+        return session;
+    }
+
+    public UploadSession get(String uploadId) {
+        return sessions.getIfPresent(uploadId);
+    }
+
+    /**
+     * Append one part at the given offset, which must equal the bytes received so far
+     */
+    public UploadSession append(String uploadId, long offset, InputStream body) throws IOException {
+        UploadSession session = require(uploadId);
+        synchronized (session) {
+            requireOpen(session);
+            if (session.hash != null) {
+                // Closed for a completion that has not gone through yet; only complete may retry
+                throw new IllegalArgumentException("Upload " + session.uploadId + " is being completed");
+            }
+            if (offset != session.receivedBytes) {
+                throw new OffsetMismatchException(session.receivedBytes);
+            }
+
+            byte[] buffer = new byte[BUFFER_SIZE];
+            ByteBuffer wrapped = ByteBuffer.wrap(buffer);
+            int read;
+            while ((read = body.read(buffer)) != -1) {
+                if (session.receivedBytes + read > maxSize) {
+                    throw new IllegalArgumentException("File exceeds the maximum upload size of " + maxSize + " bytes");
+                }
+                wrapped.clear().limit(read);
+                while (wrapped.hasRemaining()) {
+                    session.channel.write(wrapped);
+                }
+                session.digest.update(buffer, 0, read);
+                session.receivedBytes += read;
+            }
+            return session;
+        }
+    }
+
+    /**
+     * Finish the upload: deduplicate by content hash and hand the file to ingestion, which
+     * moves it into place. The returned job reports duplicates through duplicateOf. The
+     * session is only dropped once its part file has been deleted or handed over, so a
+     * failed completion can be retried or expires with its file.
+     */
+    public IngestionJob complete(String uploadId) throws IOException {
+        UploadSession session = require(uploadId);
+        synchronized (session) {
+            requireOpen(session);
+            if (session.expectedSize >= 0 && session.receivedBytes != session.expectedSize) {
+                throw new IllegalStateException("Received " + session.receivedBytes + " of " + session.expectedSize + " bytes");
+            }
+
+            if (session.hash == null) {
+                session.channel.force(false);
+                session.channel.close();
+                session.hash = HexFormat.of().formatHex(session.digest.digest());
+            }
+
+            String existing = documentService.currentSnapshot().findByHash(session.hash);
+            if (existing != null) {
+                Files.deleteIfExists(session.partFile);
+                session.completed = true;
+                sessions.invalidate(uploadId);
+                session.discarded = true;
+                IngestionJob job = new IngestionJob(uploadId, session.fileName);
+                job.completeDuplicate(existing, documentService.currentSnapshot().getVersion());
+                log.info("♻️ Upload {} has the same content as {}, not re-ingested", uploadId, existing);
+                return job;
+            }
+
+            IngestionJob job = ingestionService.submitStaged(session.partFile, session.fileName, session.hash);
+            session.completed = true;
+            sessions.invalidate(uploadId);
+            session.discarded = true;
+            log.info("Chunked upload {} for {} complete ({} bytes)", uploadId, session.fileName, session.receivedBytes);
+            return job;
+        }
+    }
+
+    public void abort(String uploadId) {
+        UploadSession session = sessions.getIfPresent(uploadId);
+        if (session != null) {
+            sessions.invalidate(uploadId);
+            synchronized (session) {
+                session.discard();
+            }
+        }
+    }
+
+    private UploadSession require(String uploadId) {
+        UploadSession session = sessions.getIfPresent(uploadId);
+        if (session == null) {
+            throw new IllegalArgumentException("Unknown upload " + uploadId);
+        }
+        return session;
+    }
+
+    /**
+     * Called with the session lock held: it may have expired or finished since it was looked
+     * up. A session whose hash is set but whose file was never handed over is still open, so
+     * a failed completion can be retried.
+     */
+    private static void requireOpen(UploadSession session) {
+        if (session.completed) {
+            throw new IllegalArgumentException("Upload " + session.uploadId + " is already complete");
+        }
+        if (session.discarded) {
+            throw new IllegalArgumentException("Unknown upload " + session.uploadId);
+        }
+    }
+
+    /**
+     * Part sent at the wrong position; carries the offset the client should resume from
+     */
+    public static class OffsetMismatchException extends RuntimeException {
+        private final long expectedOffset;
+
+        OffsetMismatchException(long expectedOffset) {
+            super("Expected offset " + expectedOffset);
+            this.expectedOffset = expectedOffset;
+        }
+
+        public long getExpectedOffset() {
+            return expectedOffset;
+        }
+    }
+
+    /**
+     * An upload in progress: its partial file, running digest and position
+     */
+    public static class UploadSession {
+        private final String uploadId;
+        private final String fileName;
+        private final long expectedSize; // -1 if unknown
+        private final Path partFile;
+        private final FileChannel channel;
+        private final MessageDigest digest;
+        private volatile long receivedBytes;
+        private String hash; // set once the file is closed for completion
+        private boolean completed; // set once the file is deleted as a duplicate or handed to ingestion
+        private boolean discarded;
+
+        UploadSession(String uploadId, String fileName, long expectedSize, Path partFile) throws IOException {
+            this.uploadId = uploadId;
+            this.fileName = fileName;
+            this.expectedSize = expectedSize;
+            this.partFile = partFile;
+            this.channel = FileChannel.open(partFile, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.WRITE);
+            try {
+                this.digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 not available", e);
+            }
+        }
+
+        void discard() {
+            discarded = true;
+            try {
+                channel.close();
+                Files.deleteIfExists(partFile);
+            } catch (IOException e) {
+                log.warn("Could not remove partial upload {}: {}", partFile, e.getMessage());
+            }
+        }
+
+        public Map<String, Object> toStatus() {
+            Map<String, Object> status = new HashMap<>();
+            status.put("uploadId", uploadId);
+            status.put("fileName", fileName);
+            status.put("offset", receivedBytes);
+            status.put("expectedSize", expectedSize);
+            return status;
+        }
+    }
+}
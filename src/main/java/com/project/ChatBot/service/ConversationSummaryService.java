@@ -0,0 +1,122 @@
+package com.project.ChatBot.service;
+
+import com.project.ChatBot.model.ChatMessage;
+import com.project.ChatBot.model.ConversationSummary;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Keeps a rolling summary per session so prompts stay bounded for long conversations.
+ *
+ * Turns older than the recent window are folded into the summary in batches, on a
+ * background executor after the response has been sent. Each refresh is an extra Gemini
+ * call, so this is off unless chatbot.summary.enabled is set.
+ */
+@Service
+public class ConversationSummaryService {
+
+    private static final Logger log = LoggerFactory.getLogger(ConversationSummaryService.class);
+
+    @Autowired
+    private ChatHistoryService chatHistoryService;
+
+    @Autowired
+    private GeminiService geminiService;
+
+    @Value("${chatbot.summary.enabled:false}")
+    private boolean enabled;
+
+    // Messages always sent verbatim and never folded into the summary
+    @Value("${chatbot.summary.keep-recent:4}")
+    private int keepRecent;
+
+    // Minimum number of unsummarized older messages before a refresh is worth a Gemini call
+    @Value("${chatbot.summary.batch-size:6}")
+    private int batchSize;
+
+    @Value("${chatbot.summary.max-chars:800}")
+    private int maxSummaryChars;
+
+    private final ExecutorService summaryExecutor = Executors.newFixedThreadPool(2, runnable -> {
+        Thread thread = new Thread(runnable, "conversation-summary");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Sessions with a refresh already queued or running
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Schedule a summary refresh if enough turns have scrolled out of the recent window
+     */
+    public void refreshAsync(String sessionId) {
+        if (!enabled || sessionId == null || !needsRefresh(sessionId)) {
+            return;
+        }
+
+        if (!inFlight.add(sessionId)) {
+            return;
+        }
+
+        try {
+            summaryExecutor.execute(() -> {
+                try {
+                    refresh(sessionId);
+                } finally {
+                    inFlight.remove(sessionId);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(sessionId);
+        }
+    }
+
+    private boolean needsRefresh(String sessionId) {
+        int foldable = chatHistoryService.getSessionMessageCount(sessionId) - keepRecent - coveredMessages(sessionId);
+        return foldable >= batchSize;
+    }
+
+    private void refresh(String sessionId) {
+        ConversationSummary current = chatHistoryService.getConversationSummary(sessionId);
+        int covered = coveredMessages(sessionId);
+        int foldUpTo = chatHistoryService.getSessionMessageCount(sessionId) - keepRecent;
+
+        List<ChatMessage> turns = chatHistoryService.getMessageRange(sessionId, covered, foldUpTo);
+        if (turns.isEmpty()) {
+            return;
+        }
+
+        String summary = geminiService.summarizeConversation(current == null ? null : current.getSummary(), turns);
+        if (summary == null) {
+            return;
+        }
+
+        if (summary.length() > maxSummaryChars) {
+            summary = summary.substring(0, maxSummaryChars) + "...";
+        }
+
+        chatHistoryService.updateConversationSummary(sessionId, new ConversationSummary(summary, covered + turns.size()));
+        log.info("Refreshed conversation summary for session {} ({} messages)", sessionId, (covered + turns.size()));
+    }
+
+    private int coveredMessages(String sessionId) {
+        ConversationSummary summary = chatHistoryService.getConversationSummary(sessionId);
+        return summary == null ? 0 : summary.getCoveredMessages();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        summaryExecutor.shutdownNow();
+    }
+}
@@ -0,0 +1,227 @@
+package com.project.ChatBot.service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Offline bulk indexer: builds a corpus snapshot artifact from a directory of PDFs.
+ *
+ * Runs from the application jar without starting Spring:
+ *
+ *   java -jar ChatBot.jar index <input-dir> [--output index/corpus.snapshot] [--threads N]
+ *
+ * Documents are extracted and indexed in parallel. Each finished document is checkpointed
+ * in a work directory next to the output, so an interrupted run resumes where it stopped
+ * and only re-processes files that are new or changed. The artifact gets the next version
+ * after any existing one and is written with the same codec serving nodes load at startup.
+ * It records the input directory, which serving nodes revalidate against when they can
+ * read it and otherwise serve as built.
+ */
+public class CorpusIndexer {
+
+    private static final String DEFAULT_OUTPUT = "index/corpus.snapshot";
+    private static final long PROGRESS_INTERVAL_MS = 5000;
+
+    private final Path inputDir;
+    private final Path output;
+    private final Path workDir;
+    private final int threads;
+
+    private final AtomicLong documentsDone = new AtomicLong();
+    private final AtomicLong documentsResumed = new AtomicLong();
+    private final AtomicLong documentsFailed = new AtomicLong();
+    private final AtomicLong pagesDone = new AtomicLong();
+    private final AtomicLong bytesDone = new AtomicLong();
+
+    public CorpusIndexer(Path inputDir, Path output, int threads) {
+        this.inputDir = inputDir;
+        this.output = output;
+        this.workDir = output.resolveSibling(output.getFileName() + ".work");
+        this.threads = threads;
+    }
+
+    public static void main(String[] args) {
+        System.exit(run(args));
+    }
+
+    /**
+     * Parse arguments and run; returns the process exit code
+     */
+    public static int run(String[] args) {
+        String input = null;
+        String output = DEFAULT_OUTPUT;
+        int threads = Runtime.getRuntime().availableProcessors();
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--output":
+                    output = args[++i];
+                    break;
+                case "--threads":
+                    threads = Math.max(1, Integer.parseInt(args[++i]));
+                    break;
+                default:
+                    input = args[i];
+            }
+        }
+
+        if (input == null) {
+            System.err.println("Usage: index <input-dir> [--output " + DEFAULT_OUTPUT + "] [--threads N]");
+            return 2;
+        }
+
+        try {
+            new CorpusIndexer(Paths.get(input), Paths.get(output), threads).index();
+            return 0;
+        } catch (Exception e) {
+            System.err.println("❌ Indexing failed: " + e.getMessage());
+            e.printStackTrace();
+            return 1;
+        }
+    }
+
+    public CorpusSnapshot index() throws IOException, InterruptedException {
+        if (!Files.isDirectory(inputDir)) {
+            throw new IOException("Input directory not found: " + inputDir);
+        }
+        Files.createDirectories(workDir);
+
+        List<Path> pdfFiles;
+        try (Stream<Path> files = Files.list(inputDir)) {
+            pdfFiles = files
+                .filter(Files::isRegularFile)
+                .filter(path -> path.toString().toLowerCase().endsWith(".pdf"))
+                .sorted()
+                .collect(Collectors.toList());
+        }
+        System.out.println("📄 Indexing " + pdfFiles.size() + " PDF files from " + inputDir + " with " + threads + " threads");
+
+        long start = System.nanoTime();
+        ExecutorService pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "corpus-indexer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ScheduledExecutorService progress = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "corpus-indexer-progress");
+            thread.setDaemon(true);
+            return thread;
+        });
+        progress.scheduleAtFixedRate(() -> report(start, pdfFiles.size(), false),
+                PROGRESS_INTERVAL_MS, PROGRESS_INTERVAL_MS, TimeUnit.MILLISECONDS);
+
+        List<Future<CorpusSnapshot.DocumentEntry>> futures = new ArrayList<>();
+        for (Path pdfFile : pdfFiles) {
+            futures.add(pool.submit(() -> indexDocument(pdfFile)));
+        }
+
+        List<CorpusSnapshot.DocumentEntry> entries = new ArrayList<>();
+        try {
+            for (Future<CorpusSnapshot.DocumentEntry> future : futures) {
+                try {
+                    CorpusSnapshot.DocumentEntry entry = future.get();
+                    if (entry != null) {
+                        entries.add(entry);
+                    }
+                } catch (ExecutionException e) {
+                    documentsFailed.incrementAndGet();
+                    System.err.println("❌ " + e.getCause().getMessage());
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+            progress.shutdownNow();
+        }
+
+        long version = Files.exists(output) ? CorpusSnapshotCodec.readVersion(output) + 1 : 1;
+        CorpusSnapshot snapshot = CorpusSnapshot.restore(version, System.currentTimeMillis(),
+                inputDir.toAbsolutePath().normalize().toString(), entries);
+        CorpusSnapshotCodec.write(snapshot, output);
+
+        report(start, pdfFiles.size(), true);
+        System.out.println("📚 Wrote corpus snapshot v" + version + " to " + output + " (" + entries.size()
+                + " documents, " + snapshot.getChunkCount() + " chunks)");
+
+        // The artifact is complete, so the checkpoints are no longer needed
+        deleteWorkDir();
+        return snapshot;
+    }
+
+    /**
+     * Extract and index one file, or reuse its checkpoint from an interrupted run
+     */
+    private CorpusSnapshot.DocumentEntry indexDocument(Path pdfFile) throws IOException {
+        String fileName = pdfFile.getFileName().toString();
+        long lastModified = Files.getLastModifiedTime(pdfFile).toMillis();
+        long size = Files.size(pdfFile);
+        Path checkpoint = workDir.resolve(checkpointName(fileName));
+
+        if (Files.exists(checkpoint)) {
+            try {
+                CorpusSnapshot.DocumentEntry done = CorpusSnapshotCodec.read(checkpoint).getDocument(fileName);
+                if (done != null && done.getLastModified() == lastModified && done.getSizeBytes() == size) {
+                    documentsResumed.incrementAndGet();
+                    documentsDone.incrementAndGet();
+                    return done.isBlank() ? null : done;
+                }
+            } catch (IOException e) {
+                // Torn or outdated checkpoint: index the file again
+            }
+        }
+
+        String hash = CorpusSnapshot.hashFile(pdfFile);
+        PageIndexer.Result result;
+        try {
+            result = PageIndexer.index(pdfFile, fileName, lastModified, size, hash, null);
+        } catch (IOException e) {
+            throw new IOException("Error extracting " + fileName + ": " + e.getMessage(), e);
+        }
+
+        CorpusSnapshot.DocumentEntry entry = result.getEntry();
+        pagesDone.addAndGet(entry.getPages().size());
+        bytesDone.addAndGet(size);
+        documentsDone.incrementAndGet();
+
+        // Files without text are checkpointed too, so a resumed run does not extract them again
+        CorpusSnapshotCodec.write(CorpusSnapshot.restore(0, System.currentTimeMillis(), List.of(entry)), checkpoint);
+        return entry.isBlank() ? null : entry;
+    }
+
+    private void report(long startNanos, int total, boolean done) {
+        double seconds = Math.max(0.001, (System.nanoTime() - startNanos) / 1_000_000_000.0);
+        System.out.println(String.format("%s %d/%d documents (%d resumed, %d failed), %d pages in %.1fs: %.1f pages/s, %.2f MB/s",
+                done ? "✅ Indexed" : "⏳ Indexing", documentsDone.get(), total, documentsResumed.get(), documentsFailed.get(),
+                pagesDone.get(), seconds, pagesDone.get() / seconds, bytesDone.get() / (1024.0 * 1024.0) / seconds));
+    }
+
+    private void deleteWorkDir() {
+        try (Stream<Path> files = Files.list(workDir)) {
+            for (Path file : files.collect(Collectors.toList())) {
+                Files.deleteIfExists(file);
+            }
+            Files.deleteIfExists(workDir);
+        } catch (IOException e) {
+            System.err.println("⚠️ Could not remove " + workDir + ": " + e.getMessage());
+        }
+    }
+
+    private static String checkpointName(String fileName) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(fileName.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 16) + ".part";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+}
@@ -0,0 +1,524 @@
+package com.project.ChatBot.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+/**
+ * Immutable, versioned view of the document corpus: raw text, sentence chunks and a
+ * per-document term index. A snapshot is built off to the side and published as a whole,
+ * so every query sees exactly one consistent version.
+ */
+public final class CorpusSnapshot {
+
+    private static final CorpusSnapshot EMPTY = new CorpusSnapshot(0, 0, null, new LinkedHashMap<>());
+
+    private final long version;
+    private final long builtAt;
+    private final String sourceDir; // where an offline-built artifact was indexed from, else null
+    private final Map<String, DocumentEntry> documents;
+    private final Map<String, String> contents;
+    private final Map<String, String> namesByHash;
+
+    private CorpusSnapshot(long version, long builtAt, String sourceDir, Map<String, DocumentEntry> documents) {
+        this.version = version;
+        this.builtAt = builtAt;
+        this.sourceDir = sourceDir;
+        this.documents = Collections.unmodifiableMap(documents);
+
+        this.contents = new ContentView();
+
+        Map<String, String> hashes = new HashMap<>();
+        documents.forEach((name, entry) -> {
+            if (entry.getFileHash() != null) {
+                hashes.putIfAbsent(entry.getFileHash(), name);
+            }
+        });
+        this.namesByHash = hashes;
+    }
+
+    /**
+     * Placeholder published before the first build (version 0)
+     */
+    public static CorpusSnapshot empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Snapshot read back from a persisted artifact, keeping its original version
+     */
+    public static CorpusSnapshot restore(long version, long builtAt, Collection<DocumentEntry> entries) {
+        return restore(version, builtAt, null, entries);
+    }
+
+    /**
+     * Snapshot read back from a persisted artifact that was indexed from sourceDir
+     */
+    public static CorpusSnapshot restore(long version, long builtAt, String sourceDir, Collection<DocumentEntry> entries) {
+        Map<String, DocumentEntry> byName = new TreeMap<>();
+        for (DocumentEntry entry : entries) {
+            byName.put(entry.getName(), entry);
+        }
+        return new CorpusSnapshot(version, builtAt, sourceDir, new LinkedHashMap<>(byName));
+    }
+
+    /**
+     * Next version of the corpus containing exactly the given documents, from the same source
+     */
+    public CorpusSnapshot next(Collection<DocumentEntry> entries) {
+        Map<String, DocumentEntry> byName = new TreeMap<>();
+        for (DocumentEntry entry : entries) {
+            byName.put(entry.getName(), entry);
+        }
+        return new CorpusSnapshot(version + 1, System.currentTimeMillis(), sourceDir, new LinkedHashMap<>(byName));
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public long getBuiltAt() {
+        return builtAt;
+    }
+
+    public String getSourceDir() {
+        return sourceDir;
+    }
+
+    public boolean isEmpty() {
+        return documents.isEmpty();
+    }
+
+    public Map<String, DocumentEntry> getDocuments() {
+        return documents;
+    }
+
+    public DocumentEntry getDocument(String name) {
+        return documents.get(name);
+    }
+
+    /**
+     * Name of a document whose source file has the given SHA-256, or null
+     */
+    public String findByHash(String fileHash) {
+        return namesByHash.get(fileHash);
+    }
+
+    /**
+     * Document name to full text, as held by each entry
+     */
+    public Map<String, String> getContents() {
+        return contents;
+    }
+
+    public int getChunkCount() {
+        int count = 0;
+        for (DocumentEntry entry : documents.values()) {
+            count += entry.getChunks().size();
+        }
+        return count;
+    }
+
+    public long estimateBytes() {
+        long bytes = 0;
+        for (DocumentEntry entry : documents.values()) {
+            bytes += entry.estimateBytes();
+        }
+        return bytes;
+    }
+
+    /**
+     * Read-only map view of the documents' full texts
+     */
+    private final class ContentView extends AbstractMap<String, String> {
+        @Override
+        public String get(Object name) {
+            DocumentEntry entry = documents.get(name);
+            return entry == null ? null : entry.getContent();
+        }
+
+        @Override
+        public boolean containsKey(Object name) {
+            return documents.containsKey(name);
+        }
+
+        @Override
+        public int size() {
+            return documents.size();
+        }
+
+        @Override
+        public Set<Map.Entry<String, String>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Map.Entry<String, String>> iterator() {
+                    Iterator<DocumentEntry> entries = documents.values().iterator();
+                    return new Iterator<>() {
+                        @Override
+                        public boolean hasNext() {
+                            return entries.hasNext();
+                        }
+
+                        @Override
+                        public Map.Entry<String, String> next() {
+                            DocumentEntry entry = entries.next();
+                            return new AbstractMap.SimpleImmutableEntry<>(entry.getName(), entry.getContent());
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return documents.size();
+                }
+            };
+        }
+    }
+
+    /**
+     * One document as a list of self-contained pages. The chunk list is a view over the
+     * pages, and chunk indexes count page by page, so a page owns a contiguous range of them.
+     * The full text is joined once when the entry is built, since prompts read it on every
+     * chat; it is counted in the entry's size.
+     */
+    public static final class DocumentEntry {
+        private final String name;
+        private final long lastModified;
+        private final long sizeBytes;
+        private final String fileHash;
+        private final List<Page> pages;
+        private final int[] chunkOffsets; // index of each page's first chunk, plus the total at the end
+        private final List<Chunk> chunks;
+        private final String content;
+
+        public DocumentEntry(String name, long lastModified, long sizeBytes, String fileHash, List<Page> pages) {
+            this.name = name;
+            this.lastModified = lastModified;
+            this.sizeBytes = sizeBytes;
+            this.fileHash = fileHash;
+            this.pages = Collections.unmodifiableList(pages);
+            this.chunkOffsets = new int[pages.size() + 1];
+            for (int p = 0; p < pages.size(); p++) {
+                chunkOffsets[p + 1] = chunkOffsets[p] + pages.get(p).chunks.size();
+            }
+            this.chunks = new ChunkList();
+
+            StringBuilder joined = new StringBuilder();
+            for (Page page : this.pages) {
+                joined.append(page.text);
+            }
+            this.content = joined.toString();
+        }
+
+        private DocumentEntry(DocumentEntry source, long lastModified) {
+            this.name = source.name;
+            this.lastModified = lastModified;
+            this.sizeBytes = source.sizeBytes;
+            this.fileHash = source.fileHash;
+            this.pages = source.pages;
+            this.chunkOffsets = source.chunkOffsets;
+            this.chunks = new ChunkList();
+            this.content = source.content;
+        }
+
+        /**
+         * Build an entry from page texts. Pages carried over from the previous version are
+         * reused as they are, with only their number updated; only new pages are chunked and
+         * tokenized. Index work is therefore proportional to the changed pages.
+         */
+        static DocumentEntry fromPages(String name, long lastModified, long sizeBytes, String fileHash,
+                                       List<PageText> pageTexts) {
+            List<Page> pages = new ArrayList<>(pageTexts.size());
+            for (PageText pageText : pageTexts) {
+                Page reused = pageText.getReusedPage();
+                pages.add(reused != null ? reused.renumbered(pageText.getNumber())
+                        : Page.index(pageText.getNumber(), pageText.getFingerprint(), pageText.getText()));
+            }
+            return new DocumentEntry(name, lastModified, sizeBytes, fileHash, pages);
+        }
+
+        /**
+         * Same content under a new modification time (file touched but not changed)
+         */
+        public DocumentEntry withLastModified(long lastModified) {
+            return new DocumentEntry(this, lastModified);
+        }
+
+        public String getName() { return name; }
+        public long getLastModified() { return lastModified; }
+        public long getSizeBytes() { return sizeBytes; }
+        public String getFileHash() { return fileHash; }
+        public List<Page> getPages() { return pages; }
+        public List<Chunk> getChunks() { return chunks; }
+
+        /**
+         * Full text, all pages in order
+         */
+        public String getContent() {
+            return content;
+        }
+
+        public int getTextLength() {
+            return content.length();
+        }
+
+        /**
+         * Whether no page has any text beyond whitespace
+         */
+        public boolean isBlank() {
+            for (Page page : pages) {
+                if (!page.text.isBlank()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Indexes of the chunks with a term that contains the given text, in ascending order
+         */
+        public SortedSet<Integer> chunksWithTermContaining(String text) {
+            SortedSet<Integer> result = new TreeSet<>();
+            for (int p = 0; p < pages.size(); p++) {
+                for (Map.Entry<String, int[]> posting : pages.get(p).postings.entrySet()) {
+                    if (posting.getKey().contains(text)) {
+                        for (int local : posting.getValue()) {
+                            result.add(chunkOffsets[p] + local);
+                        }
+                    }
+                }
+            }
+            return result;
+        }
+
+        long estimateBytes() {
+            long bytes = 64 + 4L * chunkOffsets.length + MemoryBudget.estimateBytes(content);
+            for (Page page : pages) {
+                bytes += page.estimateBytes();
+            }
+            return bytes;
+        }
+
+        /**
+         * Sentence chunks, split the same way the retrieval scorer always has
+         */
+        static List<Chunk> chunk(String content) {
+            List<Chunk> result = new ArrayList<>();
+            for (String sentence : content.split("\\. ")) {
+                if (sentence.trim().length() < 10) continue; // Too short to be worth returning
+                result.add(new Chunk(sentence));
+            }
+            return result;
+        }
+
+        /**
+         * Page holding a chunk index; pages without chunks share their offset with the next page
+         */
+        private int pageOfChunk(int index) {
+            int page = Arrays.binarySearch(chunkOffsets, 0, pages.size(), index);
+            if (page < 0) {
+                return -page - 2;
+            }
+            while (page + 1 < pages.size() && chunkOffsets[page + 1] == index) {
+                page++;
+            }
+            return page;
+        }
+
+        /**
+         * Read-only view of every page's chunks in document order
+         */
+        private final class ChunkList extends AbstractList<Chunk> implements RandomAccess {
+            @Override
+            public Chunk get(int index) {
+                Objects.checkIndex(index, size());
+                int page = pageOfChunk(index);
+                return pages.get(page).chunks.get(index - chunkOffsets[page]);
+            }
+
+            @Override
+            public int size() {
+                return chunkOffsets[pages.size()];
+            }
+        }
+    }
+
+    /**
+     * One source page: its content fingerprint, its text, the chunks it produced and its
+     * term postings (token -> indexes into the page's own chunks). Nothing in a page refers
+     * to the rest of the document, so an unchanged page carries over to a new version as is.
+     */
+    public static final class Page {
+        private final int number;
+        private final String fingerprint;
+        private final String text;
+        private final List<Chunk> chunks;
+        private final Map<String, int[]> postings;
+
+        public Page(int number, String fingerprint, String text, List<Chunk> chunks, Map<String, int[]> postings) {
+            this.number = number;
+            this.fingerprint = fingerprint;
+            this.text = text;
+            this.chunks = Collections.unmodifiableList(chunks);
+            this.postings = Collections.unmodifiableMap(postings);
+        }
+
+        private Page(Page source, int number) {
+            this.number = number;
+            this.fingerprint = source.fingerprint;
+            this.text = source.text;
+            this.chunks = source.chunks;
+            this.postings = source.postings;
+        }
+
+        /**
+         * Chunk and tokenize freshly extracted page text
+         */
+        static Page index(int number, String fingerprint, String text) {
+            List<Chunk> chunks = DocumentEntry.chunk(text);
+            Map<String, List<Integer>> ids = new HashMap<>();
+            for (int i = 0; i < chunks.size(); i++) {
+                for (String token : tokenize(chunks.get(i).getLowerText())) {
+                    List<Integer> list = ids.computeIfAbsent(token, t -> new ArrayList<>());
+                    if (list.isEmpty() || list.get(list.size() - 1) != i) {
+                        list.add(i);
+                    }
+                }
+            }
+
+            Map<String, int[]> postings = new HashMap<>(ids.size() * 4 / 3 + 1);
+            ids.forEach((token, list) -> {
+                int[] indexes = new int[list.size()];
+                for (int i = 0; i < indexes.length; i++) {
+                    indexes[i] = list.get(i);
+                }
+                postings.put(token, indexes);
+            });
+            return new Page(number, fingerprint, text, chunks, postings);
+        }
+
+        /**
+         * This page at another position in the document
+         */
+        Page renumbered(int number) {
+            return number == this.number ? this : new Page(this, number);
+        }
+
+        public int getNumber() { return number; }
+        public String getFingerprint() { return fingerprint; }
+        public String getText() { return text; }
+        public List<Chunk> getChunks() { return chunks; }
+        public Map<String, int[]> getPostings() { return postings; }
+
+        long estimateBytes() {
+            long bytes = 64 + MemoryBudget.estimateBytes(fingerprint) + MemoryBudget.estimateBytes(text);
+            for (Chunk chunk : chunks) {
+                bytes += 32 + MemoryBudget.estimateBytes(chunk.getText()) + MemoryBudget.estimateBytes(chunk.getLowerText());
+            }
+            for (Map.Entry<String, int[]> posting : postings.entrySet()) {
+                bytes += 48 + MemoryBudget.estimateBytes(posting.getKey()) + 4L * posting.getValue().length;
+            }
+            return bytes;
+        }
+    }
+
+    /**
+     * Input to {@link DocumentEntry#fromPages}: either freshly extracted text, or a page
+     * of the previous version with the same fingerprint
+     */
+    public static final class PageText {
+        private final int number;
+        private final String fingerprint;
+        private final String text;
+        private final Page reusedPage;
+
+        private PageText(int number, String fingerprint, String text, Page reusedPage) {
+            this.number = number;
+            this.fingerprint = fingerprint;
+            this.text = text;
+            this.reusedPage = reusedPage;
+        }
+
+        public static PageText extracted(int number, String fingerprint, String text) {
+            return new PageText(number, fingerprint, text, null);
+        }
+
+        public static PageText reused(int number, Page page) {
+            return new PageText(number, page.getFingerprint(), null, page);
+        }
+
+        public int getNumber() { return number; }
+        public String getFingerprint() { return fingerprint; }
+        public String getText() { return text; }
+        public Page getReusedPage() { return reusedPage; }
+    }
+
+    /**
+     * One retrievable sentence with its lower-cased form precomputed
+     */
+    public static final class Chunk {
+        private final String text;
+        private final String lowerText;
+
+        public Chunk(String text) {
+            this.text = text;
+            this.lowerText = text.toLowerCase();
+        }
+
+        public String getText() { return text; }
+        public String getLowerText() { return lowerText; }
+    }
+
+    /**
+     * Split lower-cased text into runs of letters and digits
+     */
+    static List<String> tokenize(String lowerText) {
+        List<String> tokens = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i < lowerText.length(); i++) {
+            if (Character.isLetterOrDigit(lowerText.charAt(i))) {
+                if (start < 0) start = i;
+            } else if (start >= 0) {
+                tokens.add(lowerText.substring(start, i));
+                start = -1;
+            }
+        }
+        if (start >= 0) {
+            tokens.add(lowerText.substring(start));
+        }
+        return tokens;
+    }
+
+    /**
+     * Whether a keyword can only ever match inside a single token
+     */
+    static boolean isSingleToken(String keyword) {
+        for (int i = 0; i < keyword.length(); i++) {
+            if (!Character.isLetterOrDigit(keyword.charAt(i))) {
+                return false;
+            }
+        }
+        return !keyword.isEmpty();
+    }
+
+    /**
+     * SHA-256 of a source file, used to tell a touched file from a changed one
+     */
+    public static String hashFile(Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] buffer = new byte[64 * 1024];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
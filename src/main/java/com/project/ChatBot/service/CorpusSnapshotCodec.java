@@ -0,0 +1,167 @@
+package com.project.ChatBot.service;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Binary, versioned on-disk form of a {@link CorpusSnapshot}.
+ *
+ * Documents are stored page by page with fingerprints, chunks and term postings, so loading a snapshot is pure
+ * I/O and decoding with no PDF extraction or re-indexing. Files are written to a temporary
+ * name and moved into place, so a reader never sees a partial artifact.
+ */
+public final class CorpusSnapshotCodec {
+
+    private static final int MAGIC = 0x43425331; // "CBS1"
+    public static final int FORMAT_VERSION = 5; // 2: per-page fingerprints, 3: normalized page text, 4: source directory, 5: per-page index, resource fingerprints
+
+    private CorpusSnapshotCodec() {
+    }
+
+    public static void write(CorpusSnapshot snapshot, Path target) throws IOException {
+        Path parent = target.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp), 256 * 1024))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeLong(snapshot.getVersion());
+            out.writeLong(snapshot.getBuiltAt());
+            writeString(out, snapshot.getSourceDir());
+            out.writeInt(snapshot.getDocuments().size());
+
+            for (CorpusSnapshot.DocumentEntry entry : snapshot.getDocuments().values()) {
+                writeString(out, entry.getName());
+                out.writeLong(entry.getLastModified());
+                out.writeLong(entry.getSizeBytes());
+                writeString(out, entry.getFileHash());
+
+                out.writeInt(entry.getPages().size());
+                for (CorpusSnapshot.Page page : entry.getPages()) {
+                    out.writeInt(page.getNumber());
+                    writeString(out, page.getFingerprint());
+                    writeString(out, page.getText());
+
+                    out.writeInt(page.getChunks().size());
+                    for (CorpusSnapshot.Chunk chunk : page.getChunks()) {
+                        writeString(out, chunk.getText());
+                    }
+
+                    out.writeInt(page.getPostings().size());
+                    for (Map.Entry<String, int[]> posting : page.getPostings().entrySet()) {
+                        writeString(out, posting.getKey());
+                        out.writeInt(posting.getValue().length);
+                        for (int index : posting.getValue()) {
+                            out.writeInt(index);
+                        }
+                    }
+                }
+            }
+        }
+
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public static CorpusSnapshot read(Path source) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(source), 256 * 1024))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a corpus snapshot: " + source);
+            }
+            int format = in.readInt();
+            if (format != FORMAT_VERSION) {
+                throw new IOException("Unsupported corpus snapshot format " + format + " in " + source);
+            }
+
+            long version = in.readLong();
+            long builtAt = in.readLong();
+            String sourceDir = readString(in);
+            int documentCount = in.readInt();
+
+            List<CorpusSnapshot.DocumentEntry> entries = new ArrayList<>(documentCount);
+            for (int d = 0; d < documentCount; d++) {
+                String name = readString(in);
+                long lastModified = in.readLong();
+                long sizeBytes = in.readLong();
+                String fileHash = readString(in);
+
+                int pageCount = in.readInt();
+                List<CorpusSnapshot.Page> pages = new ArrayList<>(pageCount);
+                for (int p = 0; p < pageCount; p++) {
+                    int number = in.readInt();
+                    String fingerprint = readString(in);
+                    String text = readString(in);
+
+                    int chunkCount = in.readInt();
+                    List<CorpusSnapshot.Chunk> chunks = new ArrayList<>(chunkCount);
+                    for (int c = 0; c < chunkCount; c++) {
+                        chunks.add(new CorpusSnapshot.Chunk(readString(in)));
+                    }
+
+                    int postingCount = in.readInt();
+                    Map<String, int[]> postings = new HashMap<>(postingCount * 4 / 3 + 1);
+                    for (int t = 0; t < postingCount; t++) {
+                        String token = readString(in);
+                        int[] indexes = new int[in.readInt()];
+                        for (int i = 0; i < indexes.length; i++) {
+                            indexes[i] = in.readInt();
+                        }
+                        postings.put(token, indexes);
+                    }
+
+                    pages.add(new CorpusSnapshot.Page(number, fingerprint, text, chunks, postings));
+                }
+
+                entries.add(new CorpusSnapshot.DocumentEntry(name, lastModified, sizeBytes, fileHash, pages));
+            }
+
+            return CorpusSnapshot.restore(version, builtAt, sourceDir, entries);
+        }
+    }
+
+    /**
+     * Snapshot version of an artifact, reading only its header. The header layout is the
+     * same in every format, so older artifacts still report their version.
+     */
+    public static long readVersion(Path source) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(source), 64))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a corpus snapshot: " + source);
+            }
+            in.readInt(); // format
+            return in.readLong();
+        }
+    }
+
+    /**
+     * Length-prefixed UTF-8; unlike writeUTF this has no 64KB limit
+     */
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
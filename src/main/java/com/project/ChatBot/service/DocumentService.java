@@ -1,147 +1,483 @@
 package com.project.ChatBot.service;
 
+import com.project.ChatBot.monitoring.FlightEvents;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class DocumentService {
 
-    @Autowired
-    private PdfToTextConverter pdfToTextConverter;
+    private static final Logger log = LoggerFactory.getLogger(DocumentService.class);
 
-    // Cache for all document contents
-    private static final Map<String, String> documentCache = new ConcurrentHashMap<>();
-    private static final Map<String, Long> lastReadTimes = new ConcurrentHashMap<>();
-    private static final long CACHE_TTL = 5 * 60 * 1000; // 5 minutes cache
+    @Autowired
+    private MemoryBudget memoryBudget;
+
+    private static final String DOCUMENT_REGION = "document";
+    private static final String SNAPSHOT_KEY = "corpus";
+    private static final String TEXT_KEY_PREFIX = "text:";
+
+    // The whole corpus is one immutable snapshot, swapped atomically when a rebuild finishes
+    private volatile CorpusSnapshot snapshot = CorpusSnapshot.empty();
+    private volatile long validatedAt = 0;
+    private final Object rebuildLock = new Object();
+    private static final long CACHE_TTL = 5 * 60 * 1000; // Revalidate every 5 minutes
+
+    // Stale-while-revalidate: at most one revalidation and one extraction per file in flight
+    private final AtomicReference<CompletableFuture<CorpusSnapshot>> inFlightRefresh = new AtomicReference<>();
+    private final Map<String, CompletableFuture<PageIndexer.Result>> inFlightExtractions = new ConcurrentHashMap<>();
+    private final ExecutorService refreshExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "corpus-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicLong revalidations = new AtomicLong();
+    private final AtomicLong reloadedDocuments = new AtomicLong();
+    private final AtomicLong unchangedDocuments = new AtomicLong();
+    private final AtomicLong pagesExtracted = new AtomicLong();
+    private final AtomicLong pagesReused = new AtomicLong();
 
     private static final String UPLOADED_DOCS_PATH = "uploaded_docs";
 
+    // Text documents outside the snapshot (Info.txt), reread only when their mtime or size changes
+    private final Map<String, TextFile> textFiles = new ConcurrentHashMap<>();
+
+    // Prebuilt index loaded at startup and rewritten whenever a new snapshot is published
+    @Value("${chatbot.corpus.snapshot-path:index/corpus.snapshot}")
+    private String snapshotPath;
+
     /**
      * Dynamically discover and get all available document content
      */
     public Map<String, String> getAllDocumentContents() {
-        try {
-            Map<String, String> allContents = new HashMap<>();
-            Path uploadPath = Paths.get(UPLOADED_DOCS_PATH);
+        return currentSnapshot().getContents();
+    }
 
-            if (!Files.exists(uploadPath)) {
-                System.out.println("📁 Upload directory not found: " + UPLOADED_DOCS_PATH);
-                return allContents;
+    /**
+     * Snapshot every reader works against. Only a request arriving before the first build
+     * waits for it; after that a read is a single volatile load, and an expired snapshot is
+     * still served while one background task revalidates it.
+     */
+    public CorpusSnapshot currentSnapshot() {
+        CorpusSnapshot current = snapshot;
+        if (current.getVersion() == 0) {
+            synchronized (rebuildLock) {
+                current = snapshot;
+                if (current.getVersion() == 0) {
+                    current = rebuildSnapshot();
+                }
             }
+        } else if (System.currentTimeMillis() - validatedAt > CACHE_TTL) {
+            revalidateAsync();
+        }
+        return current;
+    }
 
-            // Get all PDF files in the uploaded_docs directory
-            List<Path> pdfFiles = Files.list(uploadPath)
-                .filter(Files::isRegularFile)
-                .filter(path -> path.toString().toLowerCase().endsWith(".pdf"))
-                .collect(Collectors.toList());
+    /**
+     * The published snapshot as is: never builds, never triggers a revalidation. For probes
+     * and status reporting.
+     */
+    public CorpusSnapshot peekSnapshot() {
+        return snapshot;
+    }
 
-            System.out.println("📄 Found " + pdfFiles.size() + " PDF files to process");
+    /**
+     * Whether the snapshot was validated within the TTL; a stale one is still served while
+     * it is revalidated
+     */
+    public boolean isSnapshotFresh() {
+        return System.currentTimeMillis() - validatedAt <= CACHE_TTL;
+    }
 
-            for (Path pdfFile : pdfFiles) {
-                String fileName = pdfFile.getFileName().toString();
-                String content = getDocumentContent(fileName);
-                if (content != null && !content.trim().isEmpty()) {
-                    allContents.put(fileName, content);
-                    System.out.println("✅ Processed: " + fileName + " (" + content.length() + " characters)");
+    /**
+     * Publish the persisted snapshot, if there is one. Its documents are revalidated later
+     * like any other snapshot, so an out-of-date artifact only costs the files that changed.
+     * An artifact built offline is revalidated against the directory it was indexed from;
+     * if that directory is not readable here, its documents are served as built.
+     */
+    public boolean loadPersistedSnapshot() {
+        Path path = Paths.get(snapshotPath);
+        if (!Files.exists(path)) {
+            return false;
+        }
+
+        try {
+            CorpusSnapshot loaded = CorpusSnapshotCodec.read(path);
+            synchronized (rebuildLock) {
+                snapshot = loaded;
+                validatedAt = 0; // Revalidate on first use
+                memoryBudget.reserve(DOCUMENT_REGION, SNAPSHOT_KEY, loaded.estimateBytes());
+            }
+            log.info("📚 Loaded corpus snapshot v{} from {} ({} documents, {} chunks)",
+                    loaded.getVersion(), path, loaded.getDocuments().size(), loaded.getChunkCount());
+            return true;
+        } catch (Exception e) {
+            log.error("❌ Error loading corpus snapshot from {}: {}", path, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Run the retrieval path once over every document so the first real query is not cold
+     */
+    public void warmUp() {
+        Set<String> keywords = Set.of("policy", "leave", "employee");
+        for (CorpusSnapshot.DocumentEntry doc : snapshot.getDocuments().values()) {
+            extractRelevantSections(doc, keywords);
+        }
+    }
+
+    /**
+     * Start a background revalidation unless one is already running
+     */
+    public CompletableFuture<CorpusSnapshot> revalidateAsync() {
+        CompletableFuture<CorpusSnapshot> running = inFlightRefresh.get();
+        if (running != null) {
+            return running;
+        }
+
+        CompletableFuture<CorpusSnapshot> task = new CompletableFuture<>();
+        if (!inFlightRefresh.compareAndSet(null, task)) {
+            return inFlightRefresh.get();
+        }
+
+        refreshExecutor.execute(() -> {
+            try {
+                synchronized (rebuildLock) {
+                    task.complete(rebuildSnapshot());
                 }
+            } catch (Throwable t) {
+                task.completeExceptionally(t);
+            } finally {
+                inFlightRefresh.set(null);
             }
+        });
+        return task;
+    }
 
-            return allContents;
+    /**
+     * Refresh ahead of expiry so readers rarely see a stale snapshot at all
+     */
+    @Scheduled(fixedDelay = CACHE_TTL, initialDelay = CACHE_TTL)
+    public void refreshAhead() {
+        revalidateAsync();
+    }
 
-        } catch (Exception e) {
-            System.err.println("❌ Error getting all document contents: " + e.getMessage());
-            return new HashMap<>();
+    /**
+     * Revalidate the corpus now and wait for the result
+     */
+    public void refreshSnapshot() {
+        synchronized (rebuildLock) {
+            rebuildSnapshot();
         }
     }
 
     /**
-     * Get content from a specific document (PDF or text file)
+     * Revalidate every file against the current snapshot and publish a new one if anything
+     * changed. A file is re-extracted only when its size and content hash say it changed;
+     * callers hold rebuildLock so there is one writer.
      */
-    public String getDocumentContent(String filename) {
+    private CorpusSnapshot rebuildSnapshot() {
+        CorpusSnapshot previous = snapshot;
+        List<CorpusSnapshot.DocumentEntry> entries = new ArrayList<>();
+        boolean changed = previous.getVersion() == 0;
+
         try {
-            // Check cache first
-            String cacheKey = filename;
-            if (documentCache.containsKey(cacheKey)) {
-                Long lastReadTime = lastReadTimes.get(cacheKey);
-                if (lastReadTime != null && (System.currentTimeMillis() - lastReadTime) < CACHE_TTL) {
-                    return documentCache.get(cacheKey);
-                }
+            if (!Files.exists(Paths.get(UPLOADED_DOCS_PATH))) {
+                log.info("📁 Upload directory not found: {}", UPLOADED_DOCS_PATH);
             }
 
-            String content = null;
+            Path sourceDir = availableSourceDir(previous);
+            Map<String, Path> pdfFiles = listDocuments(sourceDir);
 
-            // Try PDF first
-            if (filename.toLowerCase().endsWith(".pdf")) {
-                content = extractPdfContent(filename);
-            } else {
-                // Try as text file
-                content = readTextFile(filename);
+            for (Map.Entry<String, Path> pdfFile : pdfFiles.entrySet()) {
+                CorpusSnapshot.DocumentEntry current = previous.getDocument(pdfFile.getKey());
+                CorpusSnapshot.DocumentEntry entry = revalidate(pdfFile.getValue(), current);
+                if (entry != null) {
+                    entries.add(entry);
+                }
+                changed |= entry != current;
             }
 
-            // Cache the result
-            if (content != null) {
-                documentCache.put(cacheKey, content);
-                lastReadTimes.put(cacheKey, System.currentTimeMillis());
+            if (previous.getSourceDir() != null && sourceDir == null) {
+                // Indexed from a directory this node cannot read: keep those documents as built
+                for (CorpusSnapshot.DocumentEntry document : previous.getDocuments().values()) {
+                    if (!pdfFiles.containsKey(document.getName())) {
+                        entries.add(document);
+                    }
+                }
             }
 
-            return content;
-
         } catch (Exception e) {
-            System.err.println("❌ Error getting document content for " + filename + ": " + e.getMessage());
+            // Keep serving the last good corpus
+            log.error("❌ Error rebuilding document snapshot: {}", e.getMessage());
+            if (previous.getVersion() > 0) {
+                return previous;
+            }
+        }
+
+        revalidations.incrementAndGet();
+        validatedAt = System.currentTimeMillis();
+        changed |= entries.size() != previous.getDocuments().size();
+        if (!changed) {
+            return previous;
+        }
+
+        return publish(previous.next(entries));
+    }
+
+    /**
+     * PDFs to revalidate by file name: the artifact's source directory, if readable, then the
+     * upload directory, whose files win on a name clash
+     */
+    private Map<String, Path> listDocuments(Path sourceDir) throws IOException {
+        Map<String, Path> pdfFiles = new TreeMap<>();
+        if (sourceDir != null) {
+            listPdfs(sourceDir, pdfFiles);
+        }
+        listPdfs(Paths.get(UPLOADED_DOCS_PATH), pdfFiles);
+        return pdfFiles;
+    }
+
+    private static void listPdfs(Path directory, Map<String, Path> into) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(Files::isRegularFile)
+                .filter(path -> path.toString().toLowerCase().endsWith(".pdf"))
+                .forEach(path -> into.put(path.getFileName().toString(), path));
+        }
+    }
+
+    /**
+     * Directory an offline-built snapshot was indexed from, if it can be read on this node
+     */
+    private static Path availableSourceDir(CorpusSnapshot corpus) {
+        if (corpus.getSourceDir() == null) {
+            return null;
+        }
+        Path directory = Paths.get(corpus.getSourceDir());
+        return Files.isDirectory(directory) ? directory : null;
+    }
+
+    /**
+     * Where a document's PDF lives: the upload directory, else the snapshot's source directory
+     */
+    private Path resolveDocument(String filename) {
+        Path uploaded = Paths.get(UPLOADED_DOCS_PATH, filename);
+        Path sourceDir = availableSourceDir(snapshot);
+        if (Files.exists(uploaded) || sourceDir == null) {
+            return uploaded;
+        }
+        return sourceDir.resolve(filename);
+    }
+
+    /**
+     * Add or replace one document and publish the result as a new snapshot
+     */
+    public CorpusSnapshot publishDocument(CorpusSnapshot.DocumentEntry entry) {
+        synchronized (rebuildLock) {
+            Map<String, CorpusSnapshot.DocumentEntry> documents = new LinkedHashMap<>(snapshot.getDocuments());
+            documents.put(entry.getName(), entry);
+            return publish(snapshot.next(documents.values()));
+        }
+    }
+
+    /**
+     * Swap in a new snapshot and persist it; callers hold rebuildLock
+     */
+    private CorpusSnapshot publish(CorpusSnapshot next) {
+        snapshot = next;
+
+        // The live snapshot is pinned, so it is reserved out of the budget rather than evictable
+        memoryBudget.reserve(DOCUMENT_REGION, SNAPSHOT_KEY, next.estimateBytes());
+
+        log.info("📚 Published corpus snapshot v{} ({} documents, {} chunks)",
+                next.getVersion(), next.getDocuments().size(), next.getChunkCount());
+
+        try {
+            CorpusSnapshotCodec.write(next, Paths.get(snapshotPath));
+        } catch (IOException e) {
+            log.error("❌ Error persisting corpus snapshot: {}", e.getMessage());
+        }
+        return next;
+    }
+
+    /**
+     * Entry for one file: the current one if unchanged (same mtime and size, or same hash
+     * after a touch), otherwise freshly extracted. Null if the file yields no text.
+     */
+    private CorpusSnapshot.DocumentEntry revalidate(Path pdfFile, CorpusSnapshot.DocumentEntry current) throws IOException {
+        String fileName = pdfFile.getFileName().toString();
+        long lastModified = Files.getLastModifiedTime(pdfFile).toMillis();
+        long size = Files.size(pdfFile);
+
+        String hash = null;
+        if (current != null && current.getSizeBytes() == size) {
+            if (current.getLastModified() == lastModified) {
+                unchangedDocuments.incrementAndGet();
+                return current;
+            }
+            hash = CorpusSnapshot.hashFile(pdfFile);
+            if (hash.equals(current.getFileHash())) {
+                unchangedDocuments.incrementAndGet();
+                return current.withLastModified(lastModified);
+            }
+        }
+
+        PageIndexer.Result result = indexOnce(fileName, hash);
+        if (result == null) {
             return null;
         }
+
+        reloadedDocuments.incrementAndGet();
+        log.info("✅ Processed: {} ({} characters, {} pages extracted, {} reused)",
+                fileName, result.getEntry().getTextLength(), result.getPagesExtracted(), result.getPagesReused());
+        return result.getEntry();
     }
 
     /**
-     * Extract content from PDF file
+     * Extract and index a PDF from the upload directory, re-extracting only the pages whose
+     * fingerprints differ from the version in the current snapshot. Concurrent callers for
+     * the same file share one run. Null if the file is missing or yields no text.
      */
-    private String extractPdfContent(String filename) {
+    public PageIndexer.Result indexOnce(String filename, String knownHash) {
+        CompletableFuture<PageIndexer.Result> mine = new CompletableFuture<>();
+        CompletableFuture<PageIndexer.Result> running = inFlightExtractions.putIfAbsent(filename, mine);
+        if (running != null) {
+            return running.join();
+        }
+
         try {
-            Path pdfPath = Paths.get(UPLOADED_DOCS_PATH, filename);
+            PageIndexer.Result result = indexPdf(filename, knownHash);
+            mine.complete(result);
+            return result;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlightExtractions.remove(filename, mine);
+        }
+    }
+
+    private PageIndexer.Result indexPdf(String filename, String knownHash) {
+        try {
+            Path pdfPath = resolveDocument(filename);
             if (!Files.exists(pdfPath)) {
-                System.out.println("📄 PDF file not found: " + filename);
+                log.info("📄 PDF file not found: {}", filename);
                 return null;
             }
 
-            // Use PdfToTextConverter to extract text directly as String
-            String content = pdfToTextConverter.extractTextFromPdf(pdfPath.toString());
+            long lastModified = Files.getLastModifiedTime(pdfPath).toMillis();
+            long size = Files.size(pdfPath);
+            String hash = knownHash != null ? knownHash : CorpusSnapshot.hashFile(pdfPath);
+
+            PageIndexer.Result result = PageIndexer.index(pdfPath, filename, lastModified, size, hash,
+                    snapshot.getDocument(filename));
+            pagesExtracted.addAndGet(result.getPagesExtracted());
+            pagesReused.addAndGet(result.getPagesReused());
 
-            if (content != null && !content.trim().isEmpty()) {
-                System.out.println("📄 Successfully extracted content from PDF: " + filename);
-                return content;
-            } else {
-                System.out.println("⚠️ No content extracted from PDF: " + filename);
+            if (result.getEntry().isBlank()) {
+                log.warn("⚠️ No content extracted from PDF: {}", filename);
                 return null;
             }
+            return result;
 
         } catch (Exception e) {
-            System.err.println("❌ Error extracting PDF content from " + filename + ": " + e.getMessage());
+            log.error("❌ Error extracting PDF content from {}: {}", filename, e.getMessage());
             return null;
         }
     }
 
     /**
-     * Read content from text file
+     * Get content from a specific document (PDF or text file)
+     */
+    public String getDocumentContent(String filename) {
+        try {
+            // Corpus documents come from the current snapshot
+            CorpusSnapshot.DocumentEntry entry = currentSnapshot().getDocument(filename);
+            if (entry != null) {
+                return entry.getContent();
+            }
+
+            // A PDF missing from the snapshot is picked up by a background revalidation, which
+            // publishes it; extracting it here would block the chat thread and keep nothing
+            if (filename.toLowerCase().endsWith(".pdf")) {
+                queueRevalidation(resolveDocument(filename));
+                return null;
+            }
+
+            // Try as text file
+            return readTextFile(filename);
+
+        } catch (Exception e) {
+            log.error("❌ Error getting document content for {}: {}", filename, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Revalidate in the background if a PDF exists that the last revalidation has not seen;
+     * one that was seen and yielded no text does not trigger another
+     */
+    private void queueRevalidation(Path pdfPath) throws IOException {
+        if (!Files.exists(pdfPath)) {
+            log.info("📄 PDF file not found: {}", pdfPath.getFileName());
+            return;
+        }
+        if (Files.getLastModifiedTime(pdfPath).toMillis() >= validatedAt) {
+            log.info("📄 {} is not indexed yet, queued a revalidation", pdfPath.getFileName());
+            revalidateAsync();
+        }
+    }
+
+    /**
+     * Content of a text file, served from memory while its modification time and size are
+     * unchanged; a query costs one stat instead of a read
      */
     private String readTextFile(String filename) {
         try {
             Path textPath = Paths.get(UPLOADED_DOCS_PATH, filename);
             if (!Files.exists(textPath)) {
-                System.out.println("📄 Text file not found: " + filename);
+                if (textFiles.remove(filename) != null) {
+                    memoryBudget.reserve(DOCUMENT_REGION, TEXT_KEY_PREFIX + filename, 0);
+                }
+                log.info("📄 Text file not found: {}", filename);
                 return null;
             }
 
-            return Files.readString(textPath);
+            long lastModified = Files.getLastModifiedTime(textPath).toMillis();
+            long size = Files.size(textPath);
+            TextFile cached = textFiles.get(filename);
+            if (cached != null && cached.lastModified == lastModified && cached.size == size) {
+                return cached.content;
+            }
+
+            String content = Files.readString(textPath);
+            textFiles.put(filename, new TextFile(lastModified, size, content));
+            memoryBudget.reserve(DOCUMENT_REGION, TEXT_KEY_PREFIX + filename, MemoryBudget.estimateBytes(content));
+            return content;
 
         } catch (Exception e) {
-            System.err.println("❌ Error reading text file " + filename + ": " + e.getMessage());
+            log.error("❌ Error reading text file {}: {}", filename, e.getMessage());
             return null;
         }
     }
@@ -150,67 +486,73 @@ public class DocumentService {
      * Search for relevant content across all documents based on query
      */
     public String searchRelevantContent(String userQuery, String userIntent) {
+        FlightEvents.Retrieval event = new FlightEvents.Retrieval();
+        event.begin();
+        event.method = "keyword";
+        event.queryChars = userQuery == null ? 0 : userQuery.length();
+        event.outcome = "error";
         try {
-            Map<String, String> allDocuments = getAllDocumentContents();
+            // One snapshot for the whole query, even if a rebuild is published meanwhile
+            CorpusSnapshot corpus = currentSnapshot();
+            event.documents = corpus.getDocuments().size();
+            event.snapshotVersion = corpus.getVersion();
             StringBuilder relevantContent = new StringBuilder();
 
-            System.out.println("🔍 Searching through " + allDocuments.size() + " documents for query: " + userQuery);
+            log.debug("🔍 Searching through {} documents (v{}) for query: {}",
+                    corpus.getDocuments().size(), corpus.getVersion(), userQuery);
 
-            for (Map.Entry<String, String> doc : allDocuments.entrySet()) {
-                String filename = doc.getKey();
-                String content = doc.getValue();
+            // Combine all keywords
+            Set<String> allKeywords = new LinkedHashSet<>();
+            allKeywords.addAll(extractKeywords(userQuery));
+            allKeywords.addAll(extractKeywords(userIntent));
 
+            for (CorpusSnapshot.DocumentEntry doc : corpus.getDocuments().values()) {
                 // Search for relevant sections in this document
-                String relevantSections = extractRelevantSections(content, userQuery, userIntent);
+                String relevantSections = extractRelevantSections(doc, allKeywords);
 
                 if (relevantSections != null && !relevantSections.trim().isEmpty()) {
-                    relevantContent.append("=== ").append(filename).append(" ===\n");
+                    relevantContent.append("=== ").append(doc.getName()).append(" ===\n");
                     relevantContent.append(relevantSections).append("\n\n");
                 }
             }
 
             String result = relevantContent.toString().trim();
-            System.out.println("📋 Found " + (result.isEmpty() ? "no" : "relevant") + " content for query");
+            log.debug("📋 Found {} content for query", (result.isEmpty() ? "no" : "relevant"));
+            event.resultChars = result.length();
+            event.outcome = result.isEmpty() ? "not_found" : "found";
 
             return result.isEmpty() ? null : result;
 
         } catch (Exception e) {
-            System.err.println("❌ Error searching relevant content: " + e.getMessage());
+            log.error("❌ Error searching relevant content: {}", e.getMessage());
             return null;
+        } finally {
+            event.commit();
         }
     }
 
     /**
-     * Extract relevant sections from document content based on query
+     * Extract relevant sections from a document's precomputed chunks. Each chunk scores the
+     * length of every keyword it contains; candidates come from the term postings.
      */
-    private String extractRelevantSections(String content, String userQuery, String userIntent) {
+    private String extractRelevantSections(CorpusSnapshot.DocumentEntry doc, Set<String> allKeywords) {
         try {
-            List<String> queryKeywords = extractKeywords(userQuery);
-            List<String> intentKeywords = extractKeywords(userIntent);
-
-            // Combine all keywords
-            Set<String> allKeywords = new HashSet<>();
-            allKeywords.addAll(queryKeywords);
-            allKeywords.addAll(intentKeywords);
-
-            String[] sentences = content.split("\\. ");
-            List<ScoredSentence> scoredSentences = new ArrayList<>();
+            List<CorpusSnapshot.Chunk> chunks = doc.getChunks();
+            int[] scores = new int[chunks.size()];
 
             // Score each sentence based on keyword matches
-            for (String sentence : sentences) {
-                if (sentence.trim().length() < 10) continue; // Skip very short sentences
-
-                int score = 0;
-                String lowerSentence = sentence.toLowerCase();
-
-                for (String keyword : allKeywords) {
-                    if (lowerSentence.contains(keyword.toLowerCase())) {
-                        score += keyword.length(); // Longer keywords get higher scores
+            for (String keyword : allKeywords) {
+                for (int index : candidateChunks(doc, keyword)) {
+                    if (chunks.get(index).getLowerText().contains(keyword)) {
+                        scores[index] += keyword.length(); // Longer keywords get higher scores
                     }
                 }
+            }
 
-                if (score > 0) {
-                    scoredSentences.add(new ScoredSentence(sentence, score));
+            List<ScoredSentence> scoredSentences = new ArrayList<>();
+            for (int i = 0; i < scores.length; i++) {
+                if (scores[i] > 0) {
+                    scoredSentences.add(new ScoredSentence(chunks.get(i).getText(), scores[i]));
                 }
             }
 
@@ -233,16 +575,34 @@ public class DocumentService {
             return result.toString().trim();
 
         } catch (Exception e) {
-            System.err.println("❌ Error extracting relevant sections: " + e.getMessage());
+            log.error("❌ Error extracting relevant sections: {}", e.getMessage());
             // Return first part of content as fallback
+            String content = doc.getContent();
             return content.length() > 1000 ? content.substring(0, 1000) + "..." : content;
         }
     }
 
+    /**
+     * Chunks that may contain the keyword as a substring. A keyword made only of letters and
+     * digits can only occur inside one token, so the postings of matching terms cover it;
+     * anything else falls back to every chunk.
+     */
+    private Collection<Integer> candidateChunks(CorpusSnapshot.DocumentEntry doc, String keyword) {
+        if (!CorpusSnapshot.isSingleToken(keyword)) {
+            List<Integer> all = new ArrayList<>(doc.getChunks().size());
+            for (int i = 0; i < doc.getChunks().size(); i++) {
+                all.add(i);
+            }
+            return all;
+        }
+
+        return doc.chunksWithTermContaining(keyword);
+    }
+
     /**
      * Extract keywords from text
      */
-    private List<String> extractKeywords(String text) {
+    List<String> extractKeywords(String text) {
         if (text == null || text.trim().isEmpty()) {
             return new ArrayList<>();
         }
@@ -257,7 +617,7 @@ public class DocumentService {
     /**
      * Check if a word is a common stop word
      */
-    private boolean isStopWord(String word) {
+    boolean isStopWord(String word) {
         Set<String> stopWords = Set.of(
             "the", "is", "at", "which", "on", "and", "a", "to", "as", "are",
             "was", "for", "an", "be", "by", "this", "that", "it", "with",
@@ -267,25 +627,42 @@ public class DocumentService {
     }
 
     /**
-     * Clear document cache
+     * Clear document cache: rebuild the corpus and publish it as a new snapshot
      */
     public void clearCache() {
-        documentCache.clear();
-        lastReadTimes.clear();
-        System.out.println("🗑️ Document cache cleared");
+        refreshSnapshot();
+        log.info("🗑️ Document cache cleared");
     }
 
     /**
      * Get cache statistics
      */
     public Map<String, Object> getCacheStats() {
+        CorpusSnapshot current = snapshot;
         Map<String, Object> stats = new HashMap<>();
-        stats.put("cached_documents", documentCache.size());
+        stats.put("cached_documents", current.getDocuments().size());
+        stats.put("snapshot_version", current.getVersion());
+        stats.put("snapshot_built_at", current.getBuiltAt());
+        stats.put("snapshot_chunks", current.getChunkCount());
+        stats.put("snapshot_bytes", current.estimateBytes());
+        stats.put("validated_at", validatedAt);
+        stats.put("revalidations", revalidations.get());
+        stats.put("revalidation_in_flight", inFlightRefresh.get() != null);
+        stats.put("reloaded_documents", reloadedDocuments.get());
+        stats.put("unchanged_documents", unchangedDocuments.get());
+        stats.put("pages_extracted", pagesExtracted.get());
+        stats.put("pages_reused", pagesReused.get());
         stats.put("cache_ttl_minutes", CACHE_TTL / (60 * 1000));
         stats.put("documents_directory", UPLOADED_DOCS_PATH);
+        stats.put("snapshot_source_directory", current.getSourceDir());
         return stats;
     }
 
+    @PreDestroy
+    public void shutdown() {
+        refreshExecutor.shutdownNow();
+    }
+
     /**
      * Inner class for scoring sentences
      */
@@ -311,4 +688,19 @@ public class DocumentService {
             this.priority = priority;
         }
     }
+
+    /**
+     * A text file's content as of the given modification time and size
+     */
+    private static final class TextFile {
+        final long lastModified;
+        final long size;
+        final String content;
+
+        TextFile(long lastModified, long size, String content) {
+            this.lastModified = lastModified;
+            this.size = size;
+            this.content = content;
+        }
+    }
 }
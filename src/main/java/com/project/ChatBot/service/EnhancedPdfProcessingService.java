@@ -1,58 +1,109 @@
 package com.project.ChatBot.service;
 
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.project.ChatBot.monitoring.ChatMetrics;
+import jakarta.annotation.PostConstruct;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.text.PDFTextStripper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Duration;
 import java.util.*;
+import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 @Service
 public class EnhancedPdfProcessingService {
 
+    private static final Logger log = LoggerFactory.getLogger(EnhancedPdfProcessingService.class);
+
+    // ALL CAPS, numbered ("1. Scope") or "Title:" header lines
+    private static final Pattern HEADER_PATTERN = Pattern.compile("[A-Z][A-Z\\s]+|\\d+\\.\\s.*|[A-Z][a-z]+.*:");
+    private static final Pattern EMAIL_PATTERN = Pattern.compile("\\b[A-Za-z0-9._%+-]+@[A-Za-z0-9.-]+\\.[A-Z|a-z]{2,}\\b");
+    private static final Pattern PHONE_PATTERN = Pattern.compile("\\b\\d{3}-\\d{3}-\\d{4}\\b|\\b\\(\\d{3}\\)\\s*\\d{3}-\\d{4}\\b");
+
     @Autowired
     private IntelligentChatbotService intelligentChatbotService;
 
-    // Cache for processed PDF content
-    private final Map<String, ProcessedDocument> documentCache = new HashMap<>();
-    private final Map<String, Long> lastProcessedTimes = new HashMap<>();
+    @Autowired
+    private DocumentService documentService;
+
+    @Autowired
+    private ChatMetrics chatMetrics;
+
     private static final long CACHE_TTL = 10 * 60 * 1000; // 10 minutes
 
+    @Value("${chatbot.pdf.analysis-cache-mb:64}")
+    private long cacheMb;
+
+    // Processed documents weighted by estimated retained bytes; concurrent misses for the
+    // same file share one load
+    private LoadingCache<String, ProcessedDocument> documentCache;
+
+    @PostConstruct
+    public void init() {
+        documentCache = Caffeine.newBuilder()
+                .maximumWeight(cacheMb * 1024 * 1024)
+                .weigher((String filename, ProcessedDocument doc) -> (int) Math.min(Integer.MAX_VALUE, doc.estimateBytes()))
+                .expireAfterWrite(Duration.ofMillis(CACHE_TTL))
+                .recordStats()
+                .build(this::processPdfFile);
+        chatMetrics.monitorCache(documentCache, "pdf_analysis");
+    }
+
     /**
      * Process and extract intelligent content from PDF files
      */
     public String extractIntelligentContent(String filename, String userQuery) {
         try {
-            // Check cache first
-            if (documentCache.containsKey(filename)) {
-                Long lastProcessed = lastProcessedTimes.get(filename);
-                if (lastProcessed != null && (System.currentTimeMillis() - lastProcessed) < CACHE_TTL) {
-                    ProcessedDocument cachedDoc = documentCache.get(filename);
-                    return filterContentByQuery(cachedDoc, userQuery);
-                }
-            }
-
-            // Process PDF file
-            ProcessedDocument processedDoc = processPdfFile(filename);
+            ProcessedDocument processedDoc = documentCache.get(filename);
             if (processedDoc != null) {
-                documentCache.put(filename, processedDoc);
-                lastProcessedTimes.put(filename, System.currentTimeMillis());
                 return filterContentByQuery(processedDoc, userQuery);
             }
 
             return null;
 
         } catch (Exception e) {
-            System.err.println("Error extracting intelligent content from " + filename + ": " + e.getMessage());
+            log.error("Error extracting intelligent content from {}: {}", filename, e.getMessage());
             return null;
         }
     }
 
+    /**
+     * Analyze a freshly ingested document from its already extracted text, so the first
+     * query against it does no PDF parsing or structure extraction
+     */
+    public void analyze(String filename, String fullText) {
+        documentCache.put(filename, structurePdfContent(fullText, filename));
+    }
+
+    public Map<String, Object> getCacheStats() {
+        CacheStats cacheStats = documentCache.stats();
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("max_bytes", cacheMb * 1024 * 1024);
+        stats.put("used_bytes", documentCache.policy().eviction().map(e -> e.weightedSize().orElse(0L)).orElse(0L));
+        stats.put("entries", documentCache.estimatedSize());
+        stats.put("hits", cacheStats.hitCount());
+        stats.put("misses", cacheStats.missCount());
+        stats.put("hit_rate", cacheStats.hitRate());
+        stats.put("loads", cacheStats.loadCount());
+        stats.put("load_failures", cacheStats.loadFailureCount());
+        stats.put("average_load_ms", cacheStats.averageLoadPenalty() / 1_000_000.0);
+        stats.put("evictions", cacheStats.evictionCount());
+        stats.put("evicted_bytes", cacheStats.evictionWeight());
+        return stats;
+    }
+
     /**
      * Process a PDF file and extract structured content
      */
@@ -61,13 +112,19 @@ public class EnhancedPdfProcessingService {
             // Try multiple locations for PDF files
             Path pdfPath = findPdfFile(filename);
             if (pdfPath == null || !Files.exists(pdfPath)) {
-                System.err.println("PDF file not found: " + filename);
+                log.warn("PDF file not found: {}", filename);
                 return null;
             }
 
+            // The corpus already holds the normalized text of uploaded documents
+            CorpusSnapshot.DocumentEntry entry = documentService.currentSnapshot().getDocument(pdfPath.getFileName().toString());
+            if (entry != null) {
+                return structurePdfContent(entry.getContent(), filename);
+            }
+
             try (PDDocument document = PDDocument.load(pdfPath.toFile())) {
                 PDFTextStripper stripper = new PDFTextStripper();
-                String fullText = stripper.getText(document);
+                String fullText = TextNormalizer.extract(stripper, document);
 
                 // Process and structure the content
                 return structurePdfContent(fullText, filename);
@@ -75,7 +132,7 @@ public class EnhancedPdfProcessingService {
             }
 
         } catch (IOException e) {
-            System.err.println("Error processing PDF " + filename + ": " + e.getMessage());
+            log.error("Error processing PDF {}: {}", filename, e.getMessage());
             return null;
         }
     }
@@ -105,187 +162,175 @@ public class EnhancedPdfProcessingService {
     }
 
     /**
-     * Structure PDF content into searchable sections
+     * Structure PDF content into searchable sections, key-value pairs, lists and contacts
+     * in a single pass over its lines, then build the term vectors used for scoring
      */
-    private ProcessedDocument structurePdfContent(String fullText, String filename) {
+    ProcessedDocument structurePdfContent(String fullText, String filename) {
         ProcessedDocument doc = new ProcessedDocument(filename, fullText);
 
-        // Extract sections based on common patterns
-        extractSections(doc, fullText);
-
-        // Extract key-value pairs
-        extractKeyValuePairs(doc, fullText);
-
-        // Extract lists and bullet points
-        extractLists(doc, fullText);
-
-        // Extract contact information
-        extractContactInfo(doc, fullText);
-
-        return doc;
-    }
-
-    /**
-     * Extract document sections based on headers and patterns
-     */
-    private void extractSections(ProcessedDocument doc, String text) {
-        String[] lines = text.split("\n");
         String currentSection = "";
         StringBuilder currentContent = new StringBuilder();
+        List<String> currentList = new ArrayList<>();
+        String listTitle = "";
+        String previousLine = null;
 
-        for (String line : lines) {
-            line = line.trim();
+        int start = 0;
+        while (start <= fullText.length()) {
+            int end = fullText.indexOf('\n', start);
+            if (end < 0) {
+                end = fullText.length();
+            }
+            String line = fullText.substring(start, end).trim();
+            start = end + 1;
 
-            // Detect section headers
+            // Sections start at header lines
             if (isHeaderLine(line)) {
-                // Save previous section
                 if (!currentSection.isEmpty() && currentContent.length() > 0) {
                     doc.addSection(currentSection, currentContent.toString());
                 }
-
-                // Start new section
                 currentSection = line;
                 currentContent = new StringBuilder();
             } else if (!line.isEmpty()) {
                 currentContent.append(line).append("\n");
             }
-        }
-
-        // Save last section
-        if (!currentSection.isEmpty() && currentContent.length() > 0) {
-            doc.addSection(currentSection, currentContent.toString());
-        }
-    }
 
-    /**
-     * Check if a line is a header/section title
-     */
-    private boolean isHeaderLine(String line) {
-        return line.matches("^[A-Z][A-Z\\s]+$") || // ALL CAPS
-               line.matches("^\\d+\\.\\s.*") || // Numbered sections
-               line.matches("^[A-Z][a-z]+.*:$") || // Title with colon
-               line.contains("Policy") || line.contains("Procedure") ||
-               line.contains("Process") || line.contains("Guidelines");
-    }
+            // Key-value pairs like "Key: Value" or "Key - Value"
+            extractKeyValue(doc, line);
 
-    /**
-     * Extract key-value pairs from text
-     */
-    private void extractKeyValuePairs(ProcessedDocument doc, String text) {
-        String[] lines = text.split("\n");
-
-        for (String line : lines) {
-            line = line.trim();
-
-            // Look for patterns like "Key: Value" or "Key - Value"
-            if (line.contains(":") || line.contains(" - ")) {
-                String[] parts = line.split("[:|-]", 2);
-                if (parts.length == 2) {
-                    String key = parts[0].trim();
-                    String value = parts[1].trim();
-
-                    if (!key.isEmpty() && !value.isEmpty() && key.length() < 100) {
-                        doc.addKeyValue(key, value);
-                    }
-                }
-            }
-        }
-    }
-
-    /**
-     * Extract lists and bullet points
-     */
-    private void extractLists(ProcessedDocument doc, String text) {
-        String[] lines = text.split("\n");
-        List<String> currentList = new ArrayList<>();
-        String listTitle = "";
-
-        for (int i = 0; i < lines.length; i++) {
-            String line = lines[i].trim();
-
-            // Check if this line starts a list
-            if (line.matches("^[•\\-\\*].*") || line.matches("^\\d+\\..*")) {
-                if (currentList.isEmpty() && i > 0) {
-                    listTitle = lines[i-1].trim(); // Previous line might be the title
+            // Lists and bullet points; the line before a list is its title
+            if (isListItem(line)) {
+                if (currentList.isEmpty() && previousLine != null) {
+                    listTitle = previousLine;
                 }
                 currentList.add(line);
             } else if (!currentList.isEmpty() && line.isEmpty()) {
-                // End of list
                 if (!listTitle.isEmpty()) {
                     doc.addList(listTitle, new ArrayList<>(currentList));
                 }
                 currentList.clear();
                 listTitle = "";
             }
+
+            extractContactInfo(doc, line);
+            previousLine = line;
         }
 
-        // Save last list
+        // Save the last section and list
+        if (!currentSection.isEmpty() && currentContent.length() > 0) {
+            doc.addSection(currentSection, currentContent.toString());
+        }
         if (!currentList.isEmpty() && !listTitle.isEmpty()) {
             doc.addList(listTitle, currentList);
         }
+
+        doc.buildTermVectors();
+        return doc;
     }
 
     /**
-     * Extract contact information
+     * Check if a line is a header/section title: ALL CAPS, numbered, "Title:" or a policy keyword
      */
-    private void extractContactInfo(ProcessedDocument doc, String text) {
-        // Email pattern
-        Pattern emailPattern = Pattern.compile("\\b[A-Za-z0-9._%+-]+@[A-Za-z0-9.-]+\\.[A-Z|a-z]{2,}\\b");
-        java.util.regex.Matcher emailMatcher = emailPattern.matcher(text);
+    private static boolean isHeaderLine(String line) {
+        if (line.isEmpty()) {
+            return false;
+        }
+        return line.contains("Policy") || line.contains("Procedure") ||
+               line.contains("Process") || line.contains("Guidelines") ||
+               HEADER_PATTERN.matcher(line).matches();
+    }
 
-        while (emailMatcher.find()) {
-            doc.addContact("email", emailMatcher.group());
+    /**
+     * Bullet ("•", "-", "*") or numbered ("1.") list item
+     */
+    private static boolean isListItem(String line) {
+        if (line.isEmpty()) {
+            return false;
+        }
+        char first = line.charAt(0);
+        if (first == '•' || first == '-' || first == '*') {
+            return true;
         }
+        int i = 0;
+        while (i < line.length() && line.charAt(i) >= '0' && line.charAt(i) <= '9') {
+            i++;
+        }
+        return i > 0 && i < line.length() && line.charAt(i) == '.';
+    }
 
-        // Phone pattern
-        Pattern phonePattern = Pattern.compile("\\b\\d{3}-\\d{3}-\\d{4}\\b|\\b\\(\\d{3}\\)\\s*\\d{3}-\\d{4}\\b");
-        java.util.regex.Matcher phoneMatcher = phonePattern.matcher(text);
+    private static void extractKeyValue(ProcessedDocument doc, String line) {
+        if (line.indexOf(':') < 0 && !line.contains(" - ")) {
+            return;
+        }
+        // Split at the first ':', '|' or '-'
+        int separator = -1;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == ':' || c == '|' || c == '-') {
+                separator = i;
+                break;
+            }
+        }
+        String key = line.substring(0, separator).trim();
+        String value = line.substring(separator + 1).trim();
+        if (!key.isEmpty() && !value.isEmpty() && key.length() < 100) {
+            doc.addKeyValue(key, value);
+        }
+    }
 
-        while (phoneMatcher.find()) {
-            doc.addContact("phone", phoneMatcher.group());
+    private static void extractContactInfo(ProcessedDocument doc, String line) {
+        if (line.indexOf('@') >= 0) {
+            Matcher emailMatcher = EMAIL_PATTERN.matcher(line);
+            while (emailMatcher.find()) {
+                doc.addContact("email", emailMatcher.group());
+            }
+        }
+        if (line.indexOf('-') >= 0) {
+            Matcher phoneMatcher = PHONE_PATTERN.matcher(line);
+            while (phoneMatcher.find()) {
+                doc.addContact("phone", phoneMatcher.group());
+            }
         }
     }
 
     /**
-     * Filter content based on user query using AI
+     * Filter content based on the user query using the precomputed term vectors
      */
-    private String filterContentByQuery(ProcessedDocument doc, String userQuery) {
+    String filterContentByQuery(ProcessedDocument doc, String userQuery) {
         StringBuilder relevantContent = new StringBuilder();
 
         // Add document header
         relevantContent.append("=== ").append(doc.getFilename()).append(" ===\n\n");
 
-        // Use AI to find most relevant sections
-        String[] queryWords = userQuery.toLowerCase().split("\\s+");
-        Map<String, Double> sectionScores = new HashMap<>();
+        List<String> queryWords = CorpusSnapshot.tokenize(userQuery.toLowerCase());
 
-        // Score each section
-        for (Map.Entry<String, String> section : doc.getSections().entrySet()) {
-            double score = calculateRelevanceScore(section.getKey() + " " + section.getValue(), queryWords);
-            sectionScores.put(section.getKey(), score);
+        // Include top scoring sections; ties go to the section that mentions the query more often
+        List<Map.Entry<String, TermVector>> sections = new ArrayList<>();
+        Map<String, Double> sectionScores = new HashMap<>();
+        for (Map.Entry<String, TermVector> section : doc.getSectionVectors().entrySet()) {
+            double score = section.getValue().score(queryWords);
+            if (score > 0.1) {
+                sectionScores.put(section.getKey(), score);
+                sections.add(section);
+            }
+        }
+        sections.sort(Comparator.<Map.Entry<String, TermVector>>comparingDouble(entry -> sectionScores.get(entry.getKey()))
+                .thenComparingInt(entry -> entry.getValue().frequency(queryWords))
+                .reversed());
+        for (Map.Entry<String, TermVector> section : sections.subList(0, Math.min(5, sections.size()))) {
+            relevantContent.append("## ").append(section.getKey()).append("\n");
+            relevantContent.append(doc.getSections().get(section.getKey())).append("\n\n");
         }
-
-        // Include top scoring sections
-        sectionScores.entrySet().stream()
-            .filter(entry -> entry.getValue() > 0.1)
-            .sorted(Map.Entry.<String, Double>comparingByValue().reversed())
-            .limit(5)
-            .forEach(entry -> {
-                relevantContent.append("## ").append(entry.getKey()).append("\n");
-                relevantContent.append(doc.getSections().get(entry.getKey())).append("\n\n");
-            });
 
         // Add relevant key-value pairs
         for (Map.Entry<String, String> kv : doc.getKeyValues().entrySet()) {
-            if (calculateRelevanceScore(kv.getKey() + " " + kv.getValue(), queryWords) > 0.2) {
+            if (doc.getKeyValueVectors().get(kv.getKey()).score(queryWords) > 0.2) {
                 relevantContent.append("**").append(kv.getKey()).append(":** ").append(kv.getValue()).append("\n");
             }
         }
 
         // Add relevant lists
         for (Map.Entry<String, List<String>> list : doc.getLists().entrySet()) {
-            String listContent = String.join(" ", list.getValue());
-            if (calculateRelevanceScore(list.getKey() + " " + listContent, queryWords) > 0.2) {
+            if (doc.getListVectors().get(list.getKey()).score(queryWords) > 0.2) {
                 relevantContent.append("\n**").append(list.getKey()).append(":**\n");
                 for (String item : list.getValue()) {
                     relevantContent.append(item).append("\n");
@@ -297,28 +342,6 @@ public class EnhancedPdfProcessingService {
         return relevantContent.toString();
     }
 
-    /**
-     * Calculate relevance score for content
-     */
-    private double calculateRelevanceScore(String content, String[] queryWords) {
-        String lowerContent = content.toLowerCase();
-        double score = 0.0;
-
-        for (String word : queryWords) {
-            if (word.length() > 2) { // Skip very short words
-                if (lowerContent.contains(word)) {
-                    score += 1.0 / queryWords.length;
-                    // Bonus for exact word match
-                    if (lowerContent.matches(".*\\b" + word + "\\b.*")) {
-                        score += 0.5 / queryWords.length;
-                    }
-                }
-            }
-        }
-
-        return Math.min(score, 1.0);
-    }
-
     /**
      * Get all available PDF documents
      */
@@ -333,7 +356,7 @@ public class EnhancedPdfProcessingService {
                     .forEach(path -> pdfFiles.add(path.getFileName().toString()));
             }
         } catch (Exception e) {
-            System.err.println("Error listing PDF documents: " + e.getMessage());
+            log.error("Error listing PDF documents: {}", e.getMessage());
         }
 
         return pdfFiles;
@@ -348,6 +371,11 @@ public class EnhancedPdfProcessingService {
         private Map<String, List<String>> lists = new HashMap<>();
         private Map<String, String> contacts = new HashMap<>();
 
+        // Term vectors built once after extraction, keyed like the maps above
+        private Map<String, TermVector> sectionVectors = Collections.emptyMap();
+        private Map<String, TermVector> keyValueVectors = Collections.emptyMap();
+        private Map<String, TermVector> listVectors = Collections.emptyMap();
+
         public ProcessedDocument(String filename, String fullText) {
             this.filename = filename;
             this.fullText = fullText;
@@ -369,6 +397,43 @@ public class EnhancedPdfProcessingService {
             contacts.put(type, contact);
         }
 
+        /**
+         * Rough retained size: the text, every derived map and the term vectors
+         */
+        long estimateBytes() {
+            long bytes = 64 + MemoryBudget.estimateBytes(filename) + MemoryBudget.estimateBytes(fullText);
+            for (Map.Entry<String, String> entry : sections.entrySet()) {
+                bytes += 32 + MemoryBudget.estimateBytes(entry.getKey()) + MemoryBudget.estimateBytes(entry.getValue());
+            }
+            for (Map.Entry<String, String> entry : keyValues.entrySet()) {
+                bytes += 32 + MemoryBudget.estimateBytes(entry.getKey()) + MemoryBudget.estimateBytes(entry.getValue());
+            }
+            for (Map.Entry<String, List<String>> entry : lists.entrySet()) {
+                bytes += 48 + MemoryBudget.estimateBytes(entry.getKey());
+                for (String item : entry.getValue()) {
+                    bytes += 8 + MemoryBudget.estimateBytes(item);
+                }
+            }
+            for (Map.Entry<String, String> entry : contacts.entrySet()) {
+                bytes += 32 + MemoryBudget.estimateBytes(entry.getKey()) + MemoryBudget.estimateBytes(entry.getValue());
+            }
+            for (Map<String, TermVector> vectors : List.of(sectionVectors, keyValueVectors, listVectors)) {
+                for (TermVector vector : vectors.values()) {
+                    bytes += 32 + vector.estimateBytes();
+                }
+            }
+            return bytes;
+        }
+
+        void buildTermVectors() {
+            sectionVectors = new HashMap<>();
+            sections.forEach((title, content) -> sectionVectors.put(title, TermVector.of(title + " " + content)));
+            keyValueVectors = new HashMap<>();
+            keyValues.forEach((key, value) -> keyValueVectors.put(key, TermVector.of(key + " " + value)));
+            listVectors = new HashMap<>();
+            lists.forEach((title, items) -> listVectors.put(title, TermVector.of(title + " " + String.join(" ", items))));
+        }
+
         // Getters
         public String getFilename() { return filename; }
         public String getFullText() { return fullText; }
@@ -376,5 +441,75 @@ public class EnhancedPdfProcessingService {
         public Map<String, String> getKeyValues() { return keyValues; }
         public Map<String, List<String>> getLists() { return lists; }
         public Map<String, String> getContacts() { return contacts; }
+        public Map<String, TermVector> getSectionVectors() { return sectionVectors; }
+        public Map<String, TermVector> getKeyValueVectors() { return keyValueVectors; }
+        public Map<String, TermVector> getListVectors() { return listVectors; }
+    }
+
+    /**
+     * Lower-cased term frequencies of a piece of text
+     */
+    public static final class TermVector {
+        private final Map<String, Integer> frequencies;
+
+        private TermVector(Map<String, Integer> frequencies) {
+            this.frequencies = frequencies;
+        }
+
+        static TermVector of(String text) {
+            Map<String, Integer> frequencies = new HashMap<>();
+            for (String token : CorpusSnapshot.tokenize(text.toLowerCase())) {
+                frequencies.merge(token, 1, Integer::sum);
+            }
+            return new TermVector(frequencies);
+        }
+
+        /**
+         * Each query word of 3+ characters adds 1/n if it occurs inside some term and
+         * another 0.5/n if it is a whole term; capped at 1.0
+         */
+        double score(List<String> queryWords) {
+            double score = 0.0;
+            for (String word : queryWords) {
+                if (word.length() <= 2) {
+                    continue; // Skip very short words
+                }
+                if (frequencies.containsKey(word)) {
+                    score += 1.5 / queryWords.size();
+                } else if (containsPart(word)) {
+                    score += 1.0 / queryWords.size();
+                }
+            }
+            return Math.min(score, 1.0);
+        }
+
+        int frequency(List<String> queryWords) {
+            int total = 0;
+            for (String word : queryWords) {
+                total += frequencies.getOrDefault(word, 0);
+            }
+            return total;
+        }
+
+        private boolean containsPart(String word) {
+            for (String term : frequencies.keySet()) {
+                if (term.length() > word.length() && term.contains(word)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        public int size() {
+            return frequencies.size();
+        }
+
+        long estimateBytes() {
+            long bytes = 48;
+            for (String term : frequencies.keySet()) {
+                bytes += 48 + MemoryBudget.estimateBytes(term); // map node and boxed count
+            }
+            return bytes;
+        }
     }
 }
@@ -0,0 +1,114 @@
+package com.project.ChatBot.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Circuit breaker in front of the Gemini API.
+ *
+ * After gemini.circuit.failure-threshold consecutive failed calls the circuit opens and
+ * calls fail fast for gemini.circuit.open-ms; then a single probe call is let through and
+ * its outcome closes or reopens the circuit. A probe that ends without a verdict (e.g. a
+ * 400) reopens it too, so the circuit can never stay half-open. The state and the time of the last successful
+ * call are plain fields, so health probes can report upstream health without calling it.
+ */
+@Component
+public class GeminiCircuitBreaker {
+
+    private static final Logger log = LoggerFactory.getLogger(GeminiCircuitBreaker.class);
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    @Value("${gemini.circuit.failure-threshold:5}")
+    private int failureThreshold;
+
+    @Value("${gemini.circuit.open-ms:30000}")
+    private long openMs;
+
+    private final AtomicReference<State> state = new AtomicReference<>(State.CLOSED);
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private volatile long openedAt = 0;
+    private volatile long lastSuccessAt = 0;
+    private volatile long lastFailureAt = 0;
+    private volatile String lastFailure;
+    private volatile Thread probe; // caller that got the half-open slot
+
+    /**
+     * Whether a call may go out now; in half-open state only the first caller gets through
+     */
+    public boolean allowRequest() {
+        State current = state.get();
+        if (current == State.CLOSED) {
+            return true;
+        }
+        if (current == State.OPEN && System.currentTimeMillis() - openedAt >= openMs
+                && state.compareAndSet(State.OPEN, State.HALF_OPEN)) {
+            probe = Thread.currentThread();
+            return true;
+        }
+        return false;
+    }
+
+    public void recordSuccess() {
+        lastSuccessAt = System.currentTimeMillis();
+        consecutiveFailures.set(0);
+        if (state.getAndSet(State.CLOSED) != State.CLOSED) {
+            log.info("✅ Gemini circuit closed");
+        }
+    }
+
+    /**
+     * A failure of the upstream itself (rate limiting, 5xx, I/O); caller errors do not count
+     */
+    public void recordFailure(String reason) {
+        lastFailureAt = System.currentTimeMillis();
+        lastFailure = reason;
+        int failures = consecutiveFailures.incrementAndGet();
+        State current = state.get();
+        if (current == State.HALF_OPEN || (current == State.CLOSED && failures >= failureThreshold)) {
+            if (state.compareAndSet(current, State.OPEN)) {
+                openedAt = System.currentTimeMillis();
+                log.warn("⚠️ Gemini circuit open after {} consecutive failure(s): {}", failures, reason);
+            }
+        }
+    }
+
+    /**
+     * A call that neither succeeded nor counted as a failure. If it was this thread's
+     * half-open probe, the circuit reopens and the next probe goes out after open-ms.
+     */
+    public void recordInconclusive() {
+        if (probe == Thread.currentThread() && state.compareAndSet(State.HALF_OPEN, State.OPEN)) {
+            probe = null;
+            openedAt = System.currentTimeMillis();
+            log.warn("⚠️ Gemini circuit reopened: probe ended without a verdict");
+        }
+    }
+
+    public State getState() {
+        return state.get();
+    }
+
+    public long getLastSuccessAt() {
+        return lastSuccessAt;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("state", state.get().name());
+        stats.put("consecutive_failures", consecutiveFailures.get());
+        stats.put("failure_threshold", failureThreshold);
+        stats.put("opened_at", openedAt);
+        stats.put("last_success_at", lastSuccessAt);
+        stats.put("last_failure_at", lastFailureAt);
+        stats.put("last_failure", lastFailure);
+        return stats;
+    }
+}
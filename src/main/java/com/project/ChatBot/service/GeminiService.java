@@ -2,10 +2,19 @@ package com.project.ChatBot.service;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project.ChatBot.model.ChatMessage;
+import com.project.ChatBot.monitoring.ChatMetrics;
+import com.project.ChatBot.monitoring.FlightEvents;
+import com.project.ChatBot.monitoring.RequestTimings;
+import com.project.ChatBot.monitoring.Tracing;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestTemplate;
 import org.json.JSONObject;
 import org.json.JSONArray;
@@ -15,9 +24,15 @@ import java.util.stream.Collectors;
 @Service
 public class GeminiService {
 
+    private static final Logger log = LoggerFactory.getLogger(GeminiService.class);
+
     @Value("${gemini.api.key}")
     private String geminiApiKey;
 
+    // generateContent endpoint; point it at a local fake (java -jar ChatBot.jar fake-gemini) for load tests
+    @Value("${gemini.api.url:https://generativelanguage.googleapis.com/v1beta/models/gemini-1.5-flash-latest:generateContent}")
+    private String geminiApiUrl;
+
     @Value("${gemini.model:gemini-1.5-flash-latest}")
     private String model;
 
@@ -30,9 +45,20 @@ public class GeminiService {
     @Autowired
     private DocumentService documentService;
 
+    @Autowired
+    private ChatMetrics chatMetrics;
+
+    @Autowired
+    private Tracing tracing;
+
+    @Autowired
+    private RequestTimings requestTimings;
+
+    @Autowired
+    private GeminiCircuitBreaker circuitBreaker;
+
     private final RestTemplate restTemplate = new RestTemplate();
     private final ObjectMapper objectMapper = new ObjectMapper();
-    private static final String GEMINI_API_URL = "https://generativelanguage.googleapis.com/v1beta/models/gemini-1.5-flash-latest:generateContent";
 
     /**
      * Main method - Intelligent Company Assistant with Gemini API
@@ -40,38 +66,81 @@ public class GeminiService {
      */
     public String getIntelligentResponse(String userQuestion, String conversationContext) {
         try {
-            System.out.println("🤖 Intelligent Company Assistant processing: " + userQuestion);
+            log.debug("🤖 Intelligent Company Assistant processing: {}", userQuestion);
 
             // Step 1: Quick greeting/small talk detection - respond instantly
-            String greetingResponse = handleGreetingOrSmallTalk(userQuestion);
+            long stageStart = System.nanoTime();
+            String greetingResponse;
+            try (Tracing.Span span = tracing.startSpan("GeminiService.handleGreetingOrSmallTalk")) {
+                greetingResponse = handleGreetingOrSmallTalk(userQuestion);
+                span.setAttribute("greeting.matched", greetingResponse != null);
+                requestTimings.flag("greeting", greetingResponse != null);
+            }
+            chatMetrics.recordStage("greeting", stageStart);
             if (greetingResponse != null) {
-                System.out.println("👋 Quick greeting response provided");
+                log.debug("👋 Quick greeting response provided");
                 return greetingResponse;
             }
 
             // Step 2: Use Gemini to deeply understand user's intent and what they truly need
-            String userIntent = analyzeUserIntentAndNeeds(userQuestion);
-            System.out.println("🧠 Gemini Intent Understanding: " + userIntent);
+            stageStart = System.nanoTime();
+            String userIntent;
+            try (Tracing.Span span = tracing.startSpan("GeminiService.analyzeUserIntentAndNeeds")) {
+                userIntent = analyzeUserIntentAndNeeds(userQuestion);
+                span.setAttribute("intent.chars", userIntent == null ? 0 : userIntent.length());
+            }
+            chatMetrics.recordStage("intent", stageStart);
+            log.debug("🧠 Gemini Intent Understanding: {}", userIntent);
 
             // Step 3: Search PDF content for relevant information
-            String relevantPdfContent = searchPdfContentWithGemini(userQuestion, userIntent);
+            stageStart = System.nanoTime();
+            String relevantPdfContent;
+            FlightEvents.Retrieval retrievalEvent = new FlightEvents.Retrieval();
+            retrievalEvent.begin();
+            try (Tracing.Span span = tracing.startSpan("GeminiService.searchPdfContentWithGemini")) {
+                relevantPdfContent = searchPdfContentWithGemini(userQuestion, userIntent);
+                if (retrievalEvent.shouldCommit()) {
+                    CorpusSnapshot corpus = documentService.peekSnapshot();
+                    retrievalEvent.method = "gemini";
+                    retrievalEvent.queryChars = userQuestion.length();
+                    retrievalEvent.documents = corpus.getDocuments().size();
+                    retrievalEvent.snapshotVersion = corpus.getVersion();
+                    retrievalEvent.resultChars = relevantPdfContent == null ? 0 : relevantPdfContent.length();
+                    retrievalEvent.outcome = relevantPdfContent != null ? "found" : "not_found";
+                    retrievalEvent.commit();
+                }
+                span.setAttribute("retrieval.found", relevantPdfContent != null);
+                requestTimings.flag("document_content_found", relevantPdfContent != null);
+            }
+            chatMetrics.recordStage("retrieval", stageStart);
 
             if (relevantPdfContent != null && !relevantPdfContent.trim().isEmpty() &&
                 !relevantPdfContent.contains("NO_RELEVANT_INFO_FOUND")) {
 
                 // Step 4a: Relevant information exists - combine with Gemini understanding
-                System.out.println("📄 Found relevant PDF content - generating optimized response");
-                return generateOptimizedResponseWithPdfContent(userQuestion, relevantPdfContent, conversationContext, userIntent);
+                log.debug("📄 Found relevant PDF content - generating optimized response");
+                stageStart = System.nanoTime();
+                String response;
+                try (Tracing.Span span = tracing.startSpan("GeminiService.generateOptimizedResponseWithPdfContent")) {
+                    response = generateOptimizedResponseWithPdfContent(userQuestion, relevantPdfContent, conversationContext, userIntent);
+                }
+                chatMetrics.recordStage("generation", stageStart);
+                return response;
 
             } else {
                 // Step 4b: No relevant information in PDFs - handle with Gemini API alone
-                System.out.println("🧠 No relevant PDF content - using Gemini general knowledge");
-                return generateGeminiStandaloneResponse(userQuestion, conversationContext);
+                log.debug("🧠 No relevant PDF content - using Gemini general knowledge");
+                stageStart = System.nanoTime();
+                String response;
+                try (Tracing.Span span = tracing.startSpan("GeminiService.generateGeminiStandaloneResponse")) {
+                    response = generateGeminiStandaloneResponse(userQuestion, conversationContext);
+                }
+                chatMetrics.recordStage("generation", stageStart);
+                return response;
             }
 
         } catch (Exception e) {
-            System.err.println("❌ Error in intelligent assistant processing: " + e.getMessage());
-            e.printStackTrace();
+            log.error("❌ Error in intelligent assistant processing: {}", e.getMessage(), e);
             return generateGeminiErrorResponse(userQuestion);
         }
     }
@@ -79,7 +148,7 @@ public class GeminiService {
     /**
      * Handle greetings and small talk instantly without PDF searches
      */
-    private String handleGreetingOrSmallTalk(String userQuestion) {
+    String handleGreetingOrSmallTalk(String userQuestion) {
         String lowerQuestion = userQuestion.toLowerCase().trim();
         
         // Greeting patterns
@@ -144,10 +213,10 @@ public class GeminiService {
             generationConfig.put("maxOutputTokens", 200);
             requestBody.put("generationConfig", generationConfig);
 
-            return callGeminiAPI(requestBody);
+            return callGeminiAPI("intent", requestBody);
 
         } catch (Exception e) {
-            System.err.println("⚠️ Error in intent analysis: " + e.getMessage());
+            log.warn("⚠️ Error in intent analysis: {}", e.getMessage());
             return "General inquiry about: " + userQuestion;
         }
     }
@@ -159,13 +228,18 @@ public class GeminiService {
         try {
             // Get all available PDF content (Info.txt and any PDFs)
             String allPdfContent = getAllAvailableContent();
+            tracing.currentSpanAttribute("corpus.chars", allPdfContent == null ? 0 : allPdfContent.length());
+            tracing.currentSpanAttribute("corpus.snapshot_version", documentService.currentSnapshot().getVersion());
+            tracing.currentSpanAttribute("corpus.cache_fresh", documentService.isSnapshotFresh());
+            requestTimings.flag("corpus_cache_fresh", documentService.isSnapshotFresh());
+            requestTimings.flag("snapshot_version", documentService.peekSnapshot().getVersion());
 
             if (allPdfContent == null || allPdfContent.trim().isEmpty()) {
-                System.out.println("⚠️ No PDF content available for search");
+                log.warn("⚠️ No PDF content available for search");
                 return null;
             }
 
-            System.out.println("🔍 Using Gemini to search PDF content intelligently");
+            log.debug("🔍 Using Gemini to search PDF content intelligently");
 
             JSONObject requestBody = new JSONObject();
 
@@ -201,18 +275,18 @@ public class GeminiService {
             generationConfig.put("maxOutputTokens", 1000);
             requestBody.put("generationConfig", generationConfig);
 
-            String result = callGeminiAPI(requestBody);
+            String result = callGeminiAPI("retrieval", requestBody);
 
             if (result != null && !result.contains("NO_RELEVANT_INFO_FOUND")) {
-                System.out.println("✅ Found relevant content in documents");
+                log.debug("✅ Found relevant content in documents");
                 return result;
             } else {
-                System.out.println("❌ No relevant content found in documents");
+                log.debug("❌ No relevant content found in documents");
                 return null;
             }
 
         } catch (Exception e) {
-            System.err.println("⚠️ Error searching PDF content: " + e.getMessage());
+            log.warn("⚠️ Error searching PDF content: {}", e.getMessage());
             return null;
         }
     }
@@ -266,10 +340,10 @@ public class GeminiService {
             generationConfig.put("maxOutputTokens", 512); // Reduced for conciseness
             requestBody.put("generationConfig", generationConfig);
 
-            return callGeminiAPI(requestBody);
+            return callGeminiAPI("generation", requestBody);
 
         } catch (Exception e) {
-            System.err.println("❌ Error generating optimized response: " + e.getMessage());
+            log.error("❌ Error generating optimized response: {}", e.getMessage());
             return generateGeminiErrorResponse(userQuestion);
         }
     }
@@ -312,10 +386,10 @@ public class GeminiService {
             generationConfig.put("maxOutputTokens", 256); // Very short for no-info responses
             requestBody.put("generationConfig", generationConfig);
 
-            return callGeminiAPI(requestBody);
+            return callGeminiAPI("standalone", requestBody);
 
         } catch (Exception e) {
-            System.err.println("❌ Error generating standalone response: " + e.getMessage());
+            log.error("❌ Error generating standalone response: {}", e.getMessage());
             return generateGeminiErrorResponse(userQuestion);
         }
     }
@@ -346,7 +420,7 @@ public class GeminiService {
             return allContent.toString();
 
         } catch (Exception e) {
-            System.err.println("⚠️ Error getting all available content: " + e.getMessage());
+            log.warn("⚠️ Error getting all available content: {}", e.getMessage());
             return null;
         }
     }
@@ -354,18 +428,64 @@ public class GeminiService {
     /**
      * Core method to call Gemini API
      */
-    private String callGeminiAPI(JSONObject requestBody) {
+    private String callGeminiAPI(String operation, JSONObject requestBody) {
         try {
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
+            String text = callGeminiAPIForText(operation, requestBody);
+            return text != null ? text : "I apologize, but I couldn't generate a proper response.";
+        } catch (GeminiCallException e) {
+            return e.getMessage();
+        }
+    }
 
-            String url = GEMINI_API_URL + "?key=" + geminiApiKey;
-            HttpEntity<String> entity = new HttpEntity<>(requestBody.toString(), headers);
+    /**
+     * Call Gemini and return the first candidate's text, or null if there is none.
+     * Failures are reported as GeminiCallException carrying the user-facing message.
+     * While the circuit breaker is open, calls fail without going out.
+     */
+    private String callGeminiAPIForText(String operation, JSONObject requestBody) throws GeminiCallException {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+
+        String url = geminiApiUrl + "?key=" + geminiApiKey;
+        HttpEntity<String> entity = new HttpEntity<>(requestBody.toString(), headers);
+
+        FlightEvents.GeminiCall callEvent = new FlightEvents.GeminiCall();
+        callEvent.operation = operation;
+        callEvent.requestChars = entity.getBody().length();
+        if (!circuitBreaker.allowRequest()) {
+            chatMetrics.recordGeminiRejected(operation, "circuit_open");
+            callEvent.status = "circuit_open";
+            callEvent.commit();
+            throw new GeminiCallException("I'm experiencing technical difficulties. Please try again later.");
+        }
 
+        long start = System.nanoTime();
+        String status = null;
+        boolean settled = false; // whether the breaker has seen this call's outcome
+        callEvent.begin();
+        Tracing.Span span = tracing.startClientSpan("GeminiService.callGeminiAPI")
+                .setAttribute("gemini.operation", operation)
+                .setAttribute("gemini.prompt_chars", entity.getBody().length());
+        try {
             ResponseEntity<String> response = restTemplate.postForEntity(url, entity, String.class);
+            status = String.valueOf(response.getStatusCode().value());
+            chatMetrics.recordGeminiCall(operation, status, start);
+            callEvent.responseChars = response.getBody() == null ? 0 : response.getBody().length();
+            span.setAttribute("http.status_code", response.getStatusCode().value());
 
             if (response.getStatusCode() == HttpStatus.OK) {
+                circuitBreaker.recordSuccess();
+                settled = true;
                 JsonNode jsonResponse = objectMapper.readTree(response.getBody());
+                JsonNode usage = jsonResponse.path("usageMetadata");
+                if (!usage.isMissingNode()) {
+                    chatMetrics.recordGeminiTokens(operation, usage.path("promptTokenCount").asInt(),
+                            usage.path("candidatesTokenCount").asInt());
+                    span.setAttribute("gemini.prompt_tokens", usage.path("promptTokenCount").asInt());
+                    span.setAttribute("gemini.candidate_tokens", usage.path("candidatesTokenCount").asInt());
+                    callEvent.promptTokens = usage.path("promptTokenCount").asInt();
+                    callEvent.candidateTokens = usage.path("candidatesTokenCount").asInt();
+                }
                 JsonNode candidates = jsonResponse.path("candidates");
                 if (candidates.isArray() && candidates.size() > 0) {
                     JsonNode firstCandidate = candidates.get(0);
@@ -375,15 +495,125 @@ public class GeminiService {
                         return parts.get(0).path("text").asText();
                     }
                 }
-                return "I apologize, but I couldn't generate a proper response.";
+                return null;
             } else {
-                System.err.println("❌ Gemini API error: " + response.getStatusCode());
-                return "I apologize, but I'm having trouble accessing the AI service right now.";
+                log.error("❌ Gemini API error: {}", response.getStatusCode());
+                span.setError("HTTP " + response.getStatusCode().value());
+                circuitBreaker.recordFailure("HTTP " + response.getStatusCode().value());
+                settled = true;
+                throw new GeminiCallException("I apologize, but I'm having trouble accessing the AI service right now.");
             }
 
+        } catch (HttpStatusCodeException e) {
+            int code = e.getStatusCode().value();
+            status = String.valueOf(code);
+            chatMetrics.recordGeminiCall(operation, status, start);
+            span.setAttribute("http.status_code", code).setError("HTTP " + code);
+            // Rate limiting and server errors count towards the breaker; other 4xx are our own fault
+            if (code == 429 || code >= 500) {
+                circuitBreaker.recordFailure("HTTP " + code);
+                settled = true;
+            }
+            log.error("❌ Error calling Gemini API: {}", e.getMessage());
+            throw new GeminiCallException("I'm experiencing technical difficulties. Please try again later.");
+        } catch (ResourceAccessException e) {
+            status = "io";
+            chatMetrics.recordGeminiCall(operation, status, start);
+            span.setError(e.getMessage());
+            circuitBreaker.recordFailure("I/O: " + e.getMessage());
+            settled = true;
+            log.error("❌ Error calling Gemini API: {}", e.getMessage());
+            throw new GeminiCallException("I'm experiencing technical difficulties. Please try again later.");
+        } catch (GeminiCallException e) {
+            throw e;
         } catch (Exception e) {
-            System.err.println("❌ Error calling Gemini API: " + e.getMessage());
-            return "I'm experiencing technical difficulties. Please try again later.";
+            log.error("❌ Error calling Gemini API: {}", e.getMessage());
+            span.setError(e.getMessage());
+            throw new GeminiCallException("I'm experiencing technical difficulties. Please try again later.");
+        } finally {
+            if (!settled) {
+                circuitBreaker.recordInconclusive();
+            }
+            span.close();
+            callEvent.status = status != null ? status : "error";
+            callEvent.commit();
+        }
+    }
+
+    /**
+     * Smallest possible round trip to Gemini, for the rate-limited deep health check.
+     * Returns null on success, otherwise the reason it failed.
+     */
+    public String ping() {
+        JSONObject requestBody = new JSONObject();
+        JSONArray contents = new JSONArray();
+        JSONObject content = new JSONObject();
+        JSONArray parts = new JSONArray();
+        JSONObject part = new JSONObject();
+        part.put("text", "ping");
+        parts.put(part);
+        content.put("parts", parts);
+        contents.put(content);
+        requestBody.put("contents", contents);
+
+        JSONObject generationConfig = new JSONObject();
+        generationConfig.put("maxOutputTokens", 1);
+        requestBody.put("generationConfig", generationConfig);
+
+        try {
+            callGeminiAPIForText("health", requestBody);
+            return null;
+        } catch (GeminiCallException e) {
+            return circuitBreaker.getState() == GeminiCircuitBreaker.State.CLOSED
+                    ? "call failed" : "circuit " + circuitBreaker.getState().name().toLowerCase();
+        }
+    }
+
+    /**
+     * Fold older conversation turns into a short running summary.
+     * Returns null if Gemini could not produce one, so callers keep the previous summary.
+     */
+    public String summarizeConversation(String previousSummary, List<ChatMessage> turns) {
+        try {
+            StringBuilder transcript = new StringBuilder();
+            for (ChatMessage turn : turns) {
+                transcript.append("user".equals(turn.getSender()) ? "User: " : "Bot: ")
+                          .append(turn.getMessage()).append("\n");
+            }
+
+            JSONObject requestBody = new JSONObject();
+
+            JSONArray contents = new JSONArray();
+            JSONObject content = new JSONObject();
+            JSONArray parts = new JSONArray();
+
+            JSONObject part = new JSONObject();
+            part.put("text", String.format(
+                "You maintain a running summary of a conversation between an employee and the Health Catalyst HR assistant.\n\n" +
+                "Current Summary: %s\n\n" +
+                "New Turns:\n%s\n" +
+                "Update the summary so it also covers the new turns. Keep names, numbers, dates, policies and " +
+                "open questions the employee mentioned. Write at most 4 short sentences, no preamble.",
+                previousSummary == null || previousSummary.isEmpty() ? "(none)" : previousSummary,
+                transcript
+            ));
+
+            parts.put(part);
+            content.put("parts", parts);
+            contents.put(content);
+            requestBody.put("contents", contents);
+
+            JSONObject generationConfig = new JSONObject();
+            generationConfig.put("temperature", 0.2);
+            generationConfig.put("maxOutputTokens", 200);
+            requestBody.put("generationConfig", generationConfig);
+
+            String summary = callGeminiAPIForText("summary", requestBody);
+            return summary == null || summary.trim().isEmpty() ? null : summary.trim();
+
+        } catch (GeminiCallException e) {
+            log.warn("⚠️ Conversation summary not refreshed: {}", e.getMessage());
+            return null;
         }
     }
 
@@ -403,7 +633,7 @@ public class GeminiService {
                 return new UserIntent(category, confidence, topics);
             }
         } catch (Exception e) {
-            System.err.println("⚠️ Error parsing intent response: " + e.getMessage());
+            log.warn("⚠️ Error parsing intent response: {}", e.getMessage());
         }
         return new UserIntent("GENERAL", 0.5, Arrays.asList("general"));
     }
@@ -474,4 +704,13 @@ public class GeminiService {
         public double getConfidence() { return confidence; }
         public List<String> getKeyTopics() { return keyTopics; }
     }
+
+    /**
+     * Failure of a Gemini call, carrying the message shown to the user
+     */
+    private static class GeminiCallException extends Exception {
+        GeminiCallException(String message) {
+            super(message);
+        }
+    }
 }
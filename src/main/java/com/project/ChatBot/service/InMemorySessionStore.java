@@ -0,0 +1,86 @@
+package com.project.ChatBot.service;
+
+import com.project.ChatBot.model.ChatMessage;
+import com.project.ChatBot.model.ConversationSummary;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Default session store: everything lives in this JVM
+ */
+@Component
+@ConditionalOnProperty(name = "chatbot.session.store", havingValue = "memory", matchIfMissing = true)
+public class InMemorySessionStore implements SessionStore {
+
+    private final Map<String, List<ChatMessage>> chatSessions = new ConcurrentHashMap<>();
+    private final Map<String, ConversationSummary> sessionSummaries = new ConcurrentHashMap<>();
+
+    @Override
+    public void append(String sessionId, ChatMessage message) {
+        chatSessions.computeIfAbsent(sessionId, k -> Collections.synchronizedList(new ArrayList<>())).add(message);
+    }
+
+    @Override
+    public List<ChatMessage> getRange(String sessionId, int from, int to) {
+        List<ChatMessage> history = chatSessions.get(sessionId);
+        if (history == null) {
+            return new ArrayList<>();
+        }
+
+        synchronized (history) {
+            int end = Math.min(to, history.size());
+            int start = Math.max(0, Math.min(from, end));
+            return new ArrayList<>(history.subList(start, end));
+        }
+    }
+
+    @Override
+    public int size(String sessionId) {
+        List<ChatMessage> history = chatSessions.get(sessionId);
+        return history == null ? 0 : history.size();
+    }
+
+    @Override
+    public boolean exists(String sessionId) {
+        return chatSessions.containsKey(sessionId);
+    }
+
+    @Override
+    public ConversationSummary getSummary(String sessionId) {
+        return sessionSummaries.get(sessionId);
+    }
+
+    @Override
+    public void putSummary(String sessionId, ConversationSummary summary) {
+        sessionSummaries.put(sessionId, summary);
+    }
+
+    @Override
+    public void delete(String sessionId) {
+        chatSessions.remove(sessionId);
+        sessionSummaries.remove(sessionId);
+    }
+
+    @Override
+    public void expire(String sessionId) {
+        delete(sessionId);
+    }
+
+    @Override
+    public void evictLocal(String sessionId) {
+        delete(sessionId);
+    }
+
+    @Override
+    public boolean isShared() {
+        return false;
+    }
+
+    @Override
+    public int localSessionCount() {
+        return chatSessions.size();
+    }
+}
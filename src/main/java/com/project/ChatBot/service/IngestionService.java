@@ -0,0 +1,214 @@
+package com.project.ChatBot.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.project.ChatBot.model.IngestionJob;
+import com.project.ChatBot.monitoring.ChatMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.*;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.*;
+
+/**
+ * Turns an uploaded file into part of the corpus: hash, extract, chunk, index and publish
+ * a new snapshot. A file replacing one with the same name only has its changed pages
+ * re-extracted and re-indexed. Jobs run on their own small executor, so ingestion never competes with
+ * request threads, and their status stays queryable for chatbot.ingestion.job-retention.
+ *
+ * Uploads arrive as staged files outside the documents directory. A job moves its file
+ * into place only after checking the content is not already indexed, so a duplicate never
+ * touches the document it would have replaced.
+ */
+@Service
+public class IngestionService {
+
+    private static final Logger log = LoggerFactory.getLogger(IngestionService.class);
+
+    @Autowired
+    private DocumentService documentService;
+
+    @Autowired
+    private EnhancedPdfProcessingService enhancedPdfProcessingService;
+
+    @Autowired
+    private ChatMetrics chatMetrics;
+
+    @Value("${chatbot.ingestion.threads:1}")
+    private int threads;
+
+    @Value("${chatbot.ingestion.queue-capacity:100}")
+    private int queueCapacity;
+
+    @Value("${chatbot.ingestion.job-retention:3600000}")
+    private long jobRetentionMs;
+
+    @Value("${chatbot.upload.temp-dir:upload_parts}")
+    private String stagingDir;
+
+    @Value("${chatbot.upload.target-dir:uploaded_docs}")
+    private String targetDir;
+
+    private ThreadPoolExecutor executor;
+    private Cache<String, IngestionJob> jobs;
+
+    @PostConstruct
+    public void init() {
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(queueCapacity), r -> {
+                    Thread thread = new Thread(r, "document-ingestion");
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.NORM_PRIORITY - 1);
+                    return thread;
+                });
+        jobs = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(jobRetentionMs))
+                .build();
+    }
+
+    /**
+     * Stream an upload into the staging directory, hashing it on the way, and queue its
+     * ingestion under the given file name
+     */
+    public IngestionJob submitUpload(InputStream content, String fileName) throws IOException {
+        Path directory = Paths.get(stagingDir);
+        Files.createDirectories(directory);
+        Path staged = Files.createTempFile(directory, "upload-", ".part");
+
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+        try (InputStream in = new DigestInputStream(content, digest)) {
+            Files.copy(in, staged, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            Files.deleteIfExists(staged);
+            throw e;
+        }
+        return submitStaged(staged, fileName, HexFormat.of().formatHex(digest.digest()));
+    }
+
+    /**
+     * Queue ingestion of a staged file whose SHA-256 is already known. The job owns the
+     * staged file from here on: it is moved into the documents directory or deleted. The
+     * job fails immediately if the queue is full.
+     */
+    public IngestionJob submitStaged(Path staged, String fileName, String knownHash) {
+        IngestionJob job = new IngestionJob(UUID.randomUUID().toString(), fileName);
+        jobs.put(job.getId(), job);
+
+        try {
+            executor.execute(() -> run(job, staged, knownHash));
+        } catch (RejectedExecutionException e) {
+            deleteStaged(staged);
+            job.fail("Ingestion queue is full, try again later");
+        }
+        return job;
+    }
+
+    public IngestionJob getJob(String jobId) {
+        return jobs.getIfPresent(jobId);
+    }
+
+    private void run(IngestionJob job, Path staged, String knownHash) {
+        job.start();
+        long sizeBytes = 0;
+        try {
+            long stageStart = System.nanoTime();
+            String hash = knownHash != null ? knownHash : CorpusSnapshot.hashFile(staged);
+            stageStart = stage(job, "hash", stageStart);
+
+            // Identical content is never ingested twice, and the indexed file stays as it is
+            CorpusSnapshot current = documentService.currentSnapshot();
+            String existing = current.findByHash(hash);
+            if (existing != null) {
+                job.completeDuplicate(existing, current.getVersion());
+                log.info("♻️ {} has the same content as {}, not re-ingested", job.getFileName(), existing);
+                return;
+            }
+
+            Path target = Paths.get(targetDir, job.getFileName()).toAbsolutePath();
+            Files.createDirectories(target.getParent());
+            try {
+                Files.move(staged, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(staged, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+
+            // Only pages that differ from the indexed version of this file are extracted
+            PageIndexer.Result result = documentService.indexOnce(job.getFileName(), hash);
+            if (result == null) {
+                job.fail("No text could be extracted");
+                return;
+            }
+            job.recordStage("extract", result.getExtractMs());
+            job.recordStage("index", result.getIndexMs());
+            job.recordPages(result.getPagesExtracted(), result.getPagesReused());
+            sizeBytes = result.getEntry().getSizeBytes();
+            stageStart = System.nanoTime();
+
+            CorpusSnapshot published = documentService.publishDocument(result.getEntry());
+            stageStart = stage(job, "publish", stageStart);
+
+            // Structure analysis reuses the extracted text, so queries never parse the PDF again
+            enhancedPdfProcessingService.analyze(job.getFileName(), result.getEntry().getContent());
+            stage(job, "analyze", stageStart);
+
+            job.complete(published.getVersion());
+            log.info("✅ Ingested {} in {}ms {}", job.getFileName(), job.getTotalMs(), job.getStageTimings());
+
+        } catch (Exception e) {
+            log.error("❌ Ingestion failed for {}: {}", job.getFileName(), e.getMessage());
+            job.fail(e.getMessage());
+        } finally {
+            deleteStaged(staged); // no-op once it has been moved into place
+            chatMetrics.recordIngestion(job, sizeBytes);
+        }
+    }
+
+    private static void deleteStaged(Path staged) {
+        try {
+            Files.deleteIfExists(staged);
+        } catch (IOException e) {
+            log.warn("Could not remove staged upload {}: {}", staged, e.getMessage());
+        }
+    }
+
+    private static long stage(IngestionJob job, String name, long startNanos) {
+        long now = System.nanoTime();
+        job.recordStage(name, TimeUnit.NANOSECONDS.toMillis(now - startNanos));
+        return now;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("threads", threads);
+        stats.put("queued", executor.getQueue().size());
+        stats.put("active", executor.getActiveCount());
+        stats.put("completed", executor.getCompletedTaskCount());
+        stats.put("tracked_jobs", jobs.estimatedSize());
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -2,6 +2,10 @@ package com.project.ChatBot.service;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project.ChatBot.monitoring.ChatMetrics;
+import com.project.ChatBot.monitoring.Tracing;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
@@ -15,6 +19,8 @@ import java.util.regex.Pattern;
 @Service
 public class IntelligentChatbotService {
 
+    private static final Logger log = LoggerFactory.getLogger(IntelligentChatbotService.class);
+
     // Updated to use Gemini API key from application.properties
     @Value("${gemini.api.key}")
     private String geminiApiKey;
@@ -28,93 +34,66 @@ public class IntelligentChatbotService {
     @Autowired
     private GeminiService geminiService;
 
+    @Autowired
+    private GeminiCircuitBreaker geminiCircuitBreaker;
+
+    @Autowired
+    private ChatMetrics chatMetrics;
+
+    @Autowired
+    private Tracing tracing;
+
     private final RestTemplate restTemplate = new RestTemplate();
     private final ObjectMapper objectMapper = new ObjectMapper();
 
-    // Conversation context cache
-    private final Map<String, List<String>> conversationHistory = new HashMap<>();
+    // Verbatim turns in the prompt when the session has no summary yet (2 exchanges)
+    private static final int RECENT_MESSAGES = 4;
 
     /**
      * MAIN INTELLIGENT CHATBOT METHOD - Enhanced with Gemini API
      * Gemini first interprets user query, then searches PDF resources, then generates optimized response
      */
     public String processIntelligentQuery(String userMessage, String sessionId) {
-        try {
-            System.out.println("🚀 Processing intelligent query with Gemini API: " + userMessage);
+        try (Tracing.Span span = tracing.startSpan("IntelligentChatbotService.processIntelligentQuery")) {
+            log.debug("🚀 Processing intelligent query with Gemini API: {}", userMessage);
 
             // Step 1: Build conversation context from chat history
-            String conversationContext = buildConversationContext(sessionId);
+            long stageStart = System.nanoTime();
+            String conversationContext;
+            try (Tracing.Span historySpan = tracing.startSpan("IntelligentChatbotService.buildConversationContext")) {
+                conversationContext = buildConversationContext(sessionId, userMessage);
+                historySpan.setAttribute("context.chars", conversationContext.length());
+            }
+            chatMetrics.recordStage("history", stageStart);
+            span.setAttribute("context.chars", conversationContext.length());
 
             // Step 2: Use enhanced GeminiService for complete processing
             // This service now handles: intent analysis → PDF resource search → response generation
             String response = geminiService.getIntelligentResponse(userMessage, conversationContext);
 
-            // Step 3: Update conversation history for context
-            updateConversationHistory(sessionId, userMessage, response);
-
-            System.out.println("✅ Generated intelligent response using Gemini + PDF resources");
+            log.debug("✅ Generated intelligent response using Gemini + PDF resources");
             return response;
 
         } catch (Exception e) {
-            System.err.println("❌ Error in intelligent processing: " + e.getMessage());
-            e.printStackTrace();
+            log.error("❌ Error in intelligent processing: {}", e.getMessage(), e);
             return generateEmergencyFallbackResponse(userMessage);
         }
     }
 
     /**
-     * Build conversation context from recent chat history
+     * Build conversation context from the session's chat history: the rolling summary plus
+     * every turn it does not cover yet, capped by ChatHistoryService. The question being
+     * answered was already saved, so it is left out of the context.
      */
-    private String buildConversationContext(String sessionId) {
+    private String buildConversationContext(String sessionId, String userMessage) {
         try {
-            List<String> recentMessages = conversationHistory.getOrDefault(sessionId, new ArrayList<>());
-
-            if (recentMessages.isEmpty()) {
-                return "";
-            }
-
-            // Get last 4 messages for context (2 exchanges)
-            int startIndex = Math.max(0, recentMessages.size() - 4);
-            List<String> contextMessages = recentMessages.subList(startIndex, recentMessages.size());
-
-            StringBuilder context = new StringBuilder();
-            for (int i = 0; i < contextMessages.size(); i += 2) {
-                if (i + 1 < contextMessages.size()) {
-                    context.append("User: ").append(contextMessages.get(i)).append("\n");
-                    context.append("Assistant: ").append(contextMessages.get(i + 1)).append("\n");
-                }
-            }
-
-            return context.toString();
-
+            return chatHistoryService.buildConversationContext(sessionId, RECENT_MESSAGES, userMessage);
         } catch (Exception e) {
-            System.err.println("⚠️ Error building conversation context: " + e.getMessage());
+            log.warn("⚠️ Error building conversation context: {}", e.getMessage());
             return "";
         }
     }
 
-    /**
-     * Update conversation history for context building
-     */
-    private void updateConversationHistory(String sessionId, String userMessage, String botResponse) {
-        try {
-            List<String> messages = conversationHistory.computeIfAbsent(sessionId, k -> new ArrayList<>());
-
-            // Add user message and bot response
-            messages.add(userMessage);
-            messages.add(botResponse);
-
-            // Keep only last 10 messages (5 exchanges) to prevent memory issues
-            if (messages.size() > 10) {
-                messages = messages.subList(messages.size() - 10, messages.size());
-                conversationHistory.put(sessionId, messages);
-            }
-
-        } catch (Exception e) {
-            System.err.println("⚠️ Error updating conversation history: " + e.getMessage());
-        }
-    }
-
     /**
      * Emergency fallback response when all systems fail
      */
@@ -151,17 +130,12 @@ public class IntelligentChatbotService {
     }
 
     /**
-     * Health check method
+     * Health from cached state: the API key is set and the Gemini circuit is not open.
+     * Never calls Gemini; the deep check at /api/health/deep does that.
      */
     public boolean isServiceHealthy() {
-        try {
-            // Test basic functionality
-            String testResponse = geminiService.getIntelligentResponse("Hello", "");
-            return testResponse != null && !testResponse.trim().isEmpty();
-        } catch (Exception e) {
-            System.err.println("❌ Service health check failed: " + e.getMessage());
-            return false;
-        }
+        return geminiApiKey != null && !geminiApiKey.isEmpty()
+                && geminiCircuitBreaker.getState() != GeminiCircuitBreaker.State.OPEN;
     }
 
     /**
@@ -175,7 +149,8 @@ public class IntelligentChatbotService {
             status.put("gemini_api_configured", geminiApiKey != null && !geminiApiKey.isEmpty());
             status.put("document_service_available", documentService != null);
             status.put("healthy", isServiceHealthy());
-            status.put("active_sessions", conversationHistory.size());
+            status.put("gemini_circuit", geminiCircuitBreaker.getStats());
+            status.put("active_sessions", chatHistoryService.getActiveSessionCount());
             status.put("timestamp", new Date());
 
         } catch (Exception e) {
@@ -185,20 +160,4 @@ public class IntelligentChatbotService {
 
         return status;
     }
-
-    /**
-     * Clear conversation history for a session
-     */
-    public void clearSessionHistory(String sessionId) {
-        conversationHistory.remove(sessionId);
-        System.out.println("🗑️ Cleared conversation history for session: " + sessionId);
-    }
-
-    /**
-     * Clear all conversation histories (admin function)
-     */
-    public void clearAllHistories() {
-        conversationHistory.clear();
-        System.out.println("🗑️ Cleared all conversation histories");
-    }
 }
@@ -0,0 +1,181 @@
+package com.project.ChatBot.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.project.ChatBot.monitoring.ChatMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Global, weight-based memory budget shared by the in-memory caches.
+ *
+ * Owners keep their data in their own maps and report the estimated size of each entry
+ * here under a region name (session, context, document, ...). The budget itself is a
+ * Caffeine cache of those weights, so admission and eviction across all regions follow
+ * W-TinyLFU. When an entry loses, the owning region's handler is called synchronously
+ * to drop the real data. Handlers must not call back into the budget. Only data that can
+ * be rebuilt or reloaded belongs here, since admission may reject an entry as soon as it
+ * is charged.
+ */
+@Component
+public class MemoryBudget {
+
+    @Value("${chatbot.memory.budget-mb:256}")
+    private long budgetMb;
+
+    // Evictable entries keep at least this much however large the reservations grow
+    @Value("${chatbot.memory.min-evictable-mb:32}")
+    private long minEvictableMb;
+
+    @Autowired
+    private ChatMetrics chatMetrics;
+
+    private final Map<String, Consumer<String>> evictionHandlers = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> evictionsByRegion = new ConcurrentHashMap<>();
+    private final Map<String, Long> reservations = new ConcurrentHashMap<>();
+
+    private Cache<BudgetKey, Long> weights;
+
+    @PostConstruct
+    public void init() {
+        weights = Caffeine.newBuilder()
+                .maximumWeight(budgetMb * 1024 * 1024)
+                .weigher((BudgetKey key, Long bytes) -> (int) Math.min(Integer.MAX_VALUE, Math.max(0, bytes)))
+                .evictionListener((BudgetKey key, Long bytes, RemovalCause cause) -> {
+                    if (key == null) {
+                        return;
+                    }
+                    evictionsByRegion.computeIfAbsent(key.region, r -> new LongAdder()).increment();
+                    Consumer<String> handler = evictionHandlers.get(key.region);
+                    if (handler != null) {
+                        handler.accept(key.key);
+                    }
+                })
+                .recordStats()
+                .build();
+        chatMetrics.monitorCache(weights, "memory_budget");
+    }
+
+    /**
+     * Register the callback that drops an entry of the given region when it is evicted
+     */
+    public void register(String region, Consumer<String> onEvict) {
+        evictionHandlers.put(region, onEvict);
+    }
+
+    /**
+     * Set the weight of an entry, adding it if needed
+     */
+    public void charge(String region, String key, long bytes) {
+        weights.put(new BudgetKey(region, key), bytes);
+    }
+
+    /**
+     * Grow (or shrink) the weight of an entry, adding it if needed
+     */
+    public void add(String region, String key, long deltaBytes) {
+        weights.asMap().merge(new BudgetKey(region, key), deltaBytes, Long::sum);
+    }
+
+    /**
+     * Record an access to an entry; returns false if the budget no longer holds it
+     */
+    public boolean touch(String region, String key) {
+        return weights.getIfPresent(new BudgetKey(region, key)) != null;
+    }
+
+    /**
+     * Remove an entry its owner dropped on its own; no eviction callback is made
+     */
+    public void release(String region, String key) {
+        weights.invalidate(new BudgetKey(region, key));
+    }
+
+    /**
+     * Pin memory that cannot be evicted (e.g. the live corpus snapshot). The reservation
+     * replaces any earlier one under the same name and shrinks what evictable entries may use,
+     * down to chatbot.memory.min-evictable-mb.
+     */
+    public void reserve(String region, String key, long bytes) {
+        reservations.put(region + ":" + key, Math.max(0, bytes));
+        long reserved = reservedBytes();
+        long floor = Math.min(budgetMb, minEvictableMb) * 1024 * 1024;
+        weights.policy().eviction().ifPresent(eviction ->
+                eviction.setMaximum(Math.max(floor, budgetMb * 1024 * 1024 - reserved)));
+    }
+
+    private long reservedBytes() {
+        long reserved = 0;
+        for (long bytes : reservations.values()) {
+            reserved += bytes;
+        }
+        return reserved;
+    }
+
+    public Map<String, Object> getStats() {
+        CacheStats cacheStats = weights.stats();
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("budget_mb", budgetMb);
+        stats.put("used_bytes", weights.policy().eviction().map(e -> e.weightedSize().orElse(0L)).orElse(0L));
+        stats.put("reserved_bytes", reservedBytes());
+        stats.put("entries", weights.estimatedSize());
+        stats.put("hits", cacheStats.hitCount());
+        stats.put("misses", cacheStats.missCount());
+        stats.put("hit_rate", cacheStats.hitRate());
+        stats.put("evictions", cacheStats.evictionCount());
+        stats.put("evicted_bytes", cacheStats.evictionWeight());
+
+        Map<String, Long> bytesByRegion = new TreeMap<>();
+        Map<String, Long> entriesByRegion = new TreeMap<>();
+        for (Map.Entry<BudgetKey, Long> entry : weights.asMap().entrySet()) {
+            bytesByRegion.merge(entry.getKey().region, entry.getValue(), Long::sum);
+            entriesByRegion.merge(entry.getKey().region, 1L, Long::sum);
+        }
+        Map<String, Long> evictions = new TreeMap<>();
+        evictionsByRegion.forEach((region, count) -> evictions.put(region, count.sum()));
+
+        stats.put("bytes_by_region", bytesByRegion);
+        stats.put("entries_by_region", entriesByRegion);
+        stats.put("evictions_by_region", evictions);
+        return stats;
+    }
+
+    /**
+     * Rough retained size of a String (header + UTF-16 worst case)
+     */
+    public static long estimateBytes(String value) {
+        return value == null ? 0 : 40 + 2L * value.length();
+    }
+
+    private static final class BudgetKey {
+        final String region;
+        final String key;
+
+        BudgetKey(String region, String key) {
+            this.region = region;
+            this.key = key;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof BudgetKey)) return false;
+            BudgetKey other = (BudgetKey) o;
+            return region.equals(other.region) && key.equals(other.key);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * region.hashCode() + key.hashCode();
+        }
+    }
+}
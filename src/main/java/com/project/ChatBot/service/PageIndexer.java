@@ -0,0 +1,235 @@
+package com.project.ChatBot.service;
+
+import com.project.ChatBot.monitoring.FlightEvents;
+import org.apache.pdfbox.cos.*;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDResources;
+import org.apache.pdfbox.text.PDFTextStripper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+/**
+ * Builds a {@link CorpusSnapshot.DocumentEntry} from a PDF one page at a time.
+ *
+ * Every page is fingerprinted from its content stream and the resources it draws with
+ * (fonts, images, form XObjects), which is far cheaper than text extraction. When a
+ * previous version of the document is given, pages whose fingerprint it already has are
+ * carried over as they are, and only the other pages are extracted, chunked and indexed.
+ */
+public final class PageIndexer {
+
+    private PageIndexer() {
+    }
+
+    public static Result index(Path pdfFile, String name, long lastModified, long sizeBytes, String fileHash,
+                               CorpusSnapshot.DocumentEntry previous) throws IOException {
+        Map<String, Deque<CorpusSnapshot.Page>> previousPages = new HashMap<>();
+        if (previous != null) {
+            for (CorpusSnapshot.Page page : previous.getPages()) {
+                previousPages.computeIfAbsent(page.getFingerprint(), f -> new ArrayDeque<>()).add(page);
+            }
+        }
+
+        long extractStart = System.nanoTime();
+        List<CorpusSnapshot.PageText> pageTexts = new ArrayList<>();
+        int extracted = 0;
+        int reused = 0;
+
+        FlightEvents.PdfExtraction extraction = new FlightEvents.PdfExtraction();
+        extraction.begin();
+        extraction.document = name;
+        extraction.sizeBytes = sizeBytes;
+        extraction.outcome = "error";
+        try (PDDocument document = PDDocument.load(pdfFile.toFile())) {
+            PDFTextStripper stripper = new PDFTextStripper();
+            Map<COSStream, byte[]> streamDigests = new IdentityHashMap<>(); // fonts and images shared by pages
+            int pageCount = document.getNumberOfPages();
+            extraction.pages = pageCount;
+
+            for (int number = 1; number <= pageCount; number++) {
+                String fingerprint = fingerprint(document.getPage(number - 1), streamDigests);
+
+                // Each previous page is reused at most once, even if several pages look alike
+                Deque<CorpusSnapshot.Page> matches = previousPages.get(fingerprint);
+                CorpusSnapshot.Page match = matches == null ? null : matches.poll();
+                if (match != null) {
+                    pageTexts.add(CorpusSnapshot.PageText.reused(number, match));
+                    reused++;
+                    continue;
+                }
+
+                stripper.setStartPage(number);
+                stripper.setEndPage(number);
+                String text = TextNormalizer.extract(stripper, document);
+                // Normalized text is trimmed, so keep pages apart with a line break
+                pageTexts.add(CorpusSnapshot.PageText.extracted(number, fingerprint, text.isEmpty() ? text : text + "\n"));
+                extraction.chars += text.length();
+                extracted++;
+            }
+            extraction.outcome = "ok";
+        } finally {
+            extraction.pagesExtracted = extracted;
+            extraction.pagesReused = reused;
+            extraction.commit();
+        }
+
+        long indexStart = System.nanoTime();
+        FlightEvents.Chunking chunking = new FlightEvents.Chunking();
+        chunking.begin();
+        CorpusSnapshot.DocumentEntry entry = CorpusSnapshot.DocumentEntry.fromPages(name, lastModified, sizeBytes,
+                fileHash, pageTexts);
+        chunking.document = name;
+        chunking.pages = entry.getPages().size();
+        chunking.chars = entry.getTextLength();
+        chunking.chunks = entry.getChunks().size();
+        chunking.commit();
+        long indexEnd = System.nanoTime();
+
+        return new Result(entry, extracted, reused, (indexStart - extractStart) / 1_000_000, (indexEnd - indexStart) / 1_000_000);
+    }
+
+    /**
+     * SHA-256 over the page's decoded content stream, media box, rotation and resources.
+     * Streams are hashed raw and remembered in streamDigests, so a font or image shared by
+     * many pages is read once per document.
+     */
+    static String fingerprint(PDPage page, Map<COSStream, byte[]> streamDigests) throws IOException {
+        MessageDigest digest = sha256();
+
+        if (page.hasContents()) {
+            try (InputStream in = page.getContents()) {
+                byte[] buffer = new byte[16 * 1024];
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    digest.update(buffer, 0, read);
+                }
+            }
+        }
+        digest.update((page.getMediaBox() + "/" + page.getRotation()).getBytes(StandardCharsets.US_ASCII));
+
+        // Inherited resources included; a new font or a replaced image changes the page
+        PDResources resources = page.getResources();
+        if (resources != null) {
+            hashObject(resources.getCOSObject(), digest, streamDigests, Collections.newSetFromMap(new IdentityHashMap<>()));
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Canonical walk of an object graph: dictionary keys in sorted order, indirect references
+     * followed, and a marker instead of recursing into an object that is already on the path
+     */
+    private static void hashObject(COSBase object, MessageDigest digest, Map<COSStream, byte[]> streamDigests,
+                                   Set<COSBase> path) throws IOException {
+        if (object instanceof COSObject) {
+            object = ((COSObject) object).getObject();
+        }
+
+        if (object == null || object instanceof COSNull) {
+            tag(digest, 'n', "");
+        } else if (object instanceof COSName) {
+            tag(digest, '/', ((COSName) object).getName());
+        } else if (object instanceof COSInteger) {
+            tag(digest, 'i', Long.toString(((COSInteger) object).longValue()));
+        } else if (object instanceof COSFloat) {
+            tag(digest, 'f', Float.toString(((COSFloat) object).floatValue()));
+        } else if (object instanceof COSBoolean) {
+            tag(digest, 'b', Boolean.toString(((COSBoolean) object).getValue()));
+        } else if (object instanceof COSString) {
+            byte[] bytes = ((COSString) object).getBytes();
+            tag(digest, 's', Integer.toString(bytes.length));
+            digest.update(bytes);
+        } else if (!path.add(object)) {
+            tag(digest, 'r', "");
+        } else {
+            try {
+                if (object instanceof COSStream) {
+                    COSStream stream = (COSStream) object;
+                    byte[] streamDigest = streamDigests.get(stream);
+                    if (streamDigest == null) {
+                        MessageDigest streamHash = sha256();
+                        hashDictionary(stream, streamHash, streamDigests, path);
+                        try (InputStream in = stream.createRawInputStream()) {
+                            byte[] buffer = new byte[16 * 1024];
+                            int read;
+                            while ((read = in.read(buffer)) != -1) {
+                                streamHash.update(buffer, 0, read);
+                            }
+                        }
+                        streamDigest = streamHash.digest();
+                        streamDigests.put(stream, streamDigest);
+                    }
+                    tag(digest, 'S', "");
+                    digest.update(streamDigest);
+                } else if (object instanceof COSDictionary) {
+                    hashDictionary((COSDictionary) object, digest, streamDigests, path);
+                } else if (object instanceof COSArray) {
+                    COSArray array = (COSArray) object;
+                    tag(digest, 'a', Integer.toString(array.size()));
+                    for (int i = 0; i < array.size(); i++) {
+                        hashObject(array.get(i), digest, streamDigests, path);
+                    }
+                }
+            } finally {
+                path.remove(object);
+            }
+        }
+    }
+
+    private static void hashDictionary(COSDictionary dictionary, MessageDigest digest, Map<COSStream, byte[]> streamDigests,
+                                       Set<COSBase> path) throws IOException {
+        List<COSName> keys = new ArrayList<>(dictionary.keySet());
+        keys.sort(Comparator.comparing(COSName::getName));
+        tag(digest, 'd', Integer.toString(keys.size()));
+        for (COSName key : keys) {
+            tag(digest, '/', key.getName());
+            hashObject(dictionary.getItem(key), digest, streamDigests, path);
+        }
+    }
+
+    private static void tag(MessageDigest digest, char type, String value) {
+        digest.update((byte) type);
+        digest.update(value.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * The entry plus how much work it took
+     */
+    public static final class Result {
+        private final CorpusSnapshot.DocumentEntry entry;
+        private final int pagesExtracted;
+        private final int pagesReused;
+        private final long extractMs;
+        private final long indexMs;
+
+        Result(CorpusSnapshot.DocumentEntry entry, int pagesExtracted, int pagesReused, long extractMs, long indexMs) {
+            this.entry = entry;
+            this.pagesExtracted = pagesExtracted;
+            this.pagesReused = pagesReused;
+            this.extractMs = extractMs;
+            this.indexMs = indexMs;
+        }
+
+        public CorpusSnapshot.DocumentEntry getEntry() { return entry; }
+        public int getPagesExtracted() { return pagesExtracted; }
+        public int getPagesReused() { return pagesReused; }
+        public long getExtractMs() { return extractMs; }
+        public long getIndexMs() { return indexMs; }
+    }
+}
@@ -1,5 +1,7 @@
 package com.project.ChatBot.service;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.ApplicationArguments;
 import org.springframework.boot.ApplicationRunner;
@@ -13,27 +15,46 @@ import java.nio.file.Paths;
 @Component
 public class PdfInitializationService implements ApplicationRunner {
 
+    private static final Logger log = LoggerFactory.getLogger(PdfInitializationService.class);
+
     @Autowired
     private DocumentService documentService;
 
+    @Autowired
+    private StartupTimings startupTimings;
+
     @Override
     public void run(ApplicationArguments args) throws Exception {
-        System.out.println("=== PDF Initialization Service Started ===");
-
-        try {
-            convertAllPdfsToTextFiles();
-            System.out.println("=== PDF Initialization Service Completed Successfully ===");
-        } catch (Exception e) {
-            System.err.println("Error during PDF initialization: " + e.getMessage());
-            e.printStackTrace();
+        log.info("=== PDF Initialization Service Started ===");
+
+        // Readiness only needs the corpus snapshot: load the prebuilt one, or build it once
+        long start = System.currentTimeMillis();
+        boolean loaded = documentService.loadPersistedSnapshot();
+        if (!loaded) {
+            documentService.refreshSnapshot();
         }
+        documentService.warmUp();
+        startupTimings.markReady(loaded ? "persisted" : "built", System.currentTimeMillis() - start);
+
+        // Text export and revalidation against the files on disk happen after we are serving
+        Thread background = new Thread(() -> {
+            try {
+                convertAllPdfsToTextFiles();
+                documentService.revalidateAsync();
+                log.info("=== PDF Initialization Service Completed Successfully ===");
+            } catch (Exception e) {
+                log.error("Error during PDF initialization: {}", e.getMessage(), e);
+            }
+        }, "pdf-initialization");
+        background.setDaemon(true);
+        background.start();
     }
 
     private void convertAllPdfsToTextFiles() {
         File uploadsFolder = new File("uploaded_docs");
 
         if (!uploadsFolder.exists() || !uploadsFolder.isDirectory()) {
-            System.err.println("uploaded_docs folder not found. Creating it...");
+            log.warn("uploaded_docs folder not found. Creating it...");
             uploadsFolder.mkdirs();
             return;
         }
@@ -41,11 +62,11 @@ public class PdfInitializationService implements ApplicationRunner {
         File[] pdfFiles = uploadsFolder.listFiles((dir, name) -> name.toLowerCase().endsWith(".pdf"));
 
         if (pdfFiles == null || pdfFiles.length == 0) {
-            System.out.println("No PDF files found in uploaded_docs folder");
+            log.info("No PDF files found in uploaded_docs folder");
             return;
         }
 
-        System.out.println("Found " + pdfFiles.length + " PDF files to process:");
+        log.info("Found {} PDF files to process:", pdfFiles.length);
 
         for (File pdfFile : pdfFiles) {
             try {
@@ -59,13 +80,13 @@ public class PdfInitializationService implements ApplicationRunner {
                     long pdfModified = pdfFile.lastModified();
 
                     if (txtModified >= pdfModified) {
-                        System.out.println("✓ Text file is up to date: " + txtFileName);
+                        log.info("✓ Text file is up to date: {}", txtFileName);
                         continue;
                     }
                 }
 
                 // Convert PDF to text
-                System.out.println("Converting: " + pdfName + " -> " + txtFileName);
+                log.info("Converting: {} -> {}", pdfName, txtFileName);
                 String extractedText = PdfReaderUtil.extractTextFromPdf(pdfFile.getAbsolutePath());
 
                 if (!extractedText.isEmpty()) {
@@ -74,18 +95,14 @@ public class PdfInitializationService implements ApplicationRunner {
 
                     // Write extracted text to file
                     Files.writeString(txtPath, extractedText);
-                    System.out.println("✓ Successfully converted: " + pdfName + " (" + extractedText.length() + " characters)");
+                    log.info("✓ Successfully converted: {} ({} characters)", pdfName, extractedText.length());
                 } else {
-                    System.err.println("✗ Failed to extract text from: " + pdfName);
+                    log.warn("✗ Failed to extract text from: {}", pdfName);
                 }
 
             } catch (Exception e) {
-                System.err.println("✗ Error processing " + pdfFile.getName() + ": " + e.getMessage());
+                log.error("✗ Error processing {}: {}", pdfFile.getName(), e.getMessage());
             }
         }
-
-        // Clear document cache after conversion
-        documentService.clearCache();
-        System.out.println("Document cache cleared. Ready for user queries.");
     }
 }
@@ -2,6 +2,8 @@ package com.project.ChatBot.service;
 
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.text.PDFTextStripper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
 import java.io.File;
@@ -9,11 +11,14 @@ import java.io.IOException;
 
 @Service
 public class PdfReaderUtil {
+
+    private static final Logger log = LoggerFactory.getLogger(PdfReaderUtil.class);
+
     public static String extractText(String filePath) {
         try (PDDocument document = PDDocument.load(new File(filePath))) {
-            return new PDFTextStripper().getText(document);
+            return TextNormalizer.extract(new PDFTextStripper(), document);
         } catch (Exception e) {
-            System.out.println("Error reading PDF: " + e.getMessage());
+            log.error("Error reading PDF: {}", e.getMessage());
             return "";
         }
     }
@@ -21,11 +26,11 @@ public class PdfReaderUtil {
     public static String extractTextFromPdf(String filePath) {
         try (PDDocument document = PDDocument.load(new File(filePath))) {
             PDFTextStripper stripper = new PDFTextStripper();
-            String text = stripper.getText(document);
-            System.out.println("Successfully extracted text from PDF: " + filePath + " (length: " + text.length() + ")");
+            String text = TextNormalizer.extract(stripper, document);
+            log.debug("Successfully extracted text from PDF: {} (length: {})", filePath, text.length());
             return text;
         } catch (IOException e) {
-            System.err.println("Error extracting text from PDF " + filePath + ": " + e.getMessage());
+            log.error("Error extracting text from PDF {}: {}", filePath, e.getMessage());
             return "";
         }
     }
@@ -34,7 +39,7 @@ public class PdfReaderUtil {
         try (PDDocument document = PDDocument.load(new File(filePath))) {
             return document.getNumberOfPages() > 0;
         } catch (Exception e) {
-            System.err.println("PDF not readable: " + filePath + " - " + e.getMessage());
+            log.error("PDF not readable: {} - {}", filePath, e.getMessage());
             return false;
         }
     }
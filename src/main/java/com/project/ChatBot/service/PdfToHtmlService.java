@@ -1,98 +1,283 @@
 package com.project.ChatBot.service;
 
+import jakarta.annotation.PreDestroy;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.text.PDFTextStripper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
 
+/**
+ * Exports every uploaded PDF to its own HTML file.
+ *
+ * Documents are written page by page through a buffered writer, with an anchor per page
+ * and HTML escaping done while the text is streamed out, so memory use is bounded by the
+ * largest page rather than the whole corpus. Each export records the exporter version and
+ * the SHA-256 of its source next to it; documents whose tag has not changed are skipped,
+ * and the same tag serves as the HTTP ETag.
+ */
 @Service
 public class PdfToHtmlService {
 
+    private static final Logger log = LoggerFactory.getLogger(PdfToHtmlService.class);
+
     private static final String UPLOADED_DOCS_PATH = "uploaded_docs";
-    private static final String OUTPUT_HTML_PATH = "extracted_text.html";
+    private static final String HASH_SUFFIX = ".sha256";
 
-    public void extractAllPdfsToHtml() {
-        try {
-            StringBuilder allText = new StringBuilder();
+    // Bump whenever writeHtml changes its output, so existing exports are rebuilt and
+    // clients holding the old ETag get the new markup
+    private static final String EXPORT_VERSION = "v1";
 
-            // Get all PDF files from uploaded_docs folder
-            File folder = new File(UPLOADED_DOCS_PATH);
-            if (!folder.exists() || !folder.isDirectory()) {
-                System.err.println("uploaded_docs folder not found");
-                return;
-            }
+    @Value("${chatbot.html.output-dir:html_export}")
+    private String outputDir;
 
-            File[] pdfFiles = folder.listFiles((dir, name) -> name.toLowerCase().endsWith(".pdf"));
+    private final AtomicReference<CompletableFuture<Map<String, Object>>> inFlightExport = new AtomicReference<>();
+    private volatile Map<String, Object> lastRun = Collections.emptyMap();
+    private final ExecutorService exportExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "html-export");
+        thread.setDaemon(true);
+        return thread;
+    });
 
-            if (pdfFiles == null || pdfFiles.length == 0) {
-                System.out.println("No PDF files found in uploaded_docs folder");
-                return;
+    /**
+     * Start an export of all PDFs, or join the one already running
+     */
+    public CompletableFuture<Map<String, Object>> exportAllAsync() {
+        CompletableFuture<Map<String, Object>> running = inFlightExport.get();
+        if (running != null) {
+            return running;
+        }
+        CompletableFuture<Map<String, Object>> task = new CompletableFuture<>();
+        if (!inFlightExport.compareAndSet(null, task)) {
+            return inFlightExport.get();
+        }
+
+        exportExecutor.execute(() -> {
+            try {
+                Map<String, Object> result = exportAll();
+                lastRun = result;
+                task.complete(result);
+            } catch (Exception e) {
+                log.error("Error exporting PDFs to HTML: {}", e.getMessage());
+                task.completeExceptionally(e);
+            } finally {
+                inFlightExport.set(null);
             }
+        });
+        return task;
+    }
 
-            System.out.println("Found " + pdfFiles.length + " PDF file(s) to process");
-
-            // Extract text from each PDF
-            for (File pdfFile : pdfFiles) {
-                System.out.println("Processing: " + pdfFile.getName());
-                String text = extractTextFromPdf(pdfFile.getAbsolutePath());
-                if (text != null && !text.trim().isEmpty()) {
-                    // Clean up the text - remove extra newlines and normalize spacing
-                    String cleanedText = text.replaceAll("\\s+", " ").trim();
-                    if (allText.length() > 0 && !cleanedText.isEmpty()) {
-                        allText.append(" ");
-                    }
-                    allText.append(cleanedText);
+    private Map<String, Object> exportAll() throws IOException {
+        long start = System.currentTimeMillis();
+        Path target = Paths.get(outputDir).toAbsolutePath();
+        Files.createDirectories(target);
+
+        File folder = new File(UPLOADED_DOCS_PATH);
+        File[] pdfFiles = folder.listFiles((dir, name) -> name.toLowerCase().endsWith(".pdf"));
+        if (pdfFiles == null) {
+            pdfFiles = new File[0];
+        }
+
+        int exported = 0;
+        int unchanged = 0;
+        List<String> failed = new ArrayList<>();
+        Set<String> current = new HashSet<>();
+
+        for (File pdfFile : pdfFiles) {
+            String htmlName = htmlName(pdfFile.getName());
+            current.add(htmlName);
+            try {
+                String hash = EXPORT_VERSION + "-" + CorpusSnapshot.hashFile(pdfFile.toPath());
+                Path html = target.resolve(htmlName);
+                if (hash.equals(readHash(html)) && Files.exists(html)) {
+                    unchanged++;
+                    continue;
                 }
+                writeHtml(pdfFile.toPath(), html);
+                Files.writeString(hashFile(html), hash, StandardCharsets.US_ASCII);
+                exported++;
+                log.info("Exported {} to {}", pdfFile.getName(), html);
+            } catch (IOException e) {
+                log.error("Error exporting {} to HTML: {}", pdfFile.getName(), e.getMessage());
+                failed.add(pdfFile.getName());
             }
+        }
 
-            // Create HTML file
-            createHtmlFile(allText.toString());
-            System.out.println("HTML file created successfully: " + OUTPUT_HTML_PATH);
+        int removed = removeOrphans(target, current);
 
-        } catch (Exception e) {
-            System.err.println("Error processing PDFs: " + e.getMessage());
-            e.printStackTrace();
-        }
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("exported", exported);
+        result.put("unchanged", unchanged);
+        result.put("removed", removed);
+        result.put("failed", failed);
+        result.put("duration_ms", System.currentTimeMillis() - start);
+        result.put("finished_at", System.currentTimeMillis());
+        log.info("HTML export done: {} exported, {} unchanged, {} failed", exported, unchanged, failed.size());
+        return result;
     }
 
-    private String extractTextFromPdf(String pdfPath) {
-        try (PDDocument document = PDDocument.load(new File(pdfPath))) {
+    /**
+     * Stream one PDF into an HTML file, page by page; the file is replaced atomically
+     */
+    private void writeHtml(Path pdf, Path html) throws IOException {
+        Path temp = html.resolveSibling(html.getFileName() + ".tmp");
+        try (PDDocument document = PDDocument.load(pdf.toFile());
+             BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
             PDFTextStripper stripper = new PDFTextStripper();
-            String text = stripper.getText(document);
-            System.out.println("Successfully extracted text from: " + pdfPath);
-            return text;
+            int pageCount = document.getNumberOfPages();
+
+            writer.write("<!DOCTYPE html>\n<html>\n<head>\n<meta charset=\"utf-8\">\n<title>");
+            escapeHtml(pdf.getFileName().toString(), writer);
+            writer.write("</title>\n</head>\n<body>\n<nav>\n");
+            for (int number = 1; number <= pageCount; number++) {
+                writer.write("<a href=\"#page-" + number + "\">Page " + number + "</a>\n");
+            }
+            writer.write("</nav>\n");
+
+            for (int number = 1; number <= pageCount; number++) {
+                stripper.setStartPage(number);
+                stripper.setEndPage(number);
+                String text = TextNormalizer.extract(stripper, document);
+
+                writer.write("<section id=\"page-" + number + "\">\n<h2>Page " + number + "</h2>\n<p>");
+                escapeHtml(text, writer);
+                writer.write("</p>\n</section>\n");
+            }
+            writer.write("</body>\n</html>\n");
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+
+        try {
+            Files.move(temp, html, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, html, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Escape while writing; blank lines become paragraph breaks and line breaks become &lt;br&gt;
+     */
+    private static void escapeHtml(String text, Writer writer) throws IOException {
+        int newlines = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\n') {
+                newlines++;
+                continue;
+            }
+            if (newlines > 0) {
+                writer.write(newlines > 1 ? "</p>\n<p>" : "<br>\n");
+                newlines = 0;
+            }
+            switch (c) {
+                case '&': writer.write("&amp;"); break;
+                case '<': writer.write("&lt;"); break;
+                case '>': writer.write("&gt;"); break;
+                case '"': writer.write("&quot;"); break;
+                case '\'': writer.write("&#x27;"); break;
+                default: writer.write(c);
+            }
+        }
+    }
+
+    private int removeOrphans(Path target, Set<String> current) throws IOException {
+        int removed = 0;
+        try (Stream<Path> files = Files.list(target)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(".html") && !current.contains(name)) {
+                    Files.deleteIfExists(file);
+                    Files.deleteIfExists(hashFile(file));
+                    removed++;
+                }
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * An exported document, or null if there is none
+     */
+    public Path getExport(String htmlName) {
+        String name = Paths.get(htmlName).getFileName().toString(); // No directories from the client
+        Path html = Paths.get(outputDir, name).toAbsolutePath();
+        return name.endsWith(".html") && Files.isRegularFile(html) ? html : null;
+    }
+
+    /**
+     * Entity tag for an exported document: the exporter version and the hash of the PDF it
+     * was built from
+     */
+    public String getETag(Path html) {
+        try {
+            String hash = readHash(html);
+            return hash != null ? hash : EXPORT_VERSION + "-" + Long.toHexString(Files.getLastModifiedTime(html).toMillis());
         } catch (IOException e) {
-            System.err.println("Error extracting text from PDF " + pdfPath + ": " + e.getMessage());
-            e.printStackTrace();
             return null;
         }
     }
 
-    private void createHtmlFile(String text) throws IOException {
-        try (FileWriter writer = new FileWriter(OUTPUT_HTML_PATH)) {
-            writer.write("<!DOCTYPE html>\n");
-            writer.write("<html>\n");
-            writer.write("<head>\n");
-            writer.write("<title>Extracted PDF Text</title>\n");
-            writer.write("</head>\n");
-            writer.write("<body>\n");
-            writer.write("<p>" + escapeHtml(text) + "</p>\n");
-            writer.write("</body>\n");
-            writer.write("</html>");
+    public List<Map<String, Object>> listExports() {
+        List<Map<String, Object>> exports = new ArrayList<>();
+        Path target = Paths.get(outputDir).toAbsolutePath();
+        if (!Files.isDirectory(target)) {
+            return exports;
+        }
+        try (Stream<Path> files = Files.list(target)) {
+            files.filter(file -> file.getFileName().toString().endsWith(".html"))
+                    .sorted()
+                    .forEach(file -> {
+                        Map<String, Object> export = new LinkedHashMap<>();
+                        export.put("fileName", file.getFileName().toString());
+                        export.put("etag", getETag(file));
+                        export.put("url", "/api/html/" + file.getFileName());
+                        exports.add(export);
+                    });
+        } catch (IOException e) {
+            log.warn("Could not list HTML exports: {}", e.getMessage());
         }
+        return exports;
+    }
+
+    public Map<String, Object> getStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("running", inFlightExport.get() != null);
+        status.put("output_dir", Paths.get(outputDir).toAbsolutePath().toString());
+        status.put("last_run", lastRun);
+        return status;
+    }
+
+    private static String htmlName(String pdfName) {
+        return pdfName.substring(0, pdfName.length() - ".pdf".length()) + ".html";
+    }
+
+    private static Path hashFile(Path html) {
+        return html.resolveSibling(html.getFileName() + HASH_SUFFIX);
+    }
+
+    private static String readHash(Path html) throws IOException {
+        Path hashFile = hashFile(html);
+        return Files.exists(hashFile) ? Files.readString(hashFile, StandardCharsets.US_ASCII).trim() : null;
     }
 
-    private String escapeHtml(String text) {
-        if (text == null) return "";
-        return text.replace("&", "&amp;")
-                  .replace("<", "&lt;")
-                  .replace(">", "&gt;")
-                  .replace("\"", "&quot;")
-                  .replace("'", "&#x27;");
+    @PreDestroy
+    public void shutdown() {
+        exportExecutor.shutdownNow();
     }
 }
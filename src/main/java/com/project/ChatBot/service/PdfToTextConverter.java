@@ -2,6 +2,8 @@ package com.project.ChatBot.service;
 
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.text.PDFTextStripper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
 import java.io.File;
@@ -14,13 +16,15 @@ import java.nio.file.Paths;
 @Service
 public class PdfToTextConverter {
 
+    private static final Logger log = LoggerFactory.getLogger(PdfToTextConverter.class);
+
     private static final String UPLOADED_DOCS_PATH = "uploaded_docs";
     private static final String RESOURCES_PATH = "src/main/resources";
 
     public static void convertPdfToText(String pdfPath, String txtPath) {
         try (PDDocument document = PDDocument.load(new File(pdfPath))) {
             PDFTextStripper stripper = new PDFTextStripper();
-            String text = stripper.getText(document);
+            String text = TextNormalizer.extract(stripper, document);
 
             // Create parent directories if they don't exist
             Path txtFile = Paths.get(txtPath);
@@ -30,10 +34,9 @@ public class PdfToTextConverter {
             writer.write(text);
             writer.close();
 
-            System.out.println("PDF text extracted to: " + txtPath);
+            log.info("PDF text extracted to: {}", txtPath);
         } catch (IOException e) {
-            System.err.println("Error converting PDF to text: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Error converting PDF to text: {}", e.getMessage(), e);
         }
     }
 
@@ -41,26 +44,25 @@ public class PdfToTextConverter {
         try {
             File folder = new File(UPLOADED_DOCS_PATH);
             if (!folder.exists() || !folder.isDirectory()) {
-                System.err.println("uploaded_docs folder not found or not accessible");
+                log.warn("uploaded_docs folder not found or not accessible");
                 return;
             }
 
             File[] files = folder.listFiles((dir, name) -> name.toLowerCase().endsWith(".pdf"));
             if (files != null && files.length > 0) {
-                System.out.println("Found " + files.length + " PDF files to convert");
+                log.info("Found {} PDF files to convert", files.length);
                 for (File pdfFile : files) {
                     String txtFileName = pdfFile.getName().replace(".pdf", ".txt");
                     String txtPath = RESOURCES_PATH + "/" + txtFileName;
                     convertPdfToText(pdfFile.getAbsolutePath(), txtPath);
-                    System.out.println("Converted: " + pdfFile.getName() + " -> " + txtFileName);
+                    log.info("Converted: {} -> {}", pdfFile.getName(), txtFileName);
                 }
-                System.out.println("All PDFs converted successfully!");
+                log.info("All PDFs converted successfully!");
             } else {
-                System.out.println("No PDF files found in uploaded_docs folder");
+                log.info("No PDF files found in uploaded_docs folder");
             }
         } catch (Exception e) {
-            System.err.println("Error processing PDFs: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Error processing PDFs: {}", e.getMessage(), e);
         }
     }
 
@@ -70,12 +72,11 @@ public class PdfToTextConverter {
     public String extractTextFromPdf(String pdfPath) {
         try (PDDocument document = PDDocument.load(new File(pdfPath))) {
             PDFTextStripper stripper = new PDFTextStripper();
-            String text = stripper.getText(document);
-            System.out.println("Successfully extracted text from PDF: " + pdfPath);
+            String text = TextNormalizer.extract(stripper, document);
+            log.debug("Successfully extracted text from PDF: {}", pdfPath);
             return text;
         } catch (IOException e) {
-            System.err.println("Error extracting text from PDF " + pdfPath + ": " + e.getMessage());
-            e.printStackTrace();
+            log.error("Error extracting text from PDF {}: {}", pdfPath, e.getMessage(), e);
             return null;
         }
     }
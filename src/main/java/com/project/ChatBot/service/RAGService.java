@@ -1,6 +1,8 @@
 package com.project.ChatBot.service;
 
 import com.project.ChatBot.model.ChatResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -9,6 +11,8 @@ import java.util.Map;
 @Service
 public class RAGService {
 
+    private static final Logger log = LoggerFactory.getLogger(RAGService.class);
+
     @Autowired
     private DocumentService documentService;
 
@@ -30,7 +34,7 @@ public class RAGService {
      */
     public ChatResponse getResponse(String question, String sessionId) {
         try {
-            System.out.println("🔍 RAGService: Processing question with Gemini API integration");
+            log.debug("🔍 RAGService: Processing question with Gemini API integration");
 
             // Get conversation context if session ID is provided
             String conversationContext = "";
@@ -43,17 +47,16 @@ public class RAGService {
 
             // If Gemini service returns a valid response, use it
             if (intelligentResponse != null && !intelligentResponse.trim().isEmpty()) {
-                System.out.println("✅ RAGService: Successfully generated Gemini-powered response");
+                log.debug("✅ RAGService: Successfully generated Gemini-powered response");
                 return new ChatResponse(intelligentResponse);
             }
 
             // Fallback to simple processing if Gemini fails
-            System.out.println("⚠️ RAGService: Gemini response empty, using fallback");
+            log.warn("⚠️ RAGService: Gemini response empty, using fallback");
             return getFallbackResponse(question);
 
         } catch (Exception e) {
-            System.err.println("❌ RAGService Error: " + e.getMessage());
-            e.printStackTrace();
+            log.error("❌ RAGService Error: {}", e.getMessage(), e);
             return new ChatResponse(
                 "I apologize, but I'm experiencing technical difficulties. " +
                 "Please try rephrasing your question or contact our People Operations team " +
@@ -71,7 +74,7 @@ public class RAGService {
             return isSimpleHRQuery(question);
 
         } catch (Exception e) {
-            System.err.println("Error in HR query detection: " + e.getMessage());
+            log.error("Error in HR query detection: {}", e.getMessage());
             // Fallback to simple keyword matching
             return isSimpleHRQuery(question);
         }
@@ -112,7 +115,7 @@ public class RAGService {
 
             return combinedContent.toString();
         } catch (Exception e) {
-            System.err.println("Error getting all document content: " + e.getMessage());
+            log.error("Error getting all document content: {}", e.getMessage());
             return "Error retrieving document content.";
         }
     }
@@ -141,7 +144,7 @@ public class RAGService {
             );
 
         } catch (Exception e) {
-            System.err.println("Error in fallback response: " + e.getMessage());
+            log.error("Error in fallback response: {}", e.getMessage());
             return new ChatResponse(
                 "I'm experiencing technical difficulties. Please contact our " +
                 "People Operations team at hcatindia.pops@healthcatalyst.com for assistance."
@@ -163,7 +166,7 @@ public class RAGService {
     /**
      * Simple intent determination for fallback scenarios
      */
-    private String determineIntent(String lowerQuestion) {
+    String determineIntent(String lowerQuestion) {
         if (containsAny(lowerQuestion, "leave", "vacation", "time off", "pto", "holiday", "sick leave")) {
             return "leave_policy";
         }
@@ -233,8 +236,8 @@ public class RAGService {
      */
     public String getServiceStatus() {
         try {
-            // Test if DocumentService is working
-            Map<String, String> allContents = documentService.getAllDocumentContents();
+            // Read the published snapshot only; a status call must not trigger extraction
+            Map<String, String> allContents = documentService.peekSnapshot().getContents();
             boolean documentsLoaded = allContents != null && !allContents.isEmpty();
 
             // Test if GeminiService is working by checking if it's properly initialized
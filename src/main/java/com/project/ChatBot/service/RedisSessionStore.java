@@ -0,0 +1,552 @@
+package com.project.ChatBot.service;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.project.ChatBot.model.ChatMessage;
+import com.project.ChatBot.model.ConversationSummary;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Session store backed by any Redis-protocol server, so instances can share sessions.
+ *
+ * Writes are sent to the server by a background flusher that pipelines everything queued
+ * since its last batch. Sessions read here are kept in a near-cache; a miss loads the
+ * message list and summary together in one pipelined round trip, and the size of a session
+ * that is not cached is just its LLEN.
+ *
+ * Without sticky routing any instance may have written to a session since it was cached.
+ * Every write also bumps a per-session version key, so checking a cached entry is one GET;
+ * an entry checked within chatbot.session.redis.validate-interval-ms is trusted as is, so
+ * the several reads of one request cost at most one check. Only a changed version fetches
+ * the messages from the last cached one onwards plus the summary; if the last cached
+ * message is no longer where it was, the list was replaced and the session is reloaded.
+ * With chatbot.session.redis.sticky-sessions this instance is the only writer of its
+ * sessions, so writes are applied to the near-cache directly and reads never leave the JVM.
+ */
+@Component
+@ConditionalOnProperty(name = "chatbot.session.store", havingValue = "redis")
+public class RedisSessionStore implements SessionStore {
+
+    private static final Logger log = LoggerFactory.getLogger(RedisSessionStore.class);
+
+    private static final String KEY_PREFIX = "chatbot:session:";
+
+    private final RespClient client;
+    private final long sessionTtlMs;
+    private final Cache<String, NearEntry> nearCache;
+    private final boolean stickySessions;
+    private final long validateIntervalMs;
+
+    // Queued writes and write counters, striped by session: a read only waits for the writes
+    // of its own stripe, and a load that raced with a write is not cached
+    private final WriteStripe[] stripes = new WriteStripe[64];
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+    private final Thread flusher;
+    private volatile boolean running = true;
+
+    public RedisSessionStore(@Value("${chatbot.session.redis.host:localhost}") String host,
+                             @Value("${chatbot.session.redis.port:6379}") int port,
+                             @Value("${chatbot.session.redis.pool-size:8}") int poolSize,
+                             @Value("${chatbot.session.redis.timeout:2000}") int timeoutMs,
+                             @Value("${chatbot.session.timeout:1800000}") long sessionTtlMs,
+                             @Value("${chatbot.session.redis.near-cache-ttl:30000}") long nearCacheTtlMs,
+                             @Value("${chatbot.session.redis.near-cache-size:10000}") long nearCacheSize,
+                             @Value("${chatbot.session.redis.sticky-sessions:false}") boolean stickySessions,
+                             @Value("${chatbot.session.redis.validate-interval-ms:500}") long validateIntervalMs) {
+        this.client = new RespClient(host, port, poolSize, timeoutMs);
+        this.sessionTtlMs = sessionTtlMs;
+        this.stickySessions = stickySessions;
+        this.validateIntervalMs = validateIntervalMs;
+        this.nearCache = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(nearCacheTtlMs))
+                .maximumSize(nearCacheSize)
+                .build();
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new WriteStripe();
+        }
+
+        this.flusher = new Thread(this::flushLoop, "redis-session-flusher");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    @Override
+    public void append(String sessionId, ChatMessage message) {
+        String messagesKey = messagesKey(sessionId);
+        String ttl = Long.toString(sessionTtlMs);
+        NearEntry entry = nearCache.getIfPresent(sessionId);
+        if (entry != null && stickySessions) {
+            synchronized (entry) {
+                entry.messages.add(message);
+            }
+        }
+
+        enqueue(sessionId,
+                new String[]{"RPUSH", messagesKey, toJson(message)},
+                new String[]{"PEXPIRE", messagesKey, ttl},
+                new String[]{"PEXPIRE", summaryKey(sessionId), ttl});
+        markWritten(entry);
+    }
+
+    @Override
+    public List<ChatMessage> getRange(String sessionId, int from, int to) {
+        NearEntry entry = cached(sessionId);
+        if (entry != null) {
+            synchronized (entry) {
+                int end = Math.min(to, entry.messages.size());
+                int start = Math.max(0, Math.min(from, end));
+                return new ArrayList<>(entry.messages.subList(start, end));
+            }
+        }
+
+        if (from >= to) {
+            return new ArrayList<>();
+        }
+
+        // Cold session: read just the requested window instead of the whole list
+        try {
+            flush(sessionId);
+            int stop = to == Integer.MAX_VALUE ? -1 : to - 1;
+            Object reply = client.execute("LRANGE", messagesKey(sessionId), Integer.toString(Math.max(0, from)), Integer.toString(stop));
+            return parseMessages(reply);
+        } catch (IOException e) {
+            log.error("Error reading session range from Redis: {}", e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+
+    @Override
+    public int size(String sessionId) {
+        NearEntry entry = cached(sessionId);
+        if (entry != null) {
+            synchronized (entry) {
+                return entry.messages.size();
+            }
+        }
+
+        // Cold session: its length is enough, the messages are loaded once they are read
+        try {
+            flush(sessionId);
+            Object reply = client.execute("LLEN", messagesKey(sessionId));
+            if (reply instanceof RespClient.RespError) {
+                throw new IOException(reply.toString());
+            }
+            return reply instanceof Long ? (int) (long) (Long) reply : 0;
+        } catch (IOException e) {
+            log.error("Error reading session size from Redis: {}", e.getMessage());
+            return 0;
+        }
+    }
+
+    @Override
+    public boolean exists(String sessionId) {
+        return size(sessionId) > 0;
+    }
+
+    @Override
+    public ConversationSummary getSummary(String sessionId) {
+        NearEntry entry = load(sessionId);
+        return entry == null ? null : entry.summary;
+    }
+
+    @Override
+    public void putSummary(String sessionId, ConversationSummary summary) {
+        NearEntry entry = nearCache.getIfPresent(sessionId);
+        if (entry != null && stickySessions) {
+            entry.summary = summary;
+        }
+        enqueue(sessionId, new String[]{"SET", summaryKey(sessionId), toJson(summary), "PX", Long.toString(sessionTtlMs)});
+        markWritten(entry);
+    }
+
+    @Override
+    public void delete(String sessionId) {
+        nearCache.invalidate(sessionId);
+        enqueue(sessionId, new String[]{"DEL", messagesKey(sessionId), summaryKey(sessionId)});
+    }
+
+    @Override
+    public void expire(String sessionId) {
+        // Redis TTLs decide when a shared session is gone; another instance may still be using it
+        nearCache.invalidate(sessionId);
+    }
+
+    @Override
+    public void evictLocal(String sessionId) {
+        nearCache.invalidate(sessionId);
+    }
+
+    @Override
+    public boolean isShared() {
+        return true;
+    }
+
+    @Override
+    public int localSessionCount() {
+        return (int) nearCache.estimatedSize();
+    }
+
+    @PreDestroy
+    public void close() {
+        running = false;
+        LockSupport.unpark(flusher);
+        try {
+            flusher.join(2000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flushPending();
+        client.close();
+    }
+
+    /**
+     * Near-cache entry for a session, loading it with one pipelined round trip on a miss.
+     * Nothing is cached when the load fails.
+     */
+    private NearEntry load(String sessionId) {
+        NearEntry entry = cached(sessionId);
+        if (entry != null) {
+            return entry;
+        }
+
+        AtomicLong sequence = stripe(sessionId).sequence;
+        long seen = sequence.get();
+        NearEntry loaded;
+        try {
+            loaded = fetch(sessionId);
+        } catch (IOException e) {
+            log.error("Error loading session from Redis: {}", e.getMessage());
+            return null;
+        }
+        if (loaded == null || sequence.get() != seen) {
+            return loaded;
+        }
+
+        NearEntry existing = nearCache.asMap().putIfAbsent(sessionId, loaded);
+        if (existing != null) {
+            return existing;
+        }
+        // A write that missed the new entry must not leave it cached without that write
+        if (sequence.get() != seen) {
+            nearCache.asMap().remove(sessionId, loaded);
+        }
+        return loaded;
+    }
+
+    /**
+     * Cached entry, brought up to date with the server unless sessions are sticky; null if
+     * the session is not cached or the entry could not be validated
+     */
+    private NearEntry cached(String sessionId) {
+        NearEntry entry = nearCache.getIfPresent(sessionId);
+        if (entry == null || stickySessions || validate(sessionId, entry)) {
+            return entry;
+        }
+        nearCache.asMap().remove(sessionId, entry);
+        return null;
+    }
+
+    private NearEntry fetch(String sessionId) throws IOException {
+        long now = System.currentTimeMillis();
+        // Our own queued writes must land before we read the session back
+        flush(sessionId);
+
+        // The version is read first: every change it counts is already in what follows
+        List<String[]> commands = new ArrayList<>();
+        commands.add(new String[]{"GET", versionKey(sessionId)});
+        commands.add(new String[]{"LRANGE", messagesKey(sessionId), "0", "-1"});
+        commands.add(new String[]{"GET", summaryKey(sessionId)});
+        List<Object> replies = client.pipeline(commands);
+
+        List<ChatMessage> messages = parseMessages(replies.get(1));
+        if (messages.isEmpty()) {
+            return null;
+        }
+
+        NearEntry entry = new NearEntry(messages);
+        entry.summary = parseSummary(replies.get(2));
+        entry.version = parseVersion(replies.get(0));
+        entry.validatedAt = now;
+        return entry;
+    }
+
+    /**
+     * Whether a cached entry still matches the server. Trusted without a round trip if it
+     * was checked within validate-interval-ms and this instance has not written to it since;
+     * after our own write the tail is fetched straight away, otherwise the version is
+     * compared first.
+     */
+    private boolean validate(String sessionId, NearEntry entry) {
+        long now = System.currentTimeMillis();
+        long writes;
+        boolean written;
+        synchronized (entry) {
+            writes = entry.localWrites;
+            written = writes != entry.validatedWrites;
+            if (!written && now - entry.validatedAt < validateIntervalMs) {
+                return true;
+            }
+        }
+
+        try {
+            flush(sessionId);
+            if (!written) {
+                Object reply = client.execute("GET", versionKey(sessionId));
+                if (reply instanceof RespClient.RespError) {
+                    throw new IOException(reply.toString());
+                }
+                long version = parseVersion(reply);
+                synchronized (entry) {
+                    if (version == entry.version) {
+                        entry.validated(now, writes);
+                        return true;
+                    }
+                }
+            }
+            return catchUp(sessionId, entry, now, writes);
+
+        } catch (IOException e) {
+            log.error("Error revalidating session from Redis: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Append whatever was added since the entry was cached and refresh its summary. Returns
+     * false if the cached messages are no longer a prefix of the list.
+     */
+    private boolean catchUp(String sessionId, NearEntry entry, long now, long writes) throws IOException {
+        int known;
+        String lastId;
+        synchronized (entry) {
+            known = entry.messages.size();
+            lastId = known == 0 ? null : entry.messages.get(known - 1).getId();
+        }
+
+        List<String[]> commands = new ArrayList<>();
+        commands.add(new String[]{"GET", versionKey(sessionId)});
+        commands.add(new String[]{"LRANGE", messagesKey(sessionId), Integer.toString(Math.max(0, known - 1)), "-1"});
+        commands.add(new String[]{"GET", summaryKey(sessionId)});
+        List<Object> replies = client.pipeline(commands);
+
+        // The tail starts with our last cached message, if we had one
+        List<ChatMessage> tail = parseMessages(replies.get(1));
+        int overlap = known == 0 ? 0 : 1;
+        if (overlap == 1 && (tail.isEmpty() || !Objects.equals(lastId, tail.get(0).getId()))) {
+            return false;
+        }
+        ConversationSummary summary = parseSummary(replies.get(2));
+        long version = parseVersion(replies.get(0));
+
+        synchronized (entry) {
+            // Another reader may have caught the entry up in the meantime
+            for (int i = overlap + entry.messages.size() - known; i < tail.size(); i++) {
+                entry.messages.add(tail.get(i));
+            }
+            if (version >= entry.version) {
+                entry.summary = summary;
+                entry.version = version;
+            }
+            entry.validated(now, writes);
+        }
+        return true;
+    }
+
+    private List<ChatMessage> parseMessages(Object reply) throws IOException {
+        List<ChatMessage> messages = new ArrayList<>();
+        if (reply instanceof List) {
+            for (Object item : (List<?>) reply) {
+                messages.add(objectMapper.readValue((String) item, ChatMessage.class));
+            }
+        } else if (reply instanceof RespClient.RespError) {
+            throw new IOException(reply.toString());
+        }
+        return messages;
+    }
+
+    private ConversationSummary parseSummary(Object reply) throws IOException {
+        return reply instanceof String ? objectMapper.readValue((String) reply, ConversationSummary.class) : null;
+    }
+
+    private static long parseVersion(Object reply) throws IOException {
+        if (reply instanceof RespClient.RespError) {
+            throw new IOException(reply.toString());
+        }
+        return reply instanceof String ? Long.parseLong((String) reply) : 0;
+    }
+
+    /**
+     * Queue one write followed by a bump of the session's version, which readers compare
+     * against their cached copy; the bump goes after the change so a reader that sees the
+     * new version also sees the change
+     */
+    private void enqueue(String sessionId, String[]... commands) {
+        WriteStripe stripe = stripe(sessionId);
+        stripe.sequence.incrementAndGet();
+        String versionKey = versionKey(sessionId);
+        Collections.addAll(stripe.queue, commands);
+        stripe.queue.add(new String[]{"INCR", versionKey});
+        stripe.queue.add(new String[]{"PEXPIRE", versionKey, Long.toString(sessionTtlMs)});
+        LockSupport.unpark(flusher);
+    }
+
+    /**
+     * Without sticky routing our own write reaches a cached entry through the server, so
+     * the next read catches up regardless of the validate interval
+     */
+    private void markWritten(NearEntry entry) {
+        if (entry != null && !stickySessions) {
+            synchronized (entry) {
+                entry.localWrites++;
+            }
+        }
+    }
+
+    private void flushLoop() {
+        while (running) {
+            if (!hasPending()) {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(100));
+            }
+            flushPending();
+        }
+    }
+
+    private boolean hasPending() {
+        for (WriteStripe stripe : stripes) {
+            if (!stripe.queue.isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Send one session's queued writes (and those of its stripe) before reading it back
+     */
+    private void flush(String sessionId) {
+        WriteStripe stripe = stripe(sessionId);
+        stripe.lock.lock();
+        try {
+            List<String[]> batch = new ArrayList<>();
+            stripe.drainTo(batch);
+            send(batch);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * Send everything queued so far as one pipeline. Each stripe's lock is held until the
+     * batch is on the server, so a session's writes arrive in the order they were queued,
+     * whichever thread sends them. Locks are taken in stripe order; readers hold at most one.
+     */
+    void flushPending() {
+        List<WriteStripe> locked = new ArrayList<>();
+        List<String[]> batch = new ArrayList<>();
+        try {
+            for (WriteStripe stripe : stripes) {
+                if (!stripe.queue.isEmpty()) {
+                    stripe.lock.lock();
+                    locked.add(stripe);
+                    stripe.drainTo(batch);
+                }
+            }
+            send(batch);
+        } finally {
+            for (WriteStripe stripe : locked) {
+                stripe.lock.unlock();
+            }
+        }
+    }
+
+    private void send(List<String[]> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            client.pipeline(batch);
+        } catch (IOException e) {
+            log.error("Error writing {} session commands to Redis: {}", batch.size(), e.getMessage());
+        }
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot serialize " + value.getClass().getSimpleName(), e);
+        }
+    }
+
+    private WriteStripe stripe(String sessionId) {
+        return stripes[(sessionId.hashCode() & Integer.MAX_VALUE) % stripes.length];
+    }
+
+    private static String messagesKey(String sessionId) {
+        return KEY_PREFIX + sessionId + ":messages";
+    }
+
+    private static String summaryKey(String sessionId) {
+        return KEY_PREFIX + sessionId + ":summary";
+    }
+
+    private static String versionKey(String sessionId) {
+        return KEY_PREFIX + sessionId + ":version";
+    }
+
+    private static class WriteStripe {
+        final ReentrantLock lock = new ReentrantLock();
+        final Queue<String[]> queue = new ConcurrentLinkedQueue<>();
+        final AtomicLong sequence = new AtomicLong();
+
+        void drainTo(List<String[]> batch) {
+            String[] command;
+            while ((command = queue.poll()) != null) {
+                batch.add(command);
+            }
+        }
+    }
+
+    /**
+     * Cached session. Apart from the summary, fields are guarded by the entry's monitor.
+     */
+    private static class NearEntry {
+        final List<ChatMessage> messages;
+        volatile ConversationSummary summary;
+        long version;          // server version the messages and summary reflect
+        long validatedAt;      // when the entry was last checked against the server
+        long localWrites;      // writes this instance made to the session
+        long validatedWrites;  // localWrites covered by the last check
+
+        NearEntry(List<ChatMessage> messages) {
+            this.messages = messages;
+        }
+
+        void validated(long at, long writes) {
+            validatedAt = Math.max(validatedAt, at);
+            validatedWrites = Math.max(validatedWrites, writes);
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package com.project.ChatBot.service;
+
+import java.io.*;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Minimal pipelining client for the Redis serialization protocol (RESP2).
+ *
+ * Every call sends a batch of commands in one write and reads all replies back, so a
+ * batch costs a single round trip. Connections are pooled and replaced after I/O errors.
+ */
+public class RespClient implements Closeable {
+
+    private final String host;
+    private final int port;
+    private final int timeoutMs;
+    private final BlockingQueue<Connection> pool;
+
+    public RespClient(String host, int port, int poolSize, int timeoutMs) {
+        this.host = host;
+        this.port = port;
+        this.timeoutMs = timeoutMs;
+        this.pool = new ArrayBlockingQueue<>(poolSize);
+        for (int i = 0; i < poolSize; i++) {
+            pool.add(new Connection());
+        }
+    }
+
+    /**
+     * Send all commands in one round trip; replies are returned in order.
+     * Error replies come back as {@link RespError} values rather than exceptions.
+     */
+    public List<Object> pipeline(List<String[]> commands) throws IOException {
+        if (commands.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Connection connection;
+        try {
+            connection = pool.poll(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted waiting for a Redis connection");
+        }
+        if (connection == null) {
+            throw new IOException("No Redis connection available within " + timeoutMs + "ms");
+        }
+
+        try {
+            return connection.execute(commands);
+        } catch (IOException e) {
+            connection.close();
+            throw e;
+        } finally {
+            pool.add(connection);
+        }
+    }
+
+    public Object execute(String... command) throws IOException {
+        List<String[]> commands = new ArrayList<>();
+        commands.add(command);
+        return pipeline(commands).get(0);
+    }
+
+    @Override
+    public void close() {
+        for (Connection connection : pool) {
+            connection.close();
+        }
+    }
+
+    /**
+     * Error reply from the server
+     */
+    public static class RespError {
+        private final String message;
+
+        RespError(String message) {
+            this.message = message;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        @Override
+        public String toString() {
+            return message;
+        }
+    }
+
+    private class Connection {
+        private Socket socket;
+        private OutputStream out;
+        private InputStream in;
+
+        List<Object> execute(List<String[]> commands) throws IOException {
+            ensureOpen();
+
+            for (String[] command : commands) {
+                writeCommand(command);
+            }
+            out.flush();
+
+            List<Object> replies = new ArrayList<>(commands.size());
+            for (int i = 0; i < commands.size(); i++) {
+                replies.add(readReply());
+            }
+            return replies;
+        }
+
+        private void ensureOpen() throws IOException {
+            if (socket != null && !socket.isClosed()) {
+                return;
+            }
+            socket = new Socket();
+            socket.connect(new InetSocketAddress(host, port), timeoutMs);
+            socket.setSoTimeout(timeoutMs);
+            socket.setTcpNoDelay(true);
+            out = new BufferedOutputStream(socket.getOutputStream(), 16 * 1024);
+            in = new BufferedInputStream(socket.getInputStream(), 16 * 1024);
+        }
+
+        private void writeCommand(String[] command) throws IOException {
+            out.write(('*' + Integer.toString(command.length) + "\r\n").getBytes(StandardCharsets.US_ASCII));
+            for (String argument : command) {
+                byte[] bytes = argument.getBytes(StandardCharsets.UTF_8);
+                out.write(('$' + Integer.toString(bytes.length) + "\r\n").getBytes(StandardCharsets.US_ASCII));
+                out.write(bytes);
+                out.write('\r');
+                out.write('\n');
+            }
+        }
+
+        private Object readReply() throws IOException {
+            int type = in.read();
+            if (type == -1) {
+                throw new EOFException("Redis connection closed");
+            }
+
+            String line = readLine();
+            switch (type) {
+                case '+':
+                    return line;
+                case '-':
+                    return new RespError(line);
+                case ':':
+                    return Long.parseLong(line);
+                case '$': {
+                    int length = Integer.parseInt(line);
+                    if (length < 0) {
+                        return null;
+                    }
+                    byte[] data = in.readNBytes(length);
+                    readLine(); // trailing CRLF
+                    return new String(data, StandardCharsets.UTF_8);
+                }
+                case '*': {
+                    int count = Integer.parseInt(line);
+                    if (count < 0) {
+                        return null;
+                    }
+                    List<Object> items = new ArrayList<>(count);
+                    for (int i = 0; i < count; i++) {
+                        items.add(readReply());
+                    }
+                    return items;
+                }
+                default:
+                    throw new IOException("Unexpected RESP reply type: " + (char) type);
+            }
+        }
+
+        private String readLine() throws IOException {
+            StringBuilder line = new StringBuilder();
+            int c;
+            while ((c = in.read()) != -1) {
+                if (c == '\r') {
+                    in.read(); // '\n'
+                    return line.toString();
+                }
+                line.append((char) c);
+            }
+            throw new EOFException("Redis connection closed");
+        }
+
+        void close() {
+            try {
+                if (socket != null) {
+                    socket.close();
+                }
+            } catch (IOException ignored) {
+                // Replaced on next use
+            }
+            socket = null;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.project.ChatBot.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+
+/**
+ * Hashed timing wheel for session expiry.
+ *
+ * Each session holds at most one slot in the wheel. When its slot comes round the
+ * session's real last activity is checked: idle sessions are expired, active ones are
+ * simply re-armed for their new deadline. Scheduling and expiry are O(1) per session,
+ * and all of it happens on the thread calling {@link #advance}.
+ */
+public class SessionExpiryWheel {
+
+    private final long tickMillis;
+    private final Queue<Entry>[] slots;
+    private final Map<String, Entry> scheduled = new ConcurrentHashMap<>();
+    private volatile long currentTick;
+
+    @SuppressWarnings("unchecked")
+    public SessionExpiryWheel(long tickMillis, int wheelSize, long startMillis) {
+        this.tickMillis = tickMillis;
+        this.slots = new Queue[wheelSize];
+        for (int i = 0; i < wheelSize; i++) {
+            slots[i] = new ConcurrentLinkedQueue<>();
+        }
+        this.currentTick = startMillis / tickMillis;
+    }
+
+    /**
+     * Arm expiry for a session unless it already has a pending slot
+     */
+    public void schedule(String sessionId, long deadlineMillis) {
+        Entry entry = new Entry(sessionId);
+        if (scheduled.putIfAbsent(sessionId, entry) == null) {
+            place(entry, deadlineMillis);
+        }
+    }
+
+    /**
+     * Forget a session that was removed by other means
+     */
+    public void cancel(String sessionId) {
+        scheduled.remove(sessionId);
+    }
+
+    /**
+     * Process every slot up to the given time.
+     *
+     * @param deadlineOf current deadline of a session, or -1 if it no longer exists
+     * @param onExpired  called for each session whose deadline has passed; returns false if
+     *                   the session was not expired after all (e.g. it was active again)
+     * @return number of sessions expired
+     */
+    public int advance(long nowMillis, ToLongFunction<String> deadlineOf, Predicate<String> onExpired) {
+        long targetTick = nowMillis / tickMillis;
+        int expired = 0;
+
+        while (currentTick <= targetTick) {
+            Queue<Entry> slot = slots[(int) (currentTick % slots.length)];
+            List<Entry> rearm = new ArrayList<>();
+            List<Entry> moved = new ArrayList<>();
+
+            Entry entry;
+            while ((entry = slot.poll()) != null) {
+                if (entry.rounds > 0) {
+                    entry.rounds--;
+                    rearm.add(entry);
+                    continue;
+                }
+
+                if (scheduled.get(entry.sessionId) != entry) {
+                    continue; // cancelled, possibly re-armed under a new entry
+                }
+
+                long deadline = deadlineOf.applyAsLong(entry.sessionId);
+                if (deadline < 0) {
+                    scheduled.remove(entry.sessionId, entry);
+                } else if (deadline <= nowMillis) {
+                    scheduled.remove(entry.sessionId, entry);
+                    if (onExpired.test(entry.sessionId)) {
+                        expired++;
+                    }
+                } else {
+                    // Session was active since it was armed - move it to its new deadline
+                    entry.deadline = deadline;
+                    moved.add(entry);
+                }
+            }
+
+            slot.addAll(rearm);
+            currentTick++;
+            for (Entry movedEntry : moved) {
+                place(movedEntry, movedEntry.deadline);
+            }
+        }
+
+        return expired;
+    }
+
+    public int size() {
+        return scheduled.size();
+    }
+
+    private void place(Entry entry, long deadlineMillis) {
+        long tick = currentTick;
+        long deadlineTick = Math.max(deadlineMillis / tickMillis, tick);
+        entry.rounds = (deadlineTick - tick) / slots.length;
+        slots[(int) (deadlineTick % slots.length)].add(entry);
+    }
+
+    private static class Entry {
+        final String sessionId;
+        volatile long rounds;
+        long deadline;
+
+        Entry(String sessionId) {
+            this.sessionId = sessionId;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.project.ChatBot.service;
+
+import com.project.ChatBot.model.ChatMessage;
+import com.project.ChatBot.model.ConversationSummary;
+
+import java.util.List;
+
+/**
+ * Storage SPI for chat sessions (messages plus rolling summary).
+ *
+ * The implementation is selected with chatbot.session.store: "memory" keeps sessions in
+ * this JVM, "redis" keeps them in a Redis-protocol server so several instances can share
+ * them without sticky routing.
+ */
+public interface SessionStore {
+
+    /**
+     * Append a message to the end of a session, creating it if needed
+     */
+    void append(String sessionId, ChatMessage message);
+
+    /**
+     * Messages in [from, to), clamped to the session's size; an empty list if unknown
+     */
+    List<ChatMessage> getRange(String sessionId, int from, int to);
+
+    int size(String sessionId);
+
+    boolean exists(String sessionId);
+
+    ConversationSummary getSummary(String sessionId);
+
+    void putSummary(String sessionId, ConversationSummary summary);
+
+    /**
+     * Remove a session everywhere
+     */
+    void delete(String sessionId);
+
+    /**
+     * The session idled out on this instance. Local stores delete it; shared stores let
+     * their own TTL decide and only drop what this instance holds.
+     */
+    void expire(String sessionId);
+
+    /**
+     * Drop whatever copy of the session this instance holds in memory
+     */
+    void evictLocal(String sessionId);
+
+    /**
+     * Whether other instances see the same sessions (and the store survives restarts)
+     */
+    boolean isShared();
+
+    int localSessionCount();
+}
@@ -0,0 +1,63 @@
+package com.project.ChatBot.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Startup milestones measured from JVM start: when the corpus was loaded and warm (ready)
+ * and when the first chat answer went out.
+ */
+@Component
+public class StartupTimings {
+
+    private static final Logger log = LoggerFactory.getLogger(StartupTimings.class);
+
+    private final long jvmStartedAt = ManagementFactory.getRuntimeMXBean().getStartTime();
+
+    private volatile boolean ready = false;
+    private volatile long readyAt = 0;
+    private volatile long snapshotLoadMs = 0;
+    private volatile String snapshotSource = "none";
+    private final AtomicLong firstAnswerAt = new AtomicLong(0);
+
+    /**
+     * The corpus snapshot is loaded and warm; the service can answer from it
+     */
+    public void markReady(String source, long loadMs) {
+        this.snapshotSource = source;
+        this.snapshotLoadMs = loadMs;
+        this.readyAt = System.currentTimeMillis();
+        this.ready = true;
+        log.info("⏱️ Ready in {}ms (corpus {} in {}ms)", (readyAt - jvmStartedAt), source, loadMs);
+    }
+
+    /**
+     * Called after every answer; only the first one is recorded
+     */
+    public void recordAnswer() {
+        if (firstAnswerAt.get() == 0 && firstAnswerAt.compareAndSet(0, System.currentTimeMillis())) {
+            log.info("⏱️ First answer {}ms after JVM start", (firstAnswerAt.get() - jvmStartedAt));
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        long firstAnswer = firstAnswerAt.get();
+        stats.put("ready", ready);
+        stats.put("snapshot_source", snapshotSource);
+        stats.put("snapshot_load_ms", snapshotLoadMs);
+        stats.put("time_to_ready_ms", ready ? readyAt - jvmStartedAt : -1);
+        stats.put("time_to_first_answer_ms", firstAnswer > 0 ? firstAnswer - jvmStartedAt : -1);
+        return stats;
+    }
+}
@@ -0,0 +1,245 @@
+package com.project.ChatBot.service;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.text.PDFTextStripper;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.text.Normalizer;
+
+/**
+ * Single-pass cleanup for extracted text, fed one character at a time.
+ *
+ * In one pass it collapses runs of spaces and tabs, drops trailing spaces on a line,
+ * keeps at most one blank line between paragraphs, joins words hyphenated across a line
+ * break ("employ-\nees" becomes "employees"), folds typographic ligatures and applies NFKC
+ * to runs of other non-ASCII characters. Output goes into a buffer that is reused per
+ * thread. The normalizer is a {@link Writer}, so PDFBox can stream straight into it
+ * without building the raw text first.
+ */
+public final class TextNormalizer extends Writer {
+
+    private static final ThreadLocal<TextNormalizer> LOCAL = ThreadLocal.withInitial(TextNormalizer::new);
+
+    // Buffers larger than this are not kept for reuse
+    private static final int MAX_RETAINED_CAPACITY = 4 * 1024 * 1024;
+
+    private final StringBuilder out = new StringBuilder(8 * 1024);
+    private final StringBuilder nonAscii = new StringBuilder(16);
+
+    private boolean pendingSpace;
+    private int pendingNewlines;
+    private boolean pendingHyphen;     // '-' right after a letter, held back until we know what follows
+    private boolean hyphenLineBreak;   // a line break followed the held-back hyphen
+    private char previousRaw;
+
+    private TextNormalizer() {
+    }
+
+    /**
+     * Normalize a complete string
+     */
+    public static String normalize(CharSequence text) {
+        if (text == null) {
+            return null;
+        }
+        TextNormalizer normalizer = LOCAL.get();
+        normalizer.reset();
+        for (int i = 0; i < text.length(); i++) {
+            normalizer.accept(text.charAt(i));
+        }
+        return normalizer.finish();
+    }
+
+    /**
+     * Run PDFBox text extraction straight through the normalizer
+     */
+    public static String extract(PDFTextStripper stripper, PDDocument document) throws IOException {
+        TextNormalizer normalizer = LOCAL.get();
+        normalizer.reset();
+        stripper.writeText(document, normalizer);
+        return normalizer.finish();
+    }
+
+    private void reset() {
+        if (out.capacity() > MAX_RETAINED_CAPACITY) {
+            out.setLength(0);
+            out.trimToSize();
+        }
+        out.setLength(0);
+        nonAscii.setLength(0);
+        pendingSpace = false;
+        pendingNewlines = 0;
+        pendingHyphen = false;
+        hyphenLineBreak = false;
+        previousRaw = 0;
+    }
+
+    private String finish() {
+        flushNonAscii();
+        if (pendingHyphen) {
+            out.append('-');
+        }
+        String result = out.toString();
+        reset();
+        return result;
+    }
+
+    @Override
+    public void write(char[] buffer, int offset, int length) {
+        for (int i = offset; i < offset + length; i++) {
+            accept(buffer[i]);
+        }
+    }
+
+    @Override
+    public void write(String text, int offset, int length) {
+        for (int i = offset; i < offset + length; i++) {
+            accept(text.charAt(i));
+        }
+    }
+
+    @Override
+    public void flush() {
+        // Everything is kept in memory until finish()
+    }
+
+    @Override
+    public void close() {
+        // Reused per thread; nothing to release
+    }
+
+    private void accept(char c) {
+        char raw = previousRaw;
+        previousRaw = c;
+
+        if (c < 0x80) {
+            flushNonAscii();
+            if (c == '\n' && raw == '\r') {
+                return; // CRLF already counted at the '\r'
+            }
+            if ((c < 0x20 && c != '\t' && c != '\n' && c != '\r' && c != '\f' && c != '\u000B') || c == 0x7F) {
+                return; // Control characters some PDFs emit, such as NUL
+            }
+            emit(c);
+            return;
+        }
+
+        String ligature = ligature(c);
+        if (ligature != null) {
+            flushNonAscii();
+            for (int i = 0; i < ligature.length(); i++) {
+                emit(ligature.charAt(i));
+            }
+            return;
+        }
+
+        if (c == '\u00AD' || c == '\u200B' || c == '\uFEFF') {
+            return; // Soft hyphen, zero-width space, byte order mark
+        }
+
+        if (nonAscii.length() == 0 && Character.getType(c) == Character.NON_SPACING_MARK
+                && out.length() > 0 && !pendingSpace && pendingNewlines == 0 && !pendingHyphen) {
+            // A combining accent composes with the ASCII letter before it ("e" + U+0301)
+            nonAscii.append(out.charAt(out.length() - 1));
+            out.setLength(out.length() - 1);
+        }
+        nonAscii.append(c);
+    }
+
+    private void flushNonAscii() {
+        if (nonAscii.length() == 0) {
+            return;
+        }
+        String run = nonAscii.toString();
+        nonAscii.setLength(0);
+        if (!Normalizer.isNormalized(run, Normalizer.Form.NFKC)) {
+            run = Normalizer.normalize(run, Normalizer.Form.NFKC);
+        }
+        for (int i = 0; i < run.length(); i++) {
+            emit(run.charAt(i));
+        }
+    }
+
+    /**
+     * Whitespace and hyphenation state machine over already-folded characters
+     */
+    private void emit(char c) {
+        boolean lineBreak = c == '\n' || c == '\r' || c == '\u2028' || c == '\u2029';
+        boolean space = !lineBreak && (c == ' ' || c == '\t' || c == '\f' || c == '\u000B' || Character.isSpaceChar(c));
+
+        if (pendingHyphen) {
+            if (lineBreak) {
+                hyphenLineBreak = true;
+                return;
+            }
+            if (space) {
+                if (!hyphenLineBreak) {
+                    // "well- known" is not a line-end hyphen
+                    out.append('-');
+                    pendingHyphen = false;
+                    pendingSpace = true;
+                }
+                return;
+            }
+            pendingHyphen = false;
+            if (hyphenLineBreak && Character.isLowerCase(c)) {
+                hyphenLineBreak = false;
+                out.append(c); // Rejoin the word split across lines
+                return;
+            }
+            out.append('-');
+            if (hyphenLineBreak) {
+                pendingNewlines = 1;
+            }
+            hyphenLineBreak = false;
+        }
+
+        if (lineBreak) {
+            pendingSpace = false; // Trailing spaces on a line are dropped
+            if (out.length() > 0) {
+                pendingNewlines = Math.min(2, pendingNewlines + 1);
+            }
+            return;
+        }
+        if (space) {
+            if (out.length() > 0 && pendingNewlines == 0) {
+                pendingSpace = true;
+            }
+            return;
+        }
+
+        if (pendingNewlines > 0) {
+            for (int i = 0; i < pendingNewlines; i++) {
+                out.append('\n');
+            }
+            pendingNewlines = 0;
+            pendingSpace = false;
+        } else if (pendingSpace) {
+            out.append(' ');
+            pendingSpace = false;
+        }
+
+        if (c == '-' && out.length() > 0 && Character.isLetter(out.charAt(out.length() - 1))) {
+            pendingHyphen = true;
+            return;
+        }
+        out.append(c);
+    }
+
+    private static String ligature(char c) {
+        switch (c) {
+            case '\uFB00': return "ff";
+            case '\uFB01': return "fi";
+            case '\uFB02': return "fl";
+            case '\uFB03': return "ffi";
+            case '\uFB04': return "ffl";
+            case '\uFB05':
+            case '\uFB06': return "st";
+            case '\u00A0': return " ";
+            case '\u2010':
+            case '\u2011': return "-";
+            default: return null;
+        }
+    }
+}
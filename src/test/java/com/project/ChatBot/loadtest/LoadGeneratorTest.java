@@ -0,0 +1,67 @@
+package com.project.ChatBot.loadtest;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoadGeneratorTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void kneeIsTheLastStageBeforeLatencyClimbs() {
+        List<LoadGenerator.StageResult> results = new ArrayList<>();
+        double[][] curve = {{1, 900}, {2, 910}, {5, 950}, {10, 1100}, {20, 6000}, {40, 15000}};
+        for (double[] point : curve) {
+            LoadGenerator.StageResult result = new LoadGenerator.StageResult();
+            result.offeredRate = point[0];
+            result.p95Ms = point[1];
+            results.add(result);
+        }
+
+        LoadGenerator.markKnee(results);
+
+        List<Double> knees = new ArrayList<>();
+        for (LoadGenerator.StageResult result : results) {
+            if (result.knee) {
+                knees.add(result.offeredRate);
+            }
+        }
+        assertEquals(List.of(10.0), knees);
+    }
+
+    @Test
+    void percentilesUseNearestRank() {
+        long[] sorted = new long[100];
+        for (int i = 0; i < sorted.length; i++) {
+            sorted[i] = (i + 1) * 1_000_000L;
+        }
+        assertEquals(50.0, LoadGenerator.percentileMs(sorted, 0.50));
+        assertEquals(95.0, LoadGenerator.percentileMs(sorted, 0.95));
+        assertEquals(99.0, LoadGenerator.percentileMs(sorted, 0.99));
+        assertEquals(0.0, LoadGenerator.percentileMs(new long[0], 0.99));
+    }
+
+    @Test
+    void mixRepeatsQuestionsByWeight() throws IOException {
+        Path mix = dir.resolve("mix.txt");
+        Files.writeString(mix, "# comment\n3|What is the leave policy?\n\nTell me a joke\n25 + 17|is not a weight\n");
+
+        List<String> questions = LoadGenerator.loadMix(mix.toString());
+
+        assertEquals(5, questions.size());
+        assertEquals(3, Collections.frequency(questions, "What is the leave policy?"));
+        assertTrue(questions.contains("Tell me a joke"));
+        assertTrue(questions.contains("25 + 17|is not a weight"));
+        assertFalse(LoadGenerator.loadMix(null).isEmpty());
+    }
+}
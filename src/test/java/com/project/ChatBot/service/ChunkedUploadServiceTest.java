@@ -0,0 +1,96 @@
+package com.project.ChatBot.service;
+
+import com.project.ChatBot.model.IngestionJob;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChunkedUploadServiceTest {
+
+    @TempDir
+    Path dir;
+
+    private final AtomicInteger failSubmissions = new AtomicInteger();
+    private final AtomicInteger submissions = new AtomicInteger();
+    private ChunkedUploadService service;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        // Ingestion that refuses the hand-over while failSubmissions is positive
+        IngestionService ingestionService = new IngestionService() {
+            @Override
+            public IngestionJob submitStaged(Path staged, String fileName, String knownHash) {
+                if (failSubmissions.getAndDecrement() > 0) {
+                    throw new IllegalStateException("Ingestion unavailable");
+                }
+                submissions.incrementAndGet();
+                return new IngestionJob("job-" + submissions.get(), fileName);
+            }
+        };
+        DocumentService documentService = new DocumentService() {
+            @Override
+            public CorpusSnapshot currentSnapshot() {
+                return CorpusSnapshot.empty();
+            }
+        };
+
+        service = new ChunkedUploadService();
+        ReflectionTestUtils.setField(service, "ingestionService", ingestionService);
+        ReflectionTestUtils.setField(service, "documentService", documentService);
+        ReflectionTestUtils.setField(service, "tempDir", dir.toString());
+        ReflectionTestUtils.setField(service, "sessionTtlMs", 60_000L);
+        ReflectionTestUtils.setField(service, "maxSize", 1024L * 1024);
+        service.init();
+    }
+
+    @Test
+    void failedCompletionCanBeRetried() throws Exception {
+        String uploadId = upload("Leave requests go through the portal");
+        failSubmissions.set(1);
+
+        assertThrows(IllegalStateException.class, () -> service.complete(uploadId));
+        assertNotNull(service.get(uploadId), "the session must survive a failed hand-over");
+        assertThrows(IllegalArgumentException.class, () -> service.append(uploadId, 0, body("more")),
+                "no parts after the file was closed for completion");
+
+        IngestionJob job = service.complete(uploadId);
+
+        assertEquals("Leave.txt", job.getFileName());
+        assertEquals(1, submissions.get());
+        assertNull(service.get(uploadId));
+    }
+
+    @Test
+    void completedUploadCannotBeCompletedTwice() throws Exception {
+        String uploadId = upload("Leave requests go through the portal");
+        ChunkedUploadService.UploadSession session = service.get(uploadId);
+        service.complete(uploadId);
+
+        // A caller that looked the session up before it was handed over
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> ReflectionTestUtils.invokeMethod(ChunkedUploadService.class, "requireOpen", session));
+        assertTrue(e.getMessage().contains("already complete"));
+        assertEquals(1, submissions.get());
+    }
+
+    private String upload(String text) throws Exception {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        String uploadId = (String) service.start("Leave.txt", bytes.length).toStatus().get("uploadId");
+        service.append(uploadId, 0, new ByteArrayInputStream(bytes));
+        assertTrue(Files.exists(dir.resolve(uploadId + ".part")));
+        return uploadId;
+    }
+
+    private static ByteArrayInputStream body(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,182 @@
+package com.project.ChatBot.service;
+
+import java.io.*;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tiny in-process stand-in for a Redis server, covering the commands the session store uses
+ */
+class EmbeddedRespServer implements Closeable {
+
+    private final ServerSocket serverSocket;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final Map<String, Object> data = new ConcurrentHashMap<>();
+    private final AtomicInteger commandBatches = new AtomicInteger();
+
+    EmbeddedRespServer() throws IOException {
+        serverSocket = new ServerSocket(0);
+        executor.execute(this::acceptLoop);
+    }
+
+    int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Number of times a client sent one or more commands before reading replies
+     */
+    int getCommandBatches() {
+        return commandBatches.get();
+    }
+
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                executor.execute(() -> serve(socket));
+            } catch (IOException e) {
+                return;
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        try (socket) {
+            BufferedInputStream in = new BufferedInputStream(socket.getInputStream());
+            BufferedOutputStream out = new BufferedOutputStream(socket.getOutputStream());
+            while (true) {
+                List<String> command = readCommand(in);
+                if (command == null) {
+                    return;
+                }
+                if (in.available() == 0) {
+                    // Last command of the batch the client wrote in one go
+                    commandBatches.incrementAndGet();
+                }
+                writeReply(out, handle(command));
+                if (in.available() == 0) {
+                    out.flush();
+                }
+            }
+        } catch (IOException e) {
+            // Client went away
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private synchronized Object handle(List<String> command) {
+        String name = command.get(0).toUpperCase();
+        switch (name) {
+            case "PING":
+                return "+PONG";
+            case "RPUSH": {
+                List<String> list = (List<String>) data.computeIfAbsent(command.get(1), k -> new ArrayList<String>());
+                list.addAll(command.subList(2, command.size()));
+                return (long) list.size();
+            }
+            case "LRANGE": {
+                List<String> list = (List<String>) data.getOrDefault(command.get(1), new ArrayList<String>());
+                int size = list.size();
+                int start = Integer.parseInt(command.get(2));
+                int stop = Integer.parseInt(command.get(3));
+                if (start < 0) start = Math.max(0, size + start);
+                if (stop < 0) stop = size + stop;
+                stop = Math.min(stop, size - 1);
+                return start > stop ? new ArrayList<String>() : new ArrayList<>(list.subList(start, stop + 1));
+            }
+            case "LLEN": {
+                List<String> list = (List<String>) data.get(command.get(1));
+                return list == null ? 0L : (long) list.size();
+            }
+            case "INCR": {
+                long value = Long.parseLong((String) data.getOrDefault(command.get(1), "0")) + 1;
+                data.put(command.get(1), Long.toString(value));
+                return value;
+            }
+            case "GET": {
+                Object value = data.get(command.get(1));
+                return value instanceof String ? value : null;
+            }
+            case "SET":
+                data.put(command.get(1), command.get(2));
+                return "+OK";
+            case "DEL": {
+                long removed = 0;
+                for (String key : command.subList(1, command.size())) {
+                    if (data.remove(key) != null) removed++;
+                }
+                return removed;
+            }
+            case "EXISTS":
+                return data.containsKey(command.get(1)) ? 1L : 0L;
+            case "PEXPIRE":
+                return data.containsKey(command.get(1)) ? 1L : 0L;
+            default:
+                return new RespClient.RespError("ERR unknown command '" + name + "'") ;
+        }
+    }
+
+    private static List<String> readCommand(InputStream in) throws IOException {
+        int type = in.read();
+        if (type == -1) {
+            return null;
+        }
+        int count = Integer.parseInt(readLine(in));
+        List<String> parts = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            in.read(); // '$'
+            int length = Integer.parseInt(readLine(in));
+            parts.add(new String(in.readNBytes(length), StandardCharsets.UTF_8));
+            readLine(in);
+        }
+        return parts;
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        StringBuilder line = new StringBuilder();
+        int c;
+        while ((c = in.read()) != '\r') {
+            if (c == -1) throw new EOFException();
+            line.append((char) c);
+        }
+        in.read();
+        return line.toString();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void writeReply(OutputStream out, Object reply) throws IOException {
+        if (reply == null) {
+            out.write("$-1\r\n".getBytes(StandardCharsets.US_ASCII));
+        } else if (reply instanceof RespClient.RespError) {
+            out.write(("-" + reply + "\r\n").getBytes(StandardCharsets.UTF_8));
+        } else if (reply instanceof Long) {
+            out.write((":" + reply + "\r\n").getBytes(StandardCharsets.US_ASCII));
+        } else if (reply instanceof List) {
+            List<String> items = (List<String>) reply;
+            out.write(("*" + items.size() + "\r\n").getBytes(StandardCharsets.US_ASCII));
+            for (String item : items) {
+                writeReply(out, item);
+            }
+        } else if (((String) reply).startsWith("+")) {
+            out.write((reply + "\r\n").getBytes(StandardCharsets.UTF_8));
+        } else {
+            byte[] bytes = ((String) reply).getBytes(StandardCharsets.UTF_8);
+            out.write(("$" + bytes.length + "\r\n").getBytes(StandardCharsets.US_ASCII));
+            out.write(bytes);
+            out.write("\r\n".getBytes(StandardCharsets.US_ASCII));
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,84 @@
+package com.project.ChatBot.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GeminiCircuitBreakerTest {
+
+    private GeminiCircuitBreaker breaker(long openMs) {
+        GeminiCircuitBreaker breaker = new GeminiCircuitBreaker();
+        ReflectionTestUtils.setField(breaker, "failureThreshold", 3);
+        ReflectionTestUtils.setField(breaker, "openMs", openMs);
+        return breaker;
+    }
+
+    @Test
+    void opensAfterConsecutiveFailures() {
+        GeminiCircuitBreaker breaker = breaker(60_000);
+        breaker.recordFailure("HTTP 503");
+        breaker.recordFailure("HTTP 503");
+        breaker.recordSuccess();
+        breaker.recordFailure("HTTP 503");
+        breaker.recordFailure("HTTP 503");
+        assertEquals(GeminiCircuitBreaker.State.CLOSED, breaker.getState());
+        assertTrue(breaker.allowRequest());
+
+        breaker.recordFailure("HTTP 503");
+        assertEquals(GeminiCircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.allowRequest());
+    }
+
+    @Test
+    void halfOpenLetsOneProbeThrough() {
+        GeminiCircuitBreaker breaker = breaker(0);
+        for (int i = 0; i < 3; i++) {
+            breaker.recordFailure("I/O");
+        }
+        assertTrue(breaker.allowRequest());
+        assertEquals(GeminiCircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertFalse(breaker.allowRequest());
+
+        breaker.recordFailure("I/O");
+        assertEquals(GeminiCircuitBreaker.State.OPEN, breaker.getState());
+
+        assertTrue(breaker.allowRequest());
+        breaker.recordSuccess();
+        assertEquals(GeminiCircuitBreaker.State.CLOSED, breaker.getState());
+        assertTrue(breaker.getLastSuccessAt() > 0);
+    }
+
+    @Test
+    void probeEndingWithIgnoredErrorReopensTheCircuit() {
+        GeminiCircuitBreaker breaker = breaker(0);
+        for (int i = 0; i < 3; i++) {
+            breaker.recordFailure("HTTP 503");
+        }
+        assertTrue(breaker.allowRequest());
+        assertEquals(GeminiCircuitBreaker.State.HALF_OPEN, breaker.getState());
+
+        // e.g. a 400: neither a success nor a failure of the upstream
+        breaker.recordInconclusive();
+        assertEquals(GeminiCircuitBreaker.State.OPEN, breaker.getState());
+
+        // The next probe goes out once open-ms has passed
+        assertTrue(breaker.allowRequest());
+        breaker.recordSuccess();
+        assertEquals(GeminiCircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void inconclusiveCallOfAnotherThreadLeavesTheProbeAlone() throws InterruptedException {
+        GeminiCircuitBreaker breaker = breaker(0);
+        for (int i = 0; i < 3; i++) {
+            breaker.recordFailure("HTTP 503");
+        }
+        assertTrue(breaker.allowRequest());
+
+        Thread other = new Thread(breaker::recordInconclusive);
+        other.start();
+        other.join();
+        assertEquals(GeminiCircuitBreaker.State.HALF_OPEN, breaker.getState());
+    }
+}
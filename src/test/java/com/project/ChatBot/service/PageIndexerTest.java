@@ -0,0 +1,132 @@
+package com.project.ChatBot.service;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PageIndexerTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void replacingOnePageOnlyReextractsThatPage() throws IOException {
+        List<String> pages = new ArrayList<>();
+        for (int i = 1; i <= 6; i++) {
+            pages.add("Section " + i + " explains the leave policy for employees. Requests go through the portal");
+        }
+        Path original = writePdf("original.pdf", pages);
+        pages.set(3, "Section 4 now covers the hybrid work policy instead. Managers approve remote days weekly");
+        Path edited = writePdf("edited.pdf", pages);
+
+        CorpusSnapshot.DocumentEntry before = PageIndexer.index(original, "handbook.pdf", 1, 1, "a", null).getEntry();
+        PageIndexer.Result incremental = PageIndexer.index(edited, "handbook.pdf", 2, 1, "b", before);
+        PageIndexer.Result full = PageIndexer.index(edited, "handbook.pdf", 2, 1, "b", null);
+
+        assertEquals(1, incremental.getPagesExtracted());
+        assertEquals(5, incremental.getPagesReused());
+
+        // The incrementally updated entry must be indistinguishable from a full reindex
+        CorpusSnapshot.DocumentEntry updated = incremental.getEntry();
+        CorpusSnapshot.DocumentEntry expected = full.getEntry();
+        assertEquals(expected.getContent(), updated.getContent());
+        assertEquals(texts(expected), texts(updated));
+        assertEquals(postings(expected), postings(updated));
+        assertTrue(updated.getPages().get(3).getPostings().containsKey("hybrid"));
+
+        // Unchanged pages are carried over, not re-chunked
+        assertSame(before.getPages().get(0).getChunks(), updated.getPages().get(0).getChunks());
+    }
+
+    @Test
+    void insertedPageShiftsCarriedOverChunks() throws IOException {
+        List<String> pages = new ArrayList<>(List.of(
+                "Payroll runs on the last working day of the month. Payslips appear in the portal",
+                "Insurance covers the employee and two dependents. Claims are filed online"));
+        Path original = writePdf("original.pdf", pages);
+        pages.add(1, "Travel expenses are reimbursed within ten days. Receipts must be attached");
+        Path edited = writePdf("edited.pdf", pages);
+
+        CorpusSnapshot.DocumentEntry before = PageIndexer.index(original, "benefits.pdf", 1, 1, "a", null).getEntry();
+        PageIndexer.Result incremental = PageIndexer.index(edited, "benefits.pdf", 2, 1, "b", before);
+        CorpusSnapshot.DocumentEntry expected = PageIndexer.index(edited, "benefits.pdf", 2, 1, "b", null).getEntry();
+
+        assertEquals(1, incremental.getPagesExtracted());
+        assertEquals(texts(expected), texts(incremental.getEntry()));
+        assertEquals(postings(expected), postings(incremental.getEntry()));
+    }
+
+    @Test
+    void changedFontIsDetectedWithIdenticalContentStream() throws IOException {
+        List<String> pages = List.of(
+                "Payroll runs on the last working day of the month. Payslips appear in the portal",
+                "Insurance covers the employee and two dependents. Claims are filed online");
+        Path original = writePdf("original.pdf", pages);
+        // Both fonts are registered as /F1, so only the page's resource dictionary differs
+        Path edited = writePdf("edited.pdf", pages, List.of(PDType1Font.HELVETICA, PDType1Font.TIMES_ROMAN));
+
+        CorpusSnapshot.DocumentEntry before = PageIndexer.index(original, "benefits.pdf", 1, 1, "a", null).getEntry();
+        PageIndexer.Result incremental = PageIndexer.index(edited, "benefits.pdf", 2, 1, "b", before);
+
+        assertEquals(1, incremental.getPagesExtracted());
+        assertEquals(1, incremental.getPagesReused());
+    }
+
+    private Path writePdf(String name, List<String> pageTexts) throws IOException {
+        List<PDType1Font> fonts = new ArrayList<>();
+        pageTexts.forEach(text -> fonts.add(PDType1Font.HELVETICA));
+        return writePdf(name, pageTexts, fonts);
+    }
+
+    private Path writePdf(String name, List<String> pageTexts, List<PDType1Font> fonts) throws IOException {
+        Path path = dir.resolve(name);
+        try (PDDocument document = new PDDocument()) {
+            for (int i = 0; i < pageTexts.size(); i++) {
+                String text = pageTexts.get(i);
+                PDPage page = new PDPage();
+                document.addPage(page);
+                try (PDPageContentStream content = new PDPageContentStream(document, page)) {
+                    content.beginText();
+                    content.setFont(fonts.get(i), 12);
+                    content.newLineAtOffset(50, 700);
+                    content.showText(text);
+                    content.endText();
+                }
+            }
+            document.save(path.toFile());
+        }
+        return path;
+    }
+
+    private static List<String> texts(CorpusSnapshot.DocumentEntry entry) {
+        List<String> texts = new ArrayList<>();
+        entry.getChunks().forEach(chunk -> texts.add(chunk.getText()));
+        return texts;
+    }
+
+    private static List<Map<String, List<Integer>>> postings(CorpusSnapshot.DocumentEntry entry) {
+        List<Map<String, List<Integer>>> pages = new ArrayList<>();
+        for (CorpusSnapshot.Page page : entry.getPages()) {
+            Map<String, List<Integer>> sorted = new TreeMap<>();
+            page.getPostings().forEach((token, ids) -> {
+                List<Integer> list = new ArrayList<>();
+                for (int id : ids) list.add(id);
+                sorted.put(token, list);
+            });
+            pages.add(sorted);
+        }
+        return pages;
+    }
+}
@@ -0,0 +1,206 @@
+package com.project.ChatBot.service;
+
+import com.project.ChatBot.model.ChatMessage;
+import com.project.ChatBot.model.ConversationSummary;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RedisSessionStoreTest {
+
+    private EmbeddedRespServer server;
+    private RedisSessionStore writer;
+    private RedisSessionStore reader;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = new EmbeddedRespServer();
+        writer = newStore();
+        reader = newStore();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        writer.close();
+        reader.close();
+        server.close();
+    }
+
+    private RedisSessionStore newStore() {
+        return newStore(false);
+    }
+
+    private RedisSessionStore newStore(boolean stickySessions) {
+        return newStore(stickySessions, 0);
+    }
+
+    private RedisSessionStore newStore(boolean stickySessions, long validateIntervalMs) {
+        return new RedisSessionStore("localhost", server.getPort(), 2, 2000, 60_000, 30_000, 100, stickySessions,
+                validateIntervalMs);
+    }
+
+    private static ChatMessage message(String sessionId, String text) {
+        ChatMessage message = new ChatMessage(sessionId, "user", text, false);
+        message.setId(UUID.randomUUID().toString());
+        return message;
+    }
+
+    private static List<String> texts(List<ChatMessage> messages) {
+        return messages.stream().map(ChatMessage::getMessage).collect(Collectors.toList());
+    }
+
+    @Test
+    void sessionsWrittenOnOneInstanceAreVisibleOnAnother() {
+        writer.append("s1", new ChatMessage("s1", "user", "How many sick days do I get?", false));
+        writer.append("s1", new ChatMessage("s1", "bot", "Twelve per year.", false));
+        writer.putSummary("s1", new ConversationSummary("Asked about sick leave", 2));
+        writer.close();
+
+        assertTrue(reader.exists("s1"));
+        assertEquals(2, reader.size("s1"));
+        List<ChatMessage> messages = reader.getRange("s1", 0, Integer.MAX_VALUE);
+        assertEquals("How many sick days do I get?", messages.get(0).getMessage());
+        assertEquals("bot", messages.get(1).getSender());
+        assertEquals("Asked about sick leave", reader.getSummary("s1").getSummary());
+    }
+
+    @Test
+    void hotSessionReadsAreServedFromTheNearCacheWhenSticky() {
+        RedisSessionStore sticky = newStore(true);
+        try {
+            sticky.append("s2", new ChatMessage("s2", "user", "hello", false));
+            assertNull(sticky.getSummary("s2")); // loads the session into the near-cache
+            sticky.append("s2", new ChatMessage("s2", "bot", "hi", false));
+            // Wait out the background flusher so only reads can add batches from here on
+            sticky.flushPending();
+            int batchesAfterLoad = server.getCommandBatches();
+
+            for (int i = 0; i < 10; i++) {
+                assertEquals(2, sticky.size("s2"));
+                assertNull(sticky.getSummary("s2"));
+                assertEquals(2, sticky.getRange("s2", 0, 10).size());
+            }
+
+            assertEquals(batchesAfterLoad, server.getCommandBatches());
+        } finally {
+            sticky.close();
+        }
+    }
+
+    @Test
+    void cachedSessionsCatchUpWithWritesFromOtherInstances() {
+        writer.append("s5", message("s5", "1"));
+        writer.append("s5", message("s5", "2"));
+        assertNull(writer.getSummary("s5"));
+        assertEquals(1, writer.localSessionCount());
+
+        reader.append("s5", message("s5", "3"));
+        reader.append("s5", message("s5", "4"));
+        reader.putSummary("s5", new ConversationSummary("Counting", 2));
+        reader.flushPending();
+        writer.append("s5", message("s5", "5"));
+
+        assertEquals(5, writer.size("s5"));
+        assertEquals(List.of("1", "2", "3", "4", "5"), texts(writer.getRange("s5", 0, Integer.MAX_VALUE)));
+        assertEquals(2, writer.getSummary("s5").getCoveredMessages());
+        assertEquals(1, writer.localSessionCount());
+    }
+
+    @Test
+    void readsWithinTheValidateIntervalStayLocal() {
+        RedisSessionStore store = newStore(false, 60_000);
+        try {
+            store.append("s8", message("s8", "hello"));
+            assertNull(store.getSummary("s8"));
+            int batchesAfterLoad = server.getCommandBatches();
+
+            for (int i = 0; i < 5; i++) {
+                assertEquals(1, store.size("s8"));
+                assertNull(store.getSummary("s8"));
+                assertEquals(1, store.getRange("s8", 0, 10).size());
+            }
+            assertEquals(batchesAfterLoad, server.getCommandBatches());
+
+            // Our own write is caught up at once, whatever the interval
+            store.append("s8", message("s8", "again"));
+            assertEquals(List.of("hello", "again"), texts(store.getRange("s8", 0, 10)));
+        } finally {
+            store.close();
+        }
+    }
+
+    @Test
+    void unchangedSessionIsValidatedWithOneCommand() {
+        writer.append("s9", message("s9", "hello"));
+        assertNull(writer.getSummary("s9"));
+        int batchesAfterLoad = server.getCommandBatches();
+
+        assertEquals(1, writer.size("s9"));
+        assertEquals(batchesAfterLoad + 1, server.getCommandBatches());
+    }
+
+    @Test
+    void cachedSessionsAreReloadedWhenTheListWasReplaced() {
+        writer.append("s6", message("s6", "old 1"));
+        writer.append("s6", message("s6", "old 2"));
+        assertNull(writer.getSummary("s6"));
+
+        reader.delete("s6");
+        reader.append("s6", message("s6", "new 1"));
+        reader.append("s6", message("s6", "new 2"));
+        reader.append("s6", message("s6", "new 3"));
+        reader.flushPending();
+
+        assertEquals(List.of("new 1", "new 2", "new 3"), texts(writer.getRange("s6", 0, Integer.MAX_VALUE)));
+    }
+
+    @Test
+    void failedLoadsAreNotCached() throws Exception {
+        server.close();
+
+        writer.append("s7", new ChatMessage("s7", "user", "lost?", false));
+        assertEquals(0, writer.size("s7"));
+        assertEquals(0, writer.localSessionCount());
+    }
+
+    @Test
+    void coldRangeReadsOnlyTheRequestedWindow() {
+        for (int i = 0; i < 20; i++) {
+            writer.append("s3", new ChatMessage("s3", "user", "message " + i, false));
+        }
+        writer.close();
+
+        List<ChatMessage> page = reader.getRange("s3", 15, 18);
+        assertEquals(3, page.size());
+        assertEquals("message 15", page.get(0).getMessage());
+        assertEquals("message 17", page.get(2).getMessage());
+    }
+
+    @Test
+    void coldSizeReadsOnlyTheLength() {
+        for (int i = 0; i < 20; i++) {
+            writer.append("s10", new ChatMessage("s10", "user", "message " + i, false));
+        }
+        writer.close();
+
+        assertEquals(20, reader.size("s10"));
+        assertTrue(reader.exists("s10"));
+        assertEquals(0, reader.localSessionCount());
+    }
+
+    @Test
+    void deleteRemovesTheSessionForEveryInstance() {
+        writer.append("s4", new ChatMessage("s4", "user", "bye", false));
+        writer.delete("s4");
+        writer.close();
+
+        assertFalse(reader.exists("s4"));
+        assertTrue(reader.getRange("s4", 0, 10).isEmpty());
+    }
+}
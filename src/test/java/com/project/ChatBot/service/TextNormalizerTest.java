@@ -0,0 +1,30 @@
+package com.project.ChatBot.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TextNormalizerTest {
+
+    @Test
+    void collapsesWhitespaceAndBlankLines() {
+        String raw = "  Leave   policy\t applies  \r\n\r\n\r\n\r\nto all\u00A0staff.   \n";
+        assertEquals("Leave policy applies\n\nto all staff.", TextNormalizer.normalize(raw));
+    }
+
+    @Test
+    void joinsWordsHyphenatedAcrossLines() {
+        assertEquals("All employees must apply", TextNormalizer.normalize("All employ-\nees must apply"));
+        assertEquals("All employ-\nEes", TextNormalizer.normalize("All employ-\nEes"));
+        assertEquals("a well-known rule", TextNormalizer.normalize("a well-known rule"));
+        assertEquals("COVID-19 leave", TextNormalizer.normalize("COVID-19 leave"));
+    }
+
+    @Test
+    void foldsLigaturesAndCompatibilityCharacters() {
+        assertEquals("office fluid", TextNormalizer.normalize("o\uFB03ce \uFB02uid"));
+        assertEquals("re-entry 1\u20442 A", TextNormalizer.normalize("re\u2010entry \u00BD \uFF21"));
+        assertEquals("softhyphen", TextNormalizer.normalize("soft\u00ADhyphen\u200B\u0000"));
+        assertEquals("caf\u00E9", TextNormalizer.normalize("cafe\u0301"));
+    }
+}